@@ -0,0 +1,101 @@
+package com.github.bouyio.cyancore.debugger;
+
+import java.lang.reflect.Method;
+
+/**
+ * <p>
+ *     Reads the amount of bytes allocated by a thread, to measure the allocations of a piece of code
+ *     as the difference of two readings.
+ * </p>
+ * <p>
+ *     The counter is provided by the {@code com.sun.management.ThreadMXBean} of desktop JVMs and is accessed
+ *     through reflection, as the management API does not exist on Android. Where it is not available,
+ *     {@link #isSupported()} is false and every reading is {@code -1}.
+ * </p>
+ * <p>
+ *     A meter reads the counter of the thread that created it and must only be used from that thread.
+ *     The reading itself allocates a few bytes; {@link #getAllocatedBytes()} subtracts them, so the difference
+ *     of two consecutive readings is zero.
+ * </p>
+ * */
+public class AllocationMeter {
+
+    private static final int CALIBRATION_READINGS = 64;
+
+    private static final Object THREAD_MX_BEAN;
+    private static final Method GET_THREAD_ALLOCATED_BYTES;
+
+    static {
+        Object bean = null;
+        Method method = null;
+        try {
+            Class<?> managementFactory = Class.forName("java.lang.management.ManagementFactory");
+            bean = managementFactory.getMethod("getThreadMXBean").invoke(null);
+
+            // The method is looked up on the exported interface, as the implementing class is not accessible.
+            Class<?> beanInterface = Class.forName("com.sun.management.ThreadMXBean");
+            if (beanInterface.isInstance(bean)
+                    && (Boolean) beanInterface.getMethod("isThreadAllocatedMemorySupported").invoke(bean)) {
+                beanInterface.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true);
+                method = beanInterface.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Throwable ignored) {
+            // Not a desktop JVM, or the counter cannot be enabled; allocations cannot be measured.
+            method = null;
+        }
+        THREAD_MX_BEAN = method == null ? null : bean;
+        GET_THREAD_ALLOCATED_BYTES = method;
+    }
+
+    private final Object[] arguments;
+    private long overhead = 0;
+    private long overheadSum = 0;
+
+    /**
+     * <p>Creates a meter of the current thread.</p>
+     * */
+    public AllocationMeter() {
+        // The argument array is reused so readings allocate as little as possible.
+        arguments = new Object[] {Thread.currentThread().getId()};
+
+        if (isSupported()) {
+            long minimum = Long.MAX_VALUE;
+            long previous = read();
+            for (int i = 0; i < CALIBRATION_READINGS; i++) {
+                long current = read();
+                minimum = Math.min(minimum, current - previous);
+                previous = current;
+            }
+            overhead = Math.max(0, minimum);
+        }
+    }
+
+    /** @return Whether allocations can be measured on this platform.*/
+    public static boolean isSupported() {
+        return GET_THREAD_ALLOCATED_BYTES != null;
+    }
+
+    /**
+     * @return The amount of bytes allocated by the thread of the meter, excluding the readings of the meter,
+     * or {@code -1} if it is not supported.
+     * */
+    public long getAllocatedBytes() {
+        if (!isSupported()) return -1;
+        final long bytes = read() - overheadSum;
+        overheadSum += overhead;
+        return bytes;
+    }
+
+    /** @return The bytes allocated by a single reading, which are excluded from the readings.*/
+    public long getReadingOverhead() {
+        return overhead;
+    }
+
+    private long read() {
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not read the allocated bytes", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.bouyio.cyancore.debugger;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     Assigns compact integer handles to the names of logged values.
+ *     Systems register their names once, when a logger is attached, and log through the handles,
+ *     so no header has to be created while logging. The names are resolved only when the data is exported.
+ * <p/>
+ * <p>
+ *     Registration is meant to happen during set up. Resolving handles is safe from any thread.
+ * <p/>
+ * @see Logger#registerChannel(String)
+ * */
+public class ChannelRegistry {
+
+    private volatile String[] names = new String[16];
+    private int channelAmount = 0;
+
+    /**
+     * <p>Registers a channel. Registering an already registered name returns its existing handle.<p/>
+     * @param name The name of the channel.
+     * @return The handle of the channel.
+     * */
+    public synchronized int register(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Channel name cannot be null");
+        }
+
+        final int existing = find(name);
+        if (existing >= 0) return existing;
+
+        String[] current = names;
+        if (channelAmount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[channelAmount] = name;
+        channelAmount++;
+        // Republish the array so readers on other threads see the new name.
+        names = current;
+
+        return channelAmount - 1;
+    }
+
+    /**
+     * @param name The name of the channel.
+     * @return The handle of the channel or -1 if it is not registered.
+     * */
+    public synchronized int find(String name) {
+        final String[] current = names;
+        for (int i = 0; i < channelAmount; i++) {
+            if (current[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param handle The handle of the channel.
+     * @return The name of the channel.
+     * */
+    public String getName(int handle) {
+        final String[] current = names;
+        if (handle < 0 || handle >= current.length || current[handle] == null) {
+            throw new IllegalArgumentException("Unknown channel handle: " + handle);
+        }
+        return current[handle];
+    }
+
+    /** @return The amount of registered channels.*/
+    public synchronized int getChannelAmount() {
+        return channelAmount;
+    }
+}
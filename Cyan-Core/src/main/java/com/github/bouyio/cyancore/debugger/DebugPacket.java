@@ -13,6 +13,8 @@ public class DebugPacket<H extends StringIdentifiable, V> {
     final H header;
     final V value;
 
+    long timestamp = 0;
+
     /**
      * <p>Creates a packet with specified header and value.<p/>
      * */
@@ -30,4 +32,9 @@ public class DebugPacket<H extends StringIdentifiable, V> {
     public V getValue() {
         return value;
     }
+
+    /**<p>Returns the time the packet was recorded at in nanoseconds, as measured by the clock of the logger.<p/>*/
+    public long getTimestamp() {
+        return timestamp;
+    }
 }
@@ -0,0 +1,188 @@
+package com.github.bouyio.cyancore.debugger;
+
+/**
+ * <p>
+ *     A fixed-bucket histogram of non-negative integer samples, such as durations in nanoseconds.
+ *     All the storage is allocated on creation, so recording samples never allocates.
+ *     Samples beyond the last bucket are counted in an overflow bucket.
+ * </p>
+ * @see Logger
+ * */
+public class Histogram {
+
+    private final long bucketWidth;
+    private final long[] buckets;
+
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    // The headers are built once so logging the summary does not create strings.
+    private final String countHeader;
+    private final String meanHeader;
+    private final String p50Header;
+    private final String p99Header;
+    private final String maxHeader;
+
+    private Logger logger = null;
+    private int countChannel;
+    private int meanChannel;
+    private int p50Channel;
+    private int p99Channel;
+    private int maxChannel;
+
+    /**
+     * <p>Creates a histogram with the given bucket layout.</p>
+     * @param bucketWidth The range of values covered by each bucket.
+     * @param bucketAmount The amount of buckets, not counting the overflow bucket.
+     * */
+    public Histogram(long bucketWidth, int bucketAmount) {
+        this("Histogram", bucketWidth, bucketAmount);
+    }
+
+    /**
+     * <p>Creates a named histogram with the given bucket layout.</p>
+     * @param name The name used as a prefix for the headers of the logged summary.
+     * @param bucketWidth The range of values covered by each bucket.
+     * @param bucketAmount The amount of buckets, not counting the overflow bucket.
+     * */
+    public Histogram(String name, long bucketWidth, int bucketAmount) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        if (bucketAmount <= 0) {
+            throw new IllegalArgumentException("Bucket amount must be positive");
+        }
+        this.bucketWidth = bucketWidth;
+        buckets = new long[bucketAmount + 1];
+
+        countHeader = name + " Count";
+        meanHeader = name + " Mean";
+        p50Header = name + " P50";
+        p99Header = name + " P99";
+        maxHeader = name + " Max";
+    }
+
+    /**
+     * <p>Records a sample. Negative samples are recorded as zero.</p>
+     * @param value The sample.
+     * */
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        long index = value / bucketWidth;
+        buckets[index >= buckets.length - 1 ? buckets.length - 1 : (int) index]++;
+
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * <p>Clears all the recorded samples.</p>
+     * */
+    public void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /** @return The amount of recorded samples.*/
+    public long getCount() {
+        return count;
+    }
+
+    /** @return The smallest recorded sample or 0 if nothing has been recorded.*/
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /** @return The largest recorded sample.*/
+    public long getMax() {
+        return max;
+    }
+
+    /** @return The average of the recorded samples or 0 if nothing has been recorded.*/
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** @return The range of values covered by each bucket.*/
+    public long getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /** @return The amount of buckets, including the overflow bucket.*/
+    public int getBucketAmount() {
+        return buckets.length;
+    }
+
+    /**
+     * @param index The index of the bucket. The last index is the overflow bucket.
+     * @return The amount of samples recorded in the bucket.
+     * */
+    public long getBucketCount(int index) {
+        return buckets[index];
+    }
+
+    /**
+     * <p>
+     *     Estimates the value below which the given fraction of the samples lies.
+     *     The estimate is the upper bound of the bucket containing the percentile,
+     *     or the largest sample if it lies in the overflow bucket.
+     * </p>
+     * @param fraction The fraction of samples, between 0 and 1.
+     * @return The estimated percentile or 0 if nothing has been recorded.
+     * */
+    public long getPercentile(double fraction) {
+        if (count == 0) return 0;
+
+        long threshold = (long) Math.ceil(Math.max(0, Math.min(1, fraction)) * count);
+        long accumulated = 0;
+
+        for (int i = 0; i < buckets.length - 1; i++) {
+            accumulated += buckets[i];
+            if (accumulated >= threshold) return Math.min((i + 1) * bucketWidth, max);
+        }
+
+        return max;
+    }
+
+    /**
+     * <p>Attaches a logger and registers the channels the summary of the histogram is logged to.</p>
+     * @param l The logger or null to stop logging.
+     * */
+    public void attachLogger(Logger l) {
+        logger = l;
+        if (l == null) return;
+
+        countChannel = l.registerChannel(countHeader);
+        meanChannel = l.registerChannel(meanHeader);
+        p50Channel = l.registerChannel(p50Header);
+        p99Channel = l.registerChannel(p99Header);
+        maxChannel = l.registerChannel(maxHeader);
+    }
+
+    /**
+     * <p>Records the summary of the histogram to the attached logger, if any.</p>
+     * @see #attachLogger(Logger)
+     * */
+    public void log() {
+        if (logger == null) return;
+
+        logger.logValue(countChannel, count);
+        logger.logValue(meanChannel, getMean());
+        logger.logValue(p50Channel, getPercentile(0.5));
+        logger.logValue(p99Channel, getPercentile(0.99));
+        logger.logValue(maxChannel, max);
+    }
+}
@@ -1,46 +1,184 @@
 package com.github.bouyio.cyancore.debugger;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.github.bouyio.cyancore.debugger.formating.Identifier;
 import com.github.bouyio.cyancore.debugger.formating.MessageLevel;
+import com.github.bouyio.cyancore.debugger.formating.StringIdentifiable;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 // Explicit import to help VS Code indexing
 import com.github.bouyio.cyancore.debugger.DebugPacket;
 
 /**
  * A logger system that records packets of data critical for debugging.
  * Enhanced with improved import handling and VS Code compatibility.
+ * <p>
+ *     The entries are stored in a ring buffer allocated on creation, with primitive slots for
+ *     {@code double} and {@code long} values and their timestamps, so logging numbers never allocates.
+ *     The buffer is lock-free for a single producer thread, which logs, and a single consumer thread,
+ *     which drains. When the buffer is full new entries are dropped, or, if overwriting is enabled,
+ *     the oldest unread entries are overwritten. Lost entries are counted.
+ * <p/>
  *
  * @author Bouyio (https://github.com/bouyio)
  * @author Gvol (https://github.com/Gvolexe)
  */
 public class Logger {
 
-    private final List<DebugPacket> buffer;
+    /**
+     * <p>Receives the entries of the buffer when it is drained.<p/>
+     * @see #drain(Sink)
+     * */
+    public interface Sink {
+        void acceptDouble(String header, double value, long timestamp);
 
-    private boolean isBufferFull = false;
+        void acceptLong(String header, long value, long timestamp);
+
+        void acceptObject(String header, Object value, long timestamp);
+    }
+
+    // ----SLOT KINDS----
+    private static final int KIND_DOUBLE = 0;
+    private static final int KIND_LONG = 1;
+    private static final int KIND_OBJECT = 2;
+    private static final int KIND_PACKET = 3;
+    /** Flags a slot whose header is a channel handle instead of a name.*/
+    private static final int KIND_CHANNEL = 4;
+
+    /** Marks a slot that is being written.*/
+    private static final long SLOT_BUSY = -1;
 
     private final int BUFFER_SIZE;
-    private int index = 0;
+    private final int mask;
+    private final boolean isOverwriteEnabled;
+
+    // Every slot is published by storing its sequence after its contents, so the consumer can detect torn reads.
+    private final AtomicLongArray slotSequences;
+    private final AtomicIntegerArray kinds;
+    private final AtomicReferenceArray<Object> headers;
+    private final AtomicIntegerArray channelHandles;
+    private final AtomicReferenceArray<Object> objectValues;
+    private final AtomicLongArray primitiveValues;
+    private final AtomicLongArray timestamps;
 
-    /** Creates a Logger instance with the default data buffer size of 50 debug packets.*/
+    private final AtomicLong writeSequence = new AtomicLong(0);
+    private final AtomicLong readSequence = new AtomicLong(0);
+
+    private volatile long droppedEntries = 0;
+    private volatile long overwrittenEntries = 0;
+
+    private final ChannelRegistry channels = new ChannelRegistry();
+
+    private Clock clock = Clocks.getGlobalClock();
+
+    /** Creates a Logger instance with the default data buffer size of 64 debug packets.*/
     public Logger() {
-        this(50);
+        this(64);
     }
 
-    /** Creates a Logger instance with a custom data buffer size. */
+    /** Creates a Logger instance with a custom data buffer size, rounded up to a power of two. */
     public Logger(int size) {
-        BUFFER_SIZE = size;
-        buffer = new LinkedList<>();
+        this(size, false);
+    }
+
+    /**
+     * <p>Creates a Logger instance with a custom data buffer size, rounded up to a power of two.<p/>
+     * @param size The minimum amount of entries the buffer holds.
+     * @param overwriteOldest Whether the oldest entries are overwritten instead of dropping new ones when the buffer is full.
+     * */
+    public Logger(int size, boolean overwriteOldest) {
+        if (size <= 0 || size > 1 << 30) {
+            throw new IllegalArgumentException("Logger buffer size must be between 1 and 2^30");
+        }
+        BUFFER_SIZE = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        mask = BUFFER_SIZE - 1;
+        isOverwriteEnabled = overwriteOldest;
+
+        slotSequences = new AtomicLongArray(BUFFER_SIZE);
+        kinds = new AtomicIntegerArray(BUFFER_SIZE);
+        headers = new AtomicReferenceArray<>(BUFFER_SIZE);
+        channelHandles = new AtomicIntegerArray(BUFFER_SIZE);
+        objectValues = new AtomicReferenceArray<>(BUFFER_SIZE);
+        primitiveValues = new AtomicLongArray(BUFFER_SIZE);
+        timestamps = new AtomicLongArray(BUFFER_SIZE);
+
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            slotSequences.set(i, SLOT_BUSY);
+        }
+    }
+
+    /**
+     * <p>Sets the clock used for timestamping the recorded packets.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * <p>Registers a channel that values can be logged to without a header being created.<p/>
+     * @param name The name of the channel.
+     * @return The handle of the channel.
+     * @see ChannelRegistry#register(String)
+     * */
+    public int registerChannel(String name) {
+        return channels.register(name);
+    }
+
+    /** @return The registry resolving the channel handles of this logger.*/
+    public ChannelRegistry getChannels() {
+        return channels;
+    }
+
+    // ----PRODUCER----
+
+    /**
+     * <p>Claims the next slot and marks it as being written.<p/>
+     * @return The sequence of the slot or -1 if the buffer is full and the entry has to be dropped.
+     * */
+    private long claim() {
+        final long sequence = writeSequence.get();
+
+        if (!isOverwriteEnabled && sequence - readSequence.get() >= BUFFER_SIZE) {
+            droppedEntries++;
+            return -1;
+        }
+
+        slotSequences.set((int) sequence & mask, SLOT_BUSY);
+        return sequence;
+    }
+
+    /**
+     * <p>Publishes a written slot to the consumer.<p/>
+     * */
+    private void publish(long sequence, int kind, Object header, long timestamp) {
+        final int slot = (int) sequence & mask;
+        kinds.lazySet(slot, kind);
+        headers.lazySet(slot, header);
+        timestamps.lazySet(slot, timestamp);
+        slotSequences.lazySet(slot, sequence);
+        writeSequence.lazySet(sequence + 1);
+    }
+
+    private void publishChannel(long sequence, int kind, int channel) {
+        channelHandles.lazySet((int) sequence & mask, channel);
+        publish(sequence, kind | KIND_CHANNEL, null, clock.nanoTime());
     }
 
     /**
      * <p>
      *     Stores the sent debug packet to the buffer until dumped or cleared.
      *     It can be access by dumping the buffer.
-     *     If the buffer is almost full it will record a warning stating that the buffer is full and needs to be dumped or cleared.
-     *     If the buffer is full no packet will be recorded.
+     *     If the buffer is full the packet is dropped, unless overwriting is enabled.
      * <p/>
      *
      * @param packet The packet to be recorded.
@@ -50,42 +188,109 @@ public class Logger {
         if (packet == null) {
             throw new IllegalArgumentException("Debug packet cannot be null");
         }
-        
-        if (isBufferFull) return;
 
-        buffer.add(packet);
-        index++;
+        final long sequence = claim();
+        if (sequence < 0) return;
 
-        // Optimized: More efficient buffer capacity check
-        if (index >= BUFFER_SIZE - 2 && !isBufferFull) {
-            logMessage(MessageLevel.WARNING,
-                    "Logger buffer has reached its maximum capacity and will NOT be able to record until dumped or cleared.");
-            isBufferFull = true;
-        }
+        final long timestamp = clock.nanoTime();
+        packet.timestamp = timestamp;
+        objectValues.lazySet((int) sequence & mask, packet);
+        publish(sequence, KIND_PACKET, packet.header, timestamp);
     }
 
     /**
      *
      * <p>
      *     Records a debug packet with a specified header and value to the buffer which can be accessed by dumping the buffer.
-     *     If the buffer is full the packet will NOT be recorded.
+     *     If the buffer is full the packet is dropped, unless overwriting is enabled.
      * <p/>
      *
      * @param header The header of the packet.
      * @param value The value of the packet.
      * */
     public void logValue(String header, Object value) {
-        Identifier i = new Identifier(header);
-        DebugPacket<Identifier, Object> packet = new DebugPacket<>(i, value);
+        final long sequence = claim();
+        if (sequence < 0) return;
 
-        record(packet);
+        objectValues.lazySet((int) sequence & mask, value);
+        publish(sequence, KIND_OBJECT, header, clock.nanoTime());
+    }
+
+    /**
+     * <p>Records a numerical value without allocating.<p/>
+     * @param header The header of the value.
+     * @param value The value.
+     * @see #logValue(String, Object)
+     * */
+    public void logValue(String header, double value) {
+        final long sequence = claim();
+        if (sequence < 0) return;
+
+        primitiveValues.lazySet((int) sequence & mask, Double.doubleToRawLongBits(value));
+        publish(sequence, KIND_DOUBLE, header, clock.nanoTime());
+    }
+
+    /**
+     * <p>Records an integral value without allocating.<p/>
+     * @param header The header of the value.
+     * @param value The value.
+     * @see #logValue(String, Object)
+     * */
+    public void logValue(String header, long value) {
+        final long sequence = claim();
+        if (sequence < 0) return;
+
+        primitiveValues.lazySet((int) sequence & mask, value);
+        publish(sequence, KIND_LONG, header, clock.nanoTime());
+    }
+
+    /**
+     * <p>Records a numerical value to a registered channel without allocating.<p/>
+     * @param channel The handle of the channel.
+     * @param value The value.
+     * @see #registerChannel(String)
+     * */
+    public void logValue(int channel, double value) {
+        final long sequence = claim();
+        if (sequence < 0) return;
+
+        primitiveValues.lazySet((int) sequence & mask, Double.doubleToRawLongBits(value));
+        publishChannel(sequence, KIND_DOUBLE, channel);
+    }
+
+    /**
+     * <p>Records an integral value to a registered channel without allocating.<p/>
+     * @param channel The handle of the channel.
+     * @param value The value.
+     * @see #registerChannel(String)
+     * */
+    public void logValue(int channel, long value) {
+        final long sequence = claim();
+        if (sequence < 0) return;
+
+        primitiveValues.lazySet((int) sequence & mask, value);
+        publishChannel(sequence, KIND_LONG, channel);
+    }
+
+    /**
+     * <p>Records a value to a registered channel.<p/>
+     * @param channel The handle of the channel.
+     * @param value The value.
+     * @see #registerChannel(String)
+     * */
+    public void logValue(int channel, Object value) {
+        final long sequence = claim();
+        if (sequence < 0) return;
+
+        objectValues.lazySet((int) sequence & mask, value);
+        publishChannel(sequence, KIND_OBJECT, channel);
     }
 
     /**
      *
      * <p>
      *     Records a message with a specified {@link MessageLevel} to the buffer which can be accessed by dumping the buffer.
-     *     If the buffer is full the message will NOT be recorded.
+     *     If the buffer is full the message is dropped, unless overwriting is enabled.
      * <p/>
      *
      * @param msgLvl The message type that will be displayed as the header of the packet.
@@ -100,7 +305,7 @@ public class Logger {
      *
      * <p>
      *     Records a {@link MessageLevel#DEBUG} message to the buffer which can be accessed by dumping the buffer.
-     *     If the buffer is full the message will NOT be recorded.
+     *     If the buffer is full the message is dropped, unless overwriting is enabled.
      * <p/>
      *
      * @param content The content of the message that will be displayed as the value of the packet.
@@ -109,32 +314,156 @@ public class Logger {
         logMessage(MessageLevel.DEBUG, content);
     }
 
+    // ----CONSUMER----
+
+    /**
+     * <p>
+     *     Passes every unread entry to the sink in the order they have been added and marks them as read.
+     *     Numerical values are passed without boxing.
+     * <p/>
+     * @param sink The receiver of the entries.
+     * @return The amount of entries passed to the sink.
+     * */
+    public int drain(Sink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink cannot be null");
+        }
+        return drain(sink, null);
+    }
+
+    /**
+     * <p>Reads the unread entries into the sink or, if the sink is null, the packet list.<p/>
+     * */
+    private int drain(Sink sink, List<DebugPacket> packets) {
+        final long head = writeSequence.get();
+        long sequence = readSequence.get();
+
+        // In overwrite mode the producer may have lapped the consumer.
+        if (head - sequence > BUFFER_SIZE) {
+            overwrittenEntries += head - sequence - BUFFER_SIZE;
+            sequence = head - BUFFER_SIZE;
+        }
+
+        int drained = 0;
+        for (; sequence < head; sequence++) {
+            final int slot = (int) sequence & mask;
+
+            if (slotSequences.get(slot) != sequence) {
+                overwrittenEntries++;
+                continue;
+            }
+
+            final int kind = kinds.get(slot);
+            final Object header = headers.get(slot);
+            final int channel = channelHandles.get(slot);
+            final Object object = objectValues.get(slot);
+            final long primitive = primitiveValues.get(slot);
+            final long timestamp = timestamps.get(slot);
+
+            // The slot was overwritten while it was being read.
+            if (slotSequences.get(slot) != sequence) {
+                overwrittenEntries++;
+                continue;
+            }
+
+            final String name = (kind & KIND_CHANNEL) != 0 ? channels.getName(channel) : headerName(header);
+
+            if (sink != null) {
+                switch (kind & ~KIND_CHANNEL) {
+                    case KIND_DOUBLE:
+                        sink.acceptDouble(name, Double.longBitsToDouble(primitive), timestamp);
+                        break;
+                    case KIND_LONG:
+                        sink.acceptLong(name, primitive, timestamp);
+                        break;
+                    case KIND_PACKET:
+                        sink.acceptObject(name, ((DebugPacket) object).getValue(), timestamp);
+                        break;
+                    default:
+                        sink.acceptObject(name, object, timestamp);
+                }
+            } else {
+                packets.add(toPacket(kind & ~KIND_CHANNEL, name, object, primitive, timestamp));
+            }
+            drained++;
+        }
+
+        readSequence.lazySet(head);
+        return drained;
+    }
+
+    private static String headerName(Object header) {
+        return header instanceof StringIdentifiable ?
+                ((StringIdentifiable) header).getIdentifier() :
+                (String) header;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static DebugPacket toPacket(int kind, String name, Object object, long primitive, long timestamp) {
+        if (kind == KIND_PACKET) return (DebugPacket) object;
+
+        Object value;
+        switch (kind) {
+            case KIND_DOUBLE:
+                value = Double.longBitsToDouble(primitive);
+                break;
+            case KIND_LONG:
+                value = primitive;
+                break;
+            default:
+                value = object;
+        }
+
+        DebugPacket packet = new DebugPacket<>(new Identifier(name), value);
+        packet.timestamp = timestamp;
+        return packet;
+    }
+
     /**
      *
      * <p>
-     *      Clears the buffer and resets the its full status.
+     *      Marks every entry of the buffer as read. Should only be called by the consumer thread.
      * <p/>
      *
      * */
     public void clearBuffer() {
-        buffer.clear();
-        index = 0;
-        isBufferFull = false;
+        readSequence.lazySet(writeSequence.get());
     }
 
     /**
      *
      * <p>
      *      Clears the buffer and returns all of its contents since its last clearance.
+     *      Numerical values are boxed, so {@link #drain(Sink)} should be preferred in loops.
      * <p/>
      *
      * @return All of the contents of the buffer in the order they have been added.
      * */
     public DebugPacket[] dump() {
-        DebugPacket[] copy = new DebugPacket[BUFFER_SIZE];
-        buffer.toArray(copy);
+        List<DebugPacket> packets = new ArrayList<>(BUFFER_SIZE);
+        drain(null, packets);
+        return packets.toArray(new DebugPacket[0]);
+    }
+
+    // ----BUFFER INFO----
+
+    /** @return The amount of entries the buffer holds.*/
+    public int getBufferSize() {
+        return BUFFER_SIZE;
+    }
+
+    /** @return Whether the oldest entries are overwritten when the buffer is full.*/
+    public boolean isOverwriteEnabled() {
+        return isOverwriteEnabled;
+    }
+
+    /** @return The amount of entries that have been recorded but not read yet, at most the buffer size.*/
+    public int getPendingEntries() {
+        return (int) Math.min(BUFFER_SIZE, writeSequence.get() - readSequence.get());
+    }
 
-        clearBuffer();
-        return copy;
+    /** @return The amount of entries lost because the buffer was full, dropped or overwritten.*/
+    public long getLostEntries() {
+        return droppedEntries + overwrittenEntries;
     }
 }
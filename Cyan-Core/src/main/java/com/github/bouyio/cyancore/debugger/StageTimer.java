@@ -0,0 +1,252 @@
+package com.github.bouyio.cyancore.debugger;
+
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+
+/**
+ * <p>
+ *     Measures the time a system spends in each stage of a cycle, such as one loop of a follower, in nanoseconds.
+ *     The system switches between stages with {@link #enter(int)}; the time since the previous switch is
+ *     added to the stage that was running. When the cycle ends, the total of every stage that ran is
+ *     recorded in the histogram of the stage.
+ * <p/>
+ * <p>
+ *     Cycles may be nested, e.g. when a sequence follower calls a point follower. Only the outermost cycle is recorded.
+ *     One clock reading is taken per switch and nothing is allocated while timing.
+ * <p/>
+ * <p>
+ *     Once a logger is attached the last duration of every stage is logged in a channel prefixed with
+ *     {@link TelemetryAnalyzer#STAGE_CHANNEL_PREFIX}, so recorded runs can be broken down offline.
+ * <p/>
+ * @see Histogram
+ * */
+public class StageTimer {
+
+    /** The value of {@link #enter(int)} returned when no stage was running.*/
+    public static final int NO_STAGE = -1;
+
+    private static final long BUCKET_WIDTH_NANOS = 10_000L;
+    private static final int BUCKET_AMOUNT = 1000;
+
+    private final String[] stageNames;
+    private final Histogram[] histograms;
+
+    private final long[] cycleDurations;
+    private final boolean[] isStageRun;
+    private final long[] lastDurations;
+    private final boolean[] isLastRun;
+
+    private Clock clock;
+
+    private int depth = 0;
+    private int currentStage = NO_STAGE;
+    private long lastSwitchTime = 0;
+    private long cycleCount = 0;
+
+    private Logger logger = null;
+    private int[] stageChannels;
+
+    /**
+     * <p>Creates a timer for the given stages, timed by the global clock.</p>
+     * @param stageNames The names of the stages. The index of each name is the index of the stage.
+     * @see Clocks#getGlobalClock()
+     * */
+    public StageTimer(String... stageNames) {
+        this(Clocks.getGlobalClock(), stageNames);
+    }
+
+    /**
+     * <p>Creates a timer for the given stages, timed by the given clock.</p>
+     * @param clock The clock.
+     * @param stageNames The names of the stages. The index of each name is the index of the stage.
+     * */
+    public StageTimer(Clock clock, String... stageNames) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        if (stageNames == null || stageNames.length == 0) {
+            throw new IllegalArgumentException("At least one stage is required");
+        }
+
+        this.clock = clock;
+        this.stageNames = stageNames.clone();
+
+        histograms = new Histogram[stageNames.length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram(BUCKET_WIDTH_NANOS, BUCKET_AMOUNT);
+        }
+
+        cycleDurations = new long[stageNames.length];
+        isStageRun = new boolean[stageNames.length];
+        lastDurations = new long[stageNames.length];
+        isLastRun = new boolean[stageNames.length];
+    }
+
+    /**
+     * <p>Sets the clock used for timing. Has no effect on a running cycle until it ends.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        if (depth == 0) this.clock = clock;
+    }
+
+    // ----TIMING----
+
+    /**
+     * <p>Starts a cycle in the given stage. If a cycle is already running, only its nesting depth is increased.</p>
+     * @param stage The first stage of the cycle.
+     * */
+    public void beginCycle(int stage) {
+        if (depth++ > 0) return;
+
+        for (int i = 0; i < cycleDurations.length; i++) {
+            cycleDurations[i] = 0;
+            isStageRun[i] = false;
+        }
+
+        currentStage = NO_STAGE;
+        lastSwitchTime = clock.nanoTime();
+        enter(stage);
+    }
+
+    /**
+     * <p>Switches to the given stage, adding the time since the previous switch to the running stage.</p>
+     * @param stage The stage to switch to, or {@link #NO_STAGE} to stop timing until the next switch.
+     * @return The stage that was running, so it can be restored after a sub-stage.
+     * */
+    public int enter(int stage) {
+        if (stage != NO_STAGE && (stage < 0 || stage >= stageNames.length)) {
+            throw new IllegalArgumentException("Unknown stage: " + stage);
+        }
+        if (depth == 0) return NO_STAGE;
+
+        final long currentTime = clock.nanoTime();
+        final int previousStage = currentStage;
+
+        if (previousStage != NO_STAGE) {
+            cycleDurations[previousStage] += currentTime - lastSwitchTime;
+        }
+        if (stage != NO_STAGE) {
+            isStageRun[stage] = true;
+        }
+
+        currentStage = stage;
+        lastSwitchTime = currentTime;
+        return previousStage;
+    }
+
+    /**
+     * <p>Ends a cycle. When the outermost cycle ends, the duration of every stage that ran is recorded.</p>
+     * */
+    public void endCycle() {
+        if (depth == 0) {
+            throw new IllegalStateException("No cycle is running");
+        }
+        if (depth > 1) {
+            depth--;
+            return;
+        }
+
+        // enter() ignores switches outside of a cycle, so the last stage is closed before the depth is dropped.
+        enter(NO_STAGE);
+        depth = 0;
+
+        for (int i = 0; i < cycleDurations.length; i++) {
+            isLastRun[i] = isStageRun[i];
+            if (!isStageRun[i]) continue;
+
+            lastDurations[i] = cycleDurations[i];
+            histograms[i].record(cycleDurations[i]);
+        }
+        cycleCount++;
+    }
+
+    /**
+     * <p>Clears the recorded durations.</p>
+     * */
+    public void reset() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].reset();
+            lastDurations[i] = 0;
+            isLastRun[i] = false;
+        }
+        cycleCount = 0;
+    }
+
+    // ----STATISTICS----
+
+    /** @return The amount of stages.*/
+    public int getStageAmount() {
+        return stageNames.length;
+    }
+
+    /**
+     * @param stage The index of the stage.
+     * @return The name of the stage.
+     * */
+    public String getStageName(int stage) {
+        return stageNames[stage];
+    }
+
+    /**
+     * @param stage The index of the stage.
+     * @return The histogram of the durations of the stage in nanoseconds.
+     * */
+    public Histogram getHistogram(int stage) {
+        return histograms[stage];
+    }
+
+    /**
+     * @param stageName The name of the stage.
+     * @return The histogram of the durations of the stage in nanoseconds.
+     * */
+    public Histogram getHistogram(String stageName) {
+        for (int i = 0; i < stageNames.length; i++) {
+            if (stageNames[i].equals(stageName)) return histograms[i];
+        }
+        throw new IllegalArgumentException("Unknown stage: " + stageName);
+    }
+
+    /**
+     * @param stage The index of the stage.
+     * @return The duration of the stage in the last cycle in nanoseconds, or 0 if it did not run.
+     * */
+    public long getLastDuration(int stage) {
+        return isLastRun[stage] ? lastDurations[stage] : 0;
+    }
+
+    /** @return The amount of recorded cycles.*/
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    // ----DEBUG METHODS----
+
+    /**
+     * <p>Attaches a logger and registers a channel for every stage.</p>
+     * @param logger The logger or null to detach it.
+     * */
+    public void attachLogger(Logger logger) {
+        this.logger = logger;
+        if (logger == null) return;
+
+        stageChannels = new int[stageNames.length];
+        for (int i = 0; i < stageNames.length; i++) {
+            stageChannels[i] = logger.registerChannel(TelemetryAnalyzer.STAGE_CHANNEL_PREFIX + stageNames[i]);
+        }
+    }
+
+    /**
+     * <p>Logs the duration of every stage that ran in the last cycle.</p>
+     * */
+    public void debug() {
+        if (logger == null) return;
+
+        for (int i = 0; i < stageChannels.length; i++) {
+            if (isLastRun[i]) logger.logValue(stageChannels[i], lastDurations[i]);
+        }
+    }
+}
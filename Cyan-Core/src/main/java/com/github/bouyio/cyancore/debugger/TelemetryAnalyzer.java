@@ -0,0 +1,312 @@
+package com.github.bouyio.cyancore.debugger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ *     Computes loop and tracking metrics from logs written by a {@link TelemetryRecorder}.
+ *     Every log is streamed block by block, and multiple logs are analyzed in parallel.
+ * </p>
+ * <p>
+ *     The metrics are derived from the channels logged by the systems of the library:
+ *     <ul>
+ *         <li>Loop period - The time between consecutive entries of the tick channel, logged once per loop.</li>
+ *         <li>Stage breakdown - Every channel whose name starts with {@link #STAGE_CHANNEL_PREFIX}, in nanoseconds.</li>
+ *         <li>Cross-track error - The distance of the robot from the followed segment.</li>
+ *         <li>Path completion time - From the first unfinished entry of a path to its first finished one.</li>
+ *         <li>Settle time - From the first unsettled entry of a final approach to its first settled one.
+ *         The {@link com.github.bouyio.cyancore.pathing.engine.FinalApproachController} only logs while it has
+ *         taken over, so the time is measured from the handover.</li>
+ *     </ul>
+ *     Can be run from the command line with the log files as arguments.
+ * </p>
+ * @see TelemetryLogReader
+ * */
+public class TelemetryAnalyzer {
+
+    /** The prefix of the channels holding the duration of a stage of the loop in nanoseconds.*/
+    public static final String STAGE_CHANNEL_PREFIX = "Stage ";
+
+    /**
+     * <p>The metrics of a single run.</p>
+     * */
+    public static class RunReport {
+        public final File file;
+        public final String runName;
+
+        /** The time between loop ticks in nanoseconds.*/
+        public final Histogram loopPeriods = new Histogram(100_000, 500);
+        /** The duration of every stage in nanoseconds, by stage name.*/
+        public final Map<String, Histogram> stageDurations = new LinkedHashMap<>();
+
+        public long crossTrackSamples = 0;
+        public double crossTrackMean = 0;
+        public double crossTrackRms = 0;
+        public double crossTrackMax = 0;
+
+        /** The completion time of every path in seconds.*/
+        public final List<Double> pathCompletionTimes = new ArrayList<>();
+        /** The settle time of every final approach in seconds.*/
+        public final List<Double> settleTimes = new ArrayList<>();
+
+        public long entryCount = 0;
+
+        RunReport(File file, String runName) {
+            this.file = file;
+            this.runName = runName;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("Run: ").append(runName).append(" (").append(file.getName()).append(")\n");
+            builder.append("  Entries: ").append(entryCount).append('\n');
+            appendHistogram(builder, "Loop period", loopPeriods);
+            for (Map.Entry<String, Histogram> stage : stageDurations.entrySet()) {
+                appendHistogram(builder, stage.getKey(), stage.getValue());
+            }
+            builder.append(String.format("  Cross-track error: n=%d mean=%.4f rms=%.4f max=%.4f%n",
+                    crossTrackSamples, crossTrackMean, crossTrackRms, crossTrackMax));
+            builder.append("  Path completion times [s]: ").append(pathCompletionTimes).append('\n');
+            builder.append("  Settle times [s]: ").append(settleTimes).append('\n');
+            return builder.toString();
+        }
+
+        private static void appendHistogram(StringBuilder builder, String name, Histogram histogram) {
+            builder.append(String.format("  %s [ms]: n=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f%n",
+                    name, histogram.getCount(),
+                    histogram.getMean() * 1e-6,
+                    histogram.getPercentile(0.5) * 1e-6,
+                    histogram.getPercentile(0.99) * 1e-6,
+                    histogram.getMax() * 1e-6));
+        }
+    }
+
+    // ----USER SETTINGS----
+
+    private String tickChannel = "robotX";
+    private String crossTrackChannel = "Cross Track Error";
+    private String pathFinishedChannel = "Is Path Finished";
+    private String settledChannel = "Is Settled";
+
+    /**
+     * <p>Sets the names of the channels the metrics are derived from.</p>
+     * @param tickChannel A channel logged exactly once per loop.
+     * @param crossTrackChannel The channel of the cross-track error.
+     * @param pathFinishedChannel The channel of whether the path is finished.
+     * @param settledChannel The channel of whether the final approach has settled, logged only while the approach is active.
+     * */
+    public void setChannels(String tickChannel, String crossTrackChannel, String pathFinishedChannel, String settledChannel) {
+        this.tickChannel = tickChannel;
+        this.crossTrackChannel = crossTrackChannel;
+        this.pathFinishedChannel = pathFinishedChannel;
+        this.settledChannel = settledChannel;
+    }
+
+    // ----ANALYSIS----
+
+    /**
+     * <p>Analyzes the given logs in parallel.</p>
+     * @param files The log files.
+     * @return The report of every log, in the order of the files.
+     * @throws IOException If any of the logs cannot be read.
+     * */
+    public List<RunReport> analyze(List<File> files) throws IOException {
+        try {
+            return files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return analyze(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * <p>Streams a single log and computes its metrics.</p>
+     * @param file The log file.
+     * @return The report of the log.
+     * @throws IOException If the log cannot be read.
+     * */
+    public RunReport analyze(File file) throws IOException {
+        try (TelemetryLogReader reader = new TelemetryLogReader(file)) {
+            RunVisitor visitor = new RunVisitor(new RunReport(file, reader.getRunName()));
+            reader.readAll(visitor);
+            return visitor.finish();
+        }
+    }
+
+    /**
+     * <p>The role of a channel in the analysis.</p>
+     * */
+    private enum Role {
+        NONE, TICK, STAGE, CROSS_TRACK, PATH_FINISHED, SETTLED
+    }
+
+    /**
+     * <p>Accumulates the metrics of a run while its log is streamed.</p>
+     * */
+    private class RunVisitor implements TelemetryLogReader.Visitor {
+        private final RunReport report;
+
+        private Role[] roles = new Role[16];
+        private final Map<Integer, Histogram> stageHistograms = new LinkedHashMap<>();
+
+        private long previousTick = Long.MIN_VALUE;
+
+        private double crossTrackSum = 0;
+        private double crossTrackSquaredSum = 0;
+
+        private long pathStart = -1;
+        private long approachStart = -1;
+
+        RunVisitor(RunReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public void onChannel(int id, byte type, String name) {
+            if (id >= roles.length) roles = Arrays.copyOf(roles, Math.max(id + 1, roles.length * 2));
+
+            Role role = Role.NONE;
+            if (name.equals(tickChannel)) {
+                role = Role.TICK;
+            } else if (name.startsWith(STAGE_CHANNEL_PREFIX) && type != TelemetryRecorder.TYPE_TEXT) {
+                role = Role.STAGE;
+                Histogram histogram = new Histogram(10_000, 1000);
+                stageHistograms.put(id, histogram);
+                report.stageDurations.put(name.substring(STAGE_CHANNEL_PREFIX.length()), histogram);
+            } else if (name.equals(crossTrackChannel)) {
+                role = Role.CROSS_TRACK;
+            } else if (name.equals(pathFinishedChannel)) {
+                role = Role.PATH_FINISHED;
+            } else if (name.equals(settledChannel)) {
+                role = Role.SETTLED;
+            }
+            roles[id] = role;
+        }
+
+        private Role roleOf(int id) {
+            return id < roles.length && roles[id] != null ? roles[id] : Role.NONE;
+        }
+
+        @Override
+        public void onDoubleColumn(int id, long[] timestamps, double[] values, int count) {
+            report.entryCount += count;
+            switch (roleOf(id)) {
+                case TICK:
+                    recordTicks(timestamps, count);
+                    break;
+                case STAGE:
+                    Histogram histogram = stageHistograms.get(id);
+                    for (int i = 0; i < count; i++) histogram.record((long) values[i]);
+                    break;
+                case CROSS_TRACK:
+                    for (int i = 0; i < count; i++) {
+                        final double error = Math.abs(values[i]);
+                        crossTrackSum += error;
+                        crossTrackSquaredSum += error * error;
+                        report.crossTrackMax = Math.max(report.crossTrackMax, error);
+                    }
+                    report.crossTrackSamples += count;
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void onLongColumn(int id, long[] timestamps, long[] values, int count) {
+            report.entryCount += count;
+            switch (roleOf(id)) {
+                case TICK:
+                    recordTicks(timestamps, count);
+                    break;
+                case STAGE:
+                    Histogram histogram = stageHistograms.get(id);
+                    for (int i = 0; i < count; i++) histogram.record(values[i]);
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void onTextColumn(int id, long[] timestamps, String[] values, int count) {
+            report.entryCount += count;
+            switch (roleOf(id)) {
+                case TICK:
+                    recordTicks(timestamps, count);
+                    break;
+                case PATH_FINISHED:
+                    for (int i = 0; i < count; i++) {
+                        final boolean isFinished = Boolean.parseBoolean(values[i]);
+                        if (!isFinished && pathStart < 0) {
+                            pathStart = timestamps[i];
+                        } else if (isFinished && pathStart >= 0) {
+                            report.pathCompletionTimes.add((timestamps[i] - pathStart) * 1e-9);
+                            pathStart = -1;
+                        }
+                    }
+                    break;
+                case SETTLED:
+                    for (int i = 0; i < count; i++) {
+                        final boolean isSettled = Boolean.parseBoolean(values[i]);
+                        if (!isSettled && approachStart < 0) {
+                            approachStart = timestamps[i];
+                        } else if (isSettled && approachStart >= 0) {
+                            report.settleTimes.add((timestamps[i] - approachStart) * 1e-9);
+                            approachStart = -1;
+                        }
+                    }
+                    break;
+                default:
+            }
+        }
+
+        private void recordTicks(long[] timestamps, int count) {
+            for (int i = 0; i < count; i++) {
+                if (previousTick != Long.MIN_VALUE) report.loopPeriods.record(timestamps[i] - previousTick);
+                previousTick = timestamps[i];
+            }
+        }
+
+        RunReport finish() {
+            if (report.crossTrackSamples > 0) {
+                report.crossTrackMean = crossTrackSum / report.crossTrackSamples;
+                report.crossTrackRms = Math.sqrt(crossTrackSquaredSum / report.crossTrackSamples);
+            }
+            return report;
+        }
+    }
+
+    /**
+     * <p>Analyzes the log files given as arguments and prints their reports.</p>
+     * */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TelemetryAnalyzer <log files...>");
+            return;
+        }
+
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            files.add(new File(arg));
+        }
+
+        for (RunReport report : new TelemetryAnalyzer().analyze(files)) {
+            System.out.println(report);
+        }
+    }
+}
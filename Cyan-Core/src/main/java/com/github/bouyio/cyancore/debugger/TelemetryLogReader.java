@@ -0,0 +1,184 @@
+package com.github.bouyio.cyancore.debugger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ *     Streams a log written by a {@link TelemetryRecorder} one block at a time, so only the current
+ *     block is held in memory. The columns of each block are passed to a {@link Visitor}.
+ *     Within every channel the entries are passed in the order they were recorded.
+ * </p>
+ * <p>
+ *     A block cut short, e.g. because the robot lost power while it was being written, is treated as the end of the log.
+ * </p>
+ * @see TelemetryRecorder
+ * */
+public class TelemetryLogReader implements Closeable {
+
+    /**
+     * <p>Receives the contents of a log. The arrays are reused between calls and are only valid during the call.</p>
+     * */
+    public interface Visitor {
+        default void onChannel(int id, byte type, String name) {}
+
+        default void onDoubleColumn(int id, long[] timestamps, double[] values, int count) {}
+
+        default void onLongColumn(int id, long[] timestamps, long[] values, int count) {}
+
+        default void onTextColumn(int id, long[] timestamps, String[] values, int count) {}
+    }
+
+    private final DataInputStream input;
+    private final String runName;
+
+    private byte[] channelTypes = new byte[16];
+
+    private long[] timestamps = new long[256];
+    private double[] doubleValues = new double[256];
+    private long[] longValues = new long[256];
+    private String[] textValues = new String[256];
+
+    private boolean isFinished = false;
+
+    /**
+     * <p>Opens a log and reads its header.</p>
+     * @param file The log file.
+     * @throws IOException If the file cannot be read or is not a telemetry log.
+     * */
+    public TelemetryLogReader(File file) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (input.readLong() != TelemetryRecorder.FILE_MAGIC) {
+                throw new IOException(file + " is not a telemetry log");
+            }
+            final int version = input.readInt();
+            if (version != TelemetryRecorder.FORMAT_VERSION) {
+                throw new IOException("Unsupported telemetry log version " + version);
+            }
+            runName = readText();
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /** @return The name of the recorded run.*/
+    public String getRunName() {
+        return runName;
+    }
+
+    /**
+     * <p>Reads the next block and passes its contents to the visitor.</p>
+     * @param visitor The receiver of the contents.
+     * @return False if the end of the log has been reached.
+     * @throws IOException If the log cannot be read or is corrupted.
+     * */
+    public boolean readBlock(Visitor visitor) throws IOException {
+        if (isFinished) return false;
+
+        try {
+            if (input.readInt() != TelemetryRecorder.BLOCK_MAGIC) {
+                throw new IOException("Corrupted telemetry log block");
+            }
+
+            final int newChannels = input.readInt();
+            for (int i = 0; i < newChannels; i++) {
+                final int id = input.readInt();
+                final byte type = input.readByte();
+                final String name = readText();
+
+                if (id >= channelTypes.length) {
+                    byte[] grown = new byte[Math.max(id + 1, channelTypes.length * 2)];
+                    System.arraycopy(channelTypes, 0, grown, 0, channelTypes.length);
+                    channelTypes = grown;
+                }
+                channelTypes[id] = type;
+                visitor.onChannel(id, type, name);
+            }
+
+            final int columns = input.readInt();
+            for (int c = 0; c < columns; c++) {
+                readColumn(visitor);
+            }
+            return true;
+        } catch (EOFException e) {
+            isFinished = true;
+            return false;
+        }
+    }
+
+    /**
+     * <p>Reads every remaining block.</p>
+     * @param visitor The receiver of the contents.
+     * @throws IOException If the log cannot be read or is corrupted.
+     * */
+    public void readAll(Visitor visitor) throws IOException {
+        while (readBlock(visitor)) {
+            // The visitor does all the work.
+        }
+    }
+
+    private void readColumn(Visitor visitor) throws IOException {
+        final int id = input.readInt();
+        final int count = input.readInt();
+        if (id < 0 || id >= channelTypes.length || count < 0) {
+            throw new IOException("Corrupted telemetry log column");
+        }
+
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = input.readLong();
+        }
+
+        switch (channelTypes[id]) {
+            case TelemetryRecorder.TYPE_DOUBLE:
+                for (int i = 0; i < count; i++) {
+                    doubleValues[i] = input.readDouble();
+                }
+                visitor.onDoubleColumn(id, timestamps, doubleValues, count);
+                break;
+            case TelemetryRecorder.TYPE_LONG:
+                for (int i = 0; i < count; i++) {
+                    longValues[i] = input.readLong();
+                }
+                visitor.onLongColumn(id, timestamps, longValues, count);
+                break;
+            case TelemetryRecorder.TYPE_TEXT:
+                for (int i = 0; i < count; i++) {
+                    textValues[i] = readText();
+                }
+                visitor.onTextColumn(id, timestamps, textValues, count);
+                break;
+            default:
+                throw new IOException("Unknown telemetry channel type " + channelTypes[id]);
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= timestamps.length) return;
+        timestamps = new long[count];
+        doubleValues = new double[count];
+        longValues = new long[count];
+        textValues = new String[count];
+    }
+
+    private String readText() throws IOException {
+        final int length = input.readInt();
+        if (length < 0) throw new IOException("Corrupted telemetry log text");
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
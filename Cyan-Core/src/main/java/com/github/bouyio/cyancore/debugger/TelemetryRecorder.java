@@ -0,0 +1,438 @@
+package com.github.bouyio.cyancore.debugger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     Drains a {@link Logger} on a background thread into an append-only binary log, one file per run.
+ *     The recorder must be the only consumer of the logger.
+ * </p>
+ * <p>
+ *     The entries are grouped in blocks and every block is stored column by column;
+ *     the timestamps and then the values of each channel are written contiguously.
+ *     The file layout, all numbers big-endian:
+ *     <ul>
+ *         <li>File header - {@code long} {@link #FILE_MAGIC}, {@code int} {@link #FORMAT_VERSION}, text run name.</li>
+ *         <li>Blocks until the end of the file - {@code int} {@link #BLOCK_MAGIC},
+ *         {@code int} amount of new channels followed by {@code int} id, {@code byte} type and text name for each,
+ *         {@code int} amount of columns followed by {@code int} channel id, {@code int} entry amount,
+ *         the timestamps as {@code long}s and the values for each.</li>
+ *     </ul>
+ *     Text is stored as an {@code int} byte length followed by UTF-8 bytes. Values of {@link #TYPE_TEXT}
+ *     channels are text, the rest are stored as {@code double}s or {@code long}s.
+ *     A channel is identified by both its name and its type.
+ * </p>
+ * @see Logger#drain(Logger.Sink)
+ * */
+public class TelemetryRecorder {
+
+    // ----FORMAT----
+    public static final long FILE_MAGIC = 0x4359414E4C4F4731L; // "CYANLOG1"
+    public static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    public static final int FORMAT_VERSION = 1;
+    public static final String FILE_EXTENSION = ".cyanlog";
+
+    public static final byte TYPE_DOUBLE = 0;
+    public static final byte TYPE_LONG = 1;
+    public static final byte TYPE_TEXT = 2;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * <p>The entries of a single channel within the current block.</p>
+     * */
+    private static class Column {
+        final int id;
+        final byte type;
+        final String name;
+
+        int count = 0;
+        long[] timestamps = new long[64];
+        long[] values = new long[64];
+        String[] texts;
+
+        Column(int id, byte type, String name) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            texts = type == TYPE_TEXT ? new String[64] : null;
+        }
+
+        void ensureCapacity() {
+            if (count < timestamps.length) return;
+            final int length = timestamps.length * 2;
+            timestamps = Arrays.copyOf(timestamps, length);
+            if (texts == null) {
+                values = Arrays.copyOf(values, length);
+            } else {
+                texts = Arrays.copyOf(texts, length);
+            }
+        }
+    }
+
+    private final Logger logger;
+    private final File directory;
+    private final String filePrefix;
+
+    // ----USER SETTINGS----
+
+    private int blockCapacity = 4096;
+    private long flushPeriodNanos = 1_000_000_000L;
+    private long pollPeriodNanos = 5_000_000L;
+
+    // ---SYSTEM WORKING VARIABLES---
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+    private final List<Map<String, Column>> columnsByType = new ArrayList<>();
+    private final List<Column> columns = new ArrayList<>();
+    private int announcedColumns = 0;
+    private int blockEntries = 0;
+    private long lastBlockTime = 0;
+
+    private FileChannel channel = null;
+    private File currentFile = null;
+    private Thread thread = null;
+    // A run stays open until stopRun(), even after its background thread stopped on an error.
+    private boolean isRunOpen = false;
+    private volatile boolean isRunning = false;
+    private volatile IOException error = null;
+    private volatile long recordedEntries = 0;
+
+    private final Logger.Sink sink = new Logger.Sink() {
+        @Override
+        public void acceptDouble(String header, double value, long timestamp) {
+            Column column = columnFor(header, TYPE_DOUBLE);
+            column.ensureCapacity();
+            column.timestamps[column.count] = timestamp;
+            column.values[column.count] = Double.doubleToRawLongBits(value);
+            column.count++;
+        }
+
+        @Override
+        public void acceptLong(String header, long value, long timestamp) {
+            Column column = columnFor(header, TYPE_LONG);
+            column.ensureCapacity();
+            column.timestamps[column.count] = timestamp;
+            column.values[column.count] = value;
+            column.count++;
+        }
+
+        @Override
+        public void acceptObject(String header, Object value, long timestamp) {
+            Column column = columnFor(header, TYPE_TEXT);
+            column.ensureCapacity();
+            column.timestamps[column.count] = timestamp;
+            column.texts[column.count] = String.valueOf(value);
+            column.count++;
+        }
+    };
+
+    /**
+     * <p>Creates a recorder writing its runs into the given directory.</p>
+     * @param logger The logger to be drained.
+     * @param directory The directory the run files are created in.
+     * @param filePrefix The prefix of the names of the run files.
+     * */
+    public TelemetryRecorder(Logger logger, File directory, String filePrefix) {
+        if (logger == null || directory == null || filePrefix == null) {
+            throw new IllegalArgumentException("Logger, directory and file prefix cannot be null");
+        }
+        this.logger = logger;
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+
+        for (int i = 0; i <= TYPE_TEXT; i++) {
+            columnsByType.add(new HashMap<String, Column>());
+        }
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the amount of entries after which a block is written.</p>
+     * @param entries The amount of entries.
+     * */
+    public void setBlockCapacity(int entries) {
+        if (entries <= 0) {
+            throw new IllegalArgumentException("Block capacity must be positive");
+        }
+        blockCapacity = entries;
+    }
+
+    /**
+     * <p>Sets the maximum time the entries stay in memory before being written, bounding the data lost on a crash.</p>
+     * @param millis The period in milliseconds.
+     * */
+    public void setFlushPeriod(long millis) {
+        flushPeriodNanos = Math.max(0, millis) * 1_000_000L;
+    }
+
+    /**
+     * <p>Sets the time the background thread sleeps when the logger is empty.</p>
+     * @param millis The period in milliseconds.
+     * */
+    public void setPollPeriod(long millis) {
+        pollPeriodNanos = Math.max(1, millis) * 1_000_000L;
+    }
+
+    // ----RUN CONTROL----
+
+    /**
+     * <p>
+     *     Creates the file of a new run and starts draining the logger into it on a background thread.
+     *     Entries already in the logger are discarded so the run starts clean.
+     * </p>
+     * @param runName The name of the run, stored in the file header, e.g. the name of the OpMode.
+     * @return The created file.
+     * @throws IOException If the file cannot be created.
+     * */
+    public synchronized File startRun(String runName) throws IOException {
+        if (isRunOpen) {
+            throw new IllegalStateException("A run is already being recorded");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the directory " + directory);
+        }
+
+        currentFile = nextRunFile();
+        channel = new RandomAccessFile(currentFile, "rw").getChannel();
+        channel.truncate(0);
+
+        resetColumns();
+        error = null;
+        recordedEntries = 0;
+        logger.clearBuffer();
+
+        try {
+            writeBuffer.clear();
+            writeBuffer.putLong(FILE_MAGIC);
+            writeBuffer.putInt(FORMAT_VERSION);
+            putText(runName == null ? "" : runName);
+            flushBuffer();
+        } catch (IOException e) {
+            channel.close();
+            channel = null;
+            throw e;
+        }
+
+        isRunOpen = true;
+        isRunning = true;
+        lastBlockTime = System.nanoTime();
+        thread = new Thread(this::recordLoop, "CyanTelemetryRecorder");
+        thread.setDaemon(true);
+        thread.start();
+
+        return currentFile;
+    }
+
+    /**
+     * <p>
+     *     Drains the remaining entries, writes them and closes the file of the current run.
+     *     Must be called even if the recording stopped on an error, to close the file and report the error.
+     * </p>
+     * @throws IOException If writing the file failed at any point during the run.
+     * */
+    public synchronized void stopRun() throws IOException {
+        if (!isRunOpen) return;
+
+        isRunOpen = false;
+        isRunning = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+
+        try {
+            if (error == null) {
+                drainOnce();
+                writeBlock();
+            }
+        } catch (IOException e) {
+            if (error == null) error = e;
+        } finally {
+            channel.close();
+            channel = null;
+        }
+
+        if (error != null) throw error;
+    }
+
+    /**
+     * <p>Drains the logger until the run is stopped or writing fails.</p>
+     * */
+    private void recordLoop() {
+        try {
+            while (isRunning) {
+                final int drained = drainOnce();
+
+                final long now = System.nanoTime();
+                if (blockEntries >= blockCapacity ||
+                        (blockEntries > 0 && now - lastBlockTime >= flushPeriodNanos)) {
+                    writeBlock();
+                }
+
+                if (drained == 0) LockSupport.parkNanos(pollPeriodNanos);
+            }
+        } catch (IOException e) {
+            error = e;
+            isRunning = false;
+        }
+    }
+
+    private int drainOnce() {
+        final int drained = logger.drain(sink);
+        blockEntries += drained;
+        recordedEntries += drained;
+        return drained;
+    }
+
+    // ----ENCODING----
+
+    private Column columnFor(String header, byte type) {
+        final Map<String, Column> byName = columnsByType.get(type);
+        Column column = byName.get(header);
+        if (column == null) {
+            column = new Column(columns.size(), type, header);
+            byName.put(header, column);
+            columns.add(column);
+        }
+        return column;
+    }
+
+    /**
+     * <p>Writes the pending entries as a block, column by column.</p>
+     * */
+    private void writeBlock() throws IOException {
+        lastBlockTime = System.nanoTime();
+        if (blockEntries == 0) return;
+
+        ensureSpace(8);
+        writeBuffer.putInt(BLOCK_MAGIC);
+        writeBuffer.putInt(columns.size() - announcedColumns);
+        for (int i = announcedColumns; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            ensureSpace(5);
+            writeBuffer.putInt(column.id);
+            writeBuffer.put(column.type);
+            putText(column.name);
+        }
+        announcedColumns = columns.size();
+
+        int filledColumns = 0;
+        for (Column column : columns) {
+            if (column.count > 0) filledColumns++;
+        }
+
+        ensureSpace(4);
+        writeBuffer.putInt(filledColumns);
+        for (Column column : columns) {
+            if (column.count == 0) continue;
+
+            ensureSpace(8);
+            writeBuffer.putInt(column.id);
+            writeBuffer.putInt(column.count);
+            for (int i = 0; i < column.count; i++) {
+                ensureSpace(8);
+                writeBuffer.putLong(column.timestamps[i]);
+            }
+            for (int i = 0; i < column.count; i++) {
+                if (column.type == TYPE_TEXT) {
+                    putText(column.texts[i]);
+                    column.texts[i] = null;
+                } else {
+                    ensureSpace(8);
+                    writeBuffer.putLong(column.values[i]);
+                }
+            }
+            column.count = 0;
+        }
+
+        flushBuffer();
+        blockEntries = 0;
+    }
+
+    private void putText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensureSpace(4);
+        writeBuffer.putInt(bytes.length);
+
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!writeBuffer.hasRemaining()) flushBuffer();
+            final int length = Math.min(writeBuffer.remaining(), bytes.length - offset);
+            writeBuffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensureSpace(int bytes) throws IOException {
+        if (writeBuffer.remaining() < bytes) flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void resetColumns() {
+        for (Map<String, Column> byName : columnsByType) {
+            byName.clear();
+        }
+        columns.clear();
+        announcedColumns = 0;
+        blockEntries = 0;
+    }
+
+    /**
+     * <p>Finds the first unused run index in the directory.</p>
+     * */
+    private File nextRunFile() {
+        int index = 0;
+        File file;
+        do {
+            file = new File(directory, filePrefix + "-" + index + FILE_EXTENSION);
+            index++;
+        } while (file.exists());
+        return file;
+    }
+
+    // ----STATUS----
+
+    /** @return Whether a run is being recorded; false once writing has failed, even before the run is stopped.*/
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /** @return The file of the current or last run or null if no run has been started.*/
+    public File getCurrentFile() {
+        return currentFile;
+    }
+
+    /** @return The amount of entries recorded in the current or last run.*/
+    public long getRecordedEntries() {
+        return recordedEntries;
+    }
+
+    /** @return The error that stopped the recording or null if none occurred.*/
+    public IOException getError() {
+        return error;
+    }
+}
@@ -6,15 +6,20 @@ import com.github.bouyio.cyancore.util.MathUtil;
 
 /**
  * Represents a point in a two-dimensional plane.
- * Optimized with numerical stability improvements using Math.hypot().
+ * Only the coordinates are stored on creation; the distance from the origin and the {@link Vector2D}
+ * of the coordinates are created the first time they are requested and then cached.
  *
  * @see Vector2D
  * @author Bouyio (https://github.com/bouyio)
  * @author Gvol (https://github.com/Gvolexe)
  */
 public class Point {
-    private final Vector2D coordinates;
-    private final double distance;
+    private final double x;
+    private final double y;
+
+    // Created on demand; NaN/null until then.
+    private double distance = Double.NaN;
+    private Vector2D coordinates = null;
 
     /**
      * <p>Creates a point with specified coordinates.<p/>
@@ -22,19 +27,45 @@ public class Point {
      * @param y The y coordinates of the point.
      * */
     public Point(double x, double y) {
-        // Optimized: Add input validation and more efficient distance calculation
         if (!Double.isFinite(x) || !Double.isFinite(y)) {
             throw new IllegalArgumentException("Point coordinates must be finite values");
         }
-        this.coordinates = new Vector2D(x, y);
-        // Optimized: Use Math.hypot for better numerical stability
-        this.distance = coordinates.getRadialR();
+        this.x = x;
+        this.y = y;
+    }
+
+    private Point(double x, double y, boolean unchecked) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * <p>
+     *     Creates a point without validating its coordinates.
+     *     Meant for intermediate points derived from already validated values, such as the pose of the robot.
+     * <p/>
+     * @param x The x coordinates of the point. Must be finite.
+     * @param y The y coordinates of the point. Must be finite.
+     * */
+    public static Point unchecked(double x, double y) {
+        return new Point(x, y, true);
+    }
+
+    /**@return The x coordinates of the point.*/
+    public double getX() {
+        return x;
+    }
+
+    /**@return The y coordinates of the point.*/
+    public double getY() {
+        return y;
     }
 
     /**
      * @return The distance from the origin of the two coordinate axes (0,0).
      * */
     public double getDistanceFromOrigin() {
+        if (Double.isNaN(distance)) distance = Math.hypot(x, y);
         return distance;
     }
 
@@ -42,11 +73,12 @@ public class Point {
      * @return The x and y coordinates formatted as {@link Vector2D}.
      * */
     public Vector2D getCoordinates() {
+        if (coordinates == null) coordinates = Vector2D.unchecked(x, y);
         return coordinates;
     }
 
     public Pose2D getAsPose() {
-        return new Pose2D(coordinates.getCartesianX(), coordinates.getCartesianY(), 0);
+        return Pose2D.unchecked(x, y, 0);
     }
 
 
@@ -58,8 +90,8 @@ public class Point {
     public String toString() {
         return String.format(Locale.getDefault(),
                 "(x, y) : (%f, %f)",
-                coordinates.getCartesianX(),
-                coordinates.getCartesianY());
+                x,
+                y);
     }
 
     /**
@@ -68,9 +100,7 @@ public class Point {
      * @return The distance from the given point.
      * */
     public double getDistanceFrom(Point point) {
-        return MathUtil.hypotenuse(
-                coordinates.getCartesianX() - point.coordinates.getCartesianX(),
-                coordinates.getCartesianY() - point.coordinates.getCartesianY());
+        return MathUtil.hypotenuse(x - point.x, y - point.y);
     }
 
     /**
@@ -79,9 +109,7 @@ public class Point {
      * @return The distance from the given pose.
      * */
     public double getDistanceFrom(Pose2D pose) {
-        return MathUtil.hypotenuse(
-                coordinates.getCartesianX() - pose.getX(),
-                coordinates.getCartesianY() - pose.getY());
+        return MathUtil.hypotenuse(x - pose.getX(), y - pose.getY());
     }
 
     /**
@@ -91,15 +119,13 @@ public class Point {
      * @return The distance from the given coordinates.
      * */
     public double getDistanceFrom(double x, double y) {
-        return MathUtil.hypotenuse(
-                coordinates.getCartesianX() - x,
-                coordinates.getCartesianY() - y);
+        return MathUtil.hypotenuse(this.x - x, this.y - y);
     }
 
     /**
      * <p>Calculates and returns the angle of the polar coordinates of the point in Radians.<p/>
      * */
     public double pointAngle() {
-        return Math.atan2(coordinates.getCartesianY(), coordinates.getCartesianX());
+        return Math.atan2(y, x);
     }
 }
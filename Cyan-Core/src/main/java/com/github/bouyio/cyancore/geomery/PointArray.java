@@ -0,0 +1,365 @@
+package com.github.bouyio.cyancore.geomery;
+
+/**
+ * <p>
+ *     An immutable sequence of points stored as two parallel arrays of coordinates instead of an array of
+ *     {@link Point} objects, so batch queries over many points run over contiguous memory.
+ * <p/>
+ * <p>
+ *     The queries are written as plain counted loops over primitive arrays that the JIT can unroll and that
+ *     never allocate; results beyond a single value are written into caller provided arrays or a reusable
+ *     {@link Projection}.
+ * <p/>
+ * @see Point
+ * */
+public class PointArray {
+
+    /**
+     * <p>The closest point of a polyline to a position, written by {@link #projectOntoPolyline}.</p>
+     * <p>Meant to be created once and reused for every query.</p>
+     * */
+    public static class Projection {
+        private int segment = -1;
+        private double fraction = 0;
+        private double x = 0;
+        private double y = 0;
+        private double distance = Double.NaN;
+
+        /** @return The index of the first point of the closest segment.*/
+        public int getSegment() {
+            return segment;
+        }
+
+        /** @return The position of the closest point along its segment, between 0 (start) and 1 (end).*/
+        public double getFraction() {
+            return fraction;
+        }
+
+        /** @return The x coordinates of the closest point.*/
+        public double getX() {
+            return x;
+        }
+
+        /** @return The y coordinates of the closest point.*/
+        public double getY() {
+            return y;
+        }
+
+        /** @return The distance of the position from the closest point.*/
+        public double getDistance() {
+            return distance;
+        }
+    }
+
+    private final double[] xs;
+    private final double[] ys;
+
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
+
+    // ----CONSTRUCTORS----
+
+    /**
+     * <p>Creates an array of the coordinates of the given points.<p/>
+     * @param points The points in the given order.
+     * */
+    public PointArray(Point... points) {
+        if (points == null) {
+            throw new IllegalArgumentException("Points cannot be null");
+        }
+        xs = new double[points.length];
+        ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == null) {
+                throw new IllegalArgumentException("Points cannot be null");
+            }
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+        }
+
+        minX = min(xs);
+        maxX = max(xs);
+        minY = min(ys);
+        maxY = max(ys);
+    }
+
+    /**
+     * <p>Creates an array of the given coordinates. The arrays are copied.<p/>
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * */
+    public PointArray(double[] xs, double[] ys) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must be non-null and of equal length");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            if (!Double.isFinite(xs[i]) || !Double.isFinite(ys[i])) {
+                throw new IllegalArgumentException("Point coordinates must be finite values");
+            }
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+
+        minX = min(xs);
+        maxX = max(xs);
+        minY = min(ys);
+        maxY = max(ys);
+    }
+
+    private static double min(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    private static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    // ----ACCESS----
+
+    /** @return The amount of points.*/
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * @param index The index of the point.
+     * @return The x coordinates of the point.
+     * */
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * @param index The index of the point.
+     * @return The y coordinates of the point.
+     * */
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @param index The index of the point.
+     * @return A new point with the coordinates of the point.
+     * */
+    public Point getPoint(int index) {
+        return Point.unchecked(xs[index], ys[index]);
+    }
+
+    /** @return The smallest x coordinates of the points, or infinity if there are none.*/
+    public double getMinX() {
+        return minX;
+    }
+
+    /** @return The largest x coordinates of the points, or negative infinity if there are none.*/
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /** @return The smallest y coordinates of the points, or infinity if there are none.*/
+    public double getMinY() {
+        return minY;
+    }
+
+    /** @return The largest y coordinates of the points, or negative infinity if there are none.*/
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * <p>Creates a copy with the points in reverse order.<p/>
+     * @return The reversed copy.
+     * */
+    public PointArray reverse() {
+        final int size = xs.length;
+        final double[] reversedXs = new double[size];
+        final double[] reversedYs = new double[size];
+        for (int i = 0; i < size; i++) {
+            reversedXs[i] = xs[size - 1 - i];
+            reversedYs[i] = ys[size - 1 - i];
+        }
+        return new PointArray(reversedXs, reversedYs);
+    }
+
+    // ----BATCH QUERIES----
+
+    /**
+     * <p>Calculates the distance of every point from the given position.<p/>
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @param out The destination of the distances; must hold at least {@link #size()} values.
+     * */
+    public void distancesTo(double x, double y, double[] out) {
+        if (out.length < xs.length) {
+            throw new IllegalArgumentException("Destination must hold " + xs.length + " distances");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            final double dx = xs[i] - x;
+            final double dy = ys[i] - y;
+            out[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * <p>Calculates the distance of every point from the given pose.<p/>
+     * @param pose The pose.
+     * @param out The destination of the distances; must hold at least {@link #size()} values.
+     * */
+    public void distancesTo(Pose2D pose, double[] out) {
+        distancesTo(pose.getX(), pose.getY(), out);
+    }
+
+    /**
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @return The index of the point closest to the position, the first one on ties, or -1 if there are no points.
+     * */
+    public int nearestIndex(double x, double y) {
+        int nearest = -1;
+        double nearestSquared = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            final double dx = xs[i] - x;
+            final double dy = ys[i] - y;
+            final double squared = dx * dx + dy * dy;
+            if (squared < nearestSquared) {
+                nearestSquared = squared;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * <p>
+     *     Finds the point closest to the position within a range. A later point replaces the current nearest one
+     *     only if it is closer by more than the given tolerance, so earlier points are preferred on near ties.
+     * <p/>
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     * @param tolerance The distance by which a later point must be closer.
+     * @return The index of the nearest point, or -1 if the range is empty.
+     * */
+    public int nearestIndex(double x, double y, int from, int to, double tolerance) {
+        if (from < 0 || to > xs.length) {
+            throw new IllegalArgumentException("Range out of bounds: [" + from + ", " + to + ")");
+        }
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            final double dx = xs[i] - x;
+            final double dy = ys[i] - y;
+            final double distance = Math.sqrt(dx * dx + dy * dy);
+            if (nearestDistance - distance > tolerance || nearest < 0) {
+                nearestDistance = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * <p>Finds the closest point of the polyline through the points to the given position.<p/>
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @param out The destination of the result.
+     * @return The distance of the position from the polyline.
+     * */
+    public double projectOntoPolyline(double x, double y, Projection out) {
+        if (xs.length == 0) {
+            throw new IllegalStateException("The array has no points");
+        }
+
+        int bestSegment = 0;
+        double bestFraction = 0;
+        double bestSquared = (xs[0] - x) * (xs[0] - x) + (ys[0] - y) * (ys[0] - y);
+
+        for (int i = 1; i < xs.length; i++) {
+            final double startX = xs[i - 1];
+            final double startY = ys[i - 1];
+            final double segmentX = xs[i] - startX;
+            final double segmentY = ys[i] - startY;
+            final double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+            double fraction = lengthSquared == 0 ? 0 :
+                    ((x - startX) * segmentX + (y - startY) * segmentY) / lengthSquared;
+            fraction = fraction < 0 ? 0 : (fraction > 1 ? 1 : fraction);
+
+            final double dx = startX + fraction * segmentX - x;
+            final double dy = startY + fraction * segmentY - y;
+            final double squared = dx * dx + dy * dy;
+            if (squared < bestSquared) {
+                bestSquared = squared;
+                bestSegment = i - 1;
+                bestFraction = fraction;
+            }
+        }
+
+        final int end = Math.min(bestSegment + 1, xs.length - 1);
+        out.segment = bestSegment;
+        out.fraction = bestFraction;
+        out.x = xs[bestSegment] + bestFraction * (xs[end] - xs[bestSegment]);
+        out.y = ys[bestSegment] + bestFraction * (ys[end] - ys[bestSegment]);
+        out.distance = Math.sqrt(bestSquared);
+        return out.distance;
+    }
+
+    /**
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @return The distance of the position from the polyline through the points.
+     * */
+    public double distanceToPolyline(double x, double y) {
+        if (xs.length == 0) {
+            throw new IllegalStateException("The array has no points");
+        }
+
+        double bestSquared = (xs[0] - x) * (xs[0] - x) + (ys[0] - y) * (ys[0] - y);
+        for (int i = 1; i < xs.length; i++) {
+            final double startX = xs[i - 1];
+            final double startY = ys[i - 1];
+            final double segmentX = xs[i] - startX;
+            final double segmentY = ys[i] - startY;
+            final double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+            double fraction = lengthSquared == 0 ? 0 :
+                    ((x - startX) * segmentX + (y - startY) * segmentY) / lengthSquared;
+            fraction = fraction < 0 ? 0 : (fraction > 1 ? 1 : fraction);
+
+            final double dx = startX + fraction * segmentX - x;
+            final double dy = startY + fraction * segmentY - y;
+            bestSquared = Math.min(bestSquared, dx * dx + dy * dy);
+        }
+        return Math.sqrt(bestSquared);
+    }
+
+    /**
+     * @param x The x coordinates of the position.
+     * @param y The y coordinates of the position.
+     * @param margin The distance the box is grown by on every side.
+     * @return Whether the position is within the bounding box of the points grown by the margin.
+     * */
+    public boolean isWithinBounds(double x, double y, double margin) {
+        return x >= minX - margin && x <= maxX + margin && y >= minY - margin && y <= maxY + margin;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PointArray[");
+        for (int i = 0; i < xs.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append('(').append(xs[i]).append(", ").append(ys[i]).append(')');
+        }
+        return builder.append(']').toString();
+    }
+}
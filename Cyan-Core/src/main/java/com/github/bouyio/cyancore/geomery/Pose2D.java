@@ -28,6 +28,25 @@ public class Pose2D {
         this.theta = theta;
     }
 
+    private Pose2D(double x, double y, double theta, boolean unchecked) {
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+    }
+
+    /**
+     * <p>
+     *     Creates a pose without validating its values.
+     *     Meant for intermediate poses derived from already validated values, such as errors relative to the robot.
+     * <p/>
+     * @param x The x coordinates of the pose. Must be finite.
+     * @param y The y coordinates of the pose. Must be finite.
+     * @param theta The heading of the pose. Must be finite.
+     * */
+    public static Pose2D unchecked(double x, double y, double theta) {
+        return new Pose2D(x, y, theta, true);
+    }
+
     /**@return The angle of the pose.*/
     public double getTheta() {
         return theta;
@@ -48,7 +67,7 @@ public class Pose2D {
      * @return The coordinates of the pose as a point.
      * */
     public Point toPoint() {
-        return new Point(x, y);
+        return Point.unchecked(x, y);
     }
 
     /**
@@ -0,0 +1,309 @@
+package com.github.bouyio.cyancore.geomery;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ *     A rigid transformation of the plane: a rotation by {@code theta} followed by a translation by {@code (x, y)}.
+ *     A transform describes a frame relative to its parent, so the pose of the robot is the transform from robot
+ *     coordinates to field coordinates and the mounting position of a sensor is the transform from sensor
+ *     coordinates to robot coordinates.
+ * <p/>
+ * <p>
+ *     Unlike the other geometry types a transform is mutable. The sine and cosine of the rotation are calculated
+ *     once when it is set and reused by every operation, and all operations write their results into the returned
+ *     values or an existing transform, so conversions between frames in a control loop never allocate.
+ * <p/>
+ * @see Pose2D
+ * */
+public class Transform2D {
+    private double x;
+    private double y;
+    private double theta;
+
+    private double cos;
+    private double sin;
+
+    // ----CONSTRUCTORS----
+
+    /**
+     * <p>Creates an identity transform.<p/>
+     * */
+    public Transform2D() {
+        setUnchecked(0, 0, 0, 1, 0);
+    }
+
+    /**
+     * <p>Creates a transform with the given translation and rotation.<p/>
+     * @param x The translation in the x axis.
+     * @param y The translation in the y axis.
+     * @param theta The rotation in Radians.
+     * */
+    public Transform2D(double x, double y, double theta) {
+        set(x, y, theta);
+    }
+
+    /**
+     * <p>Creates a transform from the parent frame of the pose to a frame positioned at the pose.<p/>
+     * @param pose The pose.
+     * */
+    public Transform2D(Pose2D pose) {
+        set(pose);
+    }
+
+    // ----MUTATORS----
+
+    /**
+     * <p>Sets the translation and rotation of the transform.<p/>
+     * @param x The translation in the x axis.
+     * @param y The translation in the y axis.
+     * @param theta The rotation in Radians.
+     * @return This transform.
+     * */
+    public Transform2D set(double x, double y, double theta) {
+        if (!Double.isFinite(x) || !Double.isFinite(y) || !Double.isFinite(theta)) {
+            throw new IllegalArgumentException("Transform values must be finite");
+        }
+        setUnchecked(x, y, theta, Math.cos(theta), Math.sin(theta));
+        return this;
+    }
+
+    /**
+     * <p>Sets the transform to the transform from the parent frame of the pose to a frame positioned at the pose.<p/>
+     * @param pose The pose.
+     * @return This transform.
+     * */
+    public Transform2D set(Pose2D pose) {
+        setUnchecked(pose.getX(), pose.getY(), pose.getTheta(), Math.cos(pose.getTheta()), Math.sin(pose.getTheta()));
+        return this;
+    }
+
+    /**
+     * <p>Copies the given transform.<p/>
+     * @param other The transform to copy.
+     * @return This transform.
+     * */
+    public Transform2D set(Transform2D other) {
+        setUnchecked(other.x, other.y, other.theta, other.cos, other.sin);
+        return this;
+    }
+
+    /**
+     * <p>Sets the rotation of the transform, keeping its translation.<p/>
+     * @param theta The rotation in Radians.
+     * @return This transform.
+     * */
+    public Transform2D setRotation(double theta) {
+        if (!Double.isFinite(theta)) {
+            throw new IllegalArgumentException("Transform values must be finite");
+        }
+        setUnchecked(x, y, theta, Math.cos(theta), Math.sin(theta));
+        return this;
+    }
+
+    private void setUnchecked(double x, double y, double theta, double cos, double sin) {
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+        this.cos = cos;
+        this.sin = sin;
+    }
+
+    // ----COMPOSITION----
+
+    /**
+     * <p>
+     *     Appends the given transform, so that this transform first applies {@code other} and then itself.
+     *     If this is the pose of the robot and {@code other} the mounting position of a sensor,
+     *     the result is the pose of the sensor on the field.
+     * <p/>
+     * @param other The transform, relative to the frame of this transform.
+     * @return This transform.
+     * */
+    public Transform2D compose(Transform2D other) {
+        return composeInto(other, this);
+    }
+
+    /**
+     * <p>Writes the composition of this transform and the given one, as in {@link #compose}, into {@code out}.<p/>
+     * @param other The transform, relative to the frame of this transform.
+     * @param out The destination of the result; may be this transform or {@code other}.
+     * @return The destination.
+     * */
+    public Transform2D composeInto(Transform2D other, Transform2D out) {
+        // The sum of the rotations is formed from the cached values instead of calling the trigonometric functions.
+        out.setUnchecked(
+                x + cos * other.x - sin * other.y,
+                y + sin * other.x + cos * other.y,
+                theta + other.theta,
+                cos * other.cos - sin * other.sin,
+                sin * other.cos + cos * other.sin
+        );
+        return out;
+    }
+
+    /**
+     * <p>Inverts the transform, so that it converts from its own frame back to the parent frame.<p/>
+     * @return This transform.
+     * */
+    public Transform2D invert() {
+        return inverseInto(this);
+    }
+
+    /**
+     * <p>Writes the inverse of this transform into {@code out}.<p/>
+     * @param out The destination of the result; may be this transform.
+     * @return The destination.
+     * */
+    public Transform2D inverseInto(Transform2D out) {
+        out.setUnchecked(
+                -cos * x - sin * y,
+                sin * x - cos * y,
+                -theta,
+                cos,
+                -sin
+        );
+        return out;
+    }
+
+    // ----APPLICATION----
+
+    /**
+     * @param px The x coordinates of a point in the frame of the transform.
+     * @param py The y coordinates of a point in the frame of the transform.
+     * @return The x coordinates of the point in the parent frame.
+     * */
+    public double applyX(double px, double py) {
+        return x + rotateX(px, py);
+    }
+
+    /**
+     * @param px The x coordinates of a point in the frame of the transform.
+     * @param py The y coordinates of a point in the frame of the transform.
+     * @return The y coordinates of the point in the parent frame.
+     * */
+    public double applyY(double px, double py) {
+        return y + rotateY(px, py);
+    }
+
+    /**
+     * @param px The x coordinates of a point in the parent frame.
+     * @param py The y coordinates of a point in the parent frame.
+     * @return The x coordinates of the point in the frame of the transform.
+     * */
+    public double applyInverseX(double px, double py) {
+        return inverseRotateX(px - x, py - y);
+    }
+
+    /**
+     * @param px The x coordinates of a point in the parent frame.
+     * @param py The y coordinates of a point in the parent frame.
+     * @return The y coordinates of the point in the frame of the transform.
+     * */
+    public double applyInverseY(double px, double py) {
+        return inverseRotateY(px - x, py - y);
+    }
+
+    /**
+     * <p>Rotates a direction or displacement, which unlike a point is not affected by the translation.<p/>
+     * @param vx The x component in the frame of the transform.
+     * @param vy The y component in the frame of the transform.
+     * @return The x component in the parent frame.
+     * */
+    public double rotateX(double vx, double vy) {
+        return vx * cos - vy * sin;
+    }
+
+    /**
+     * <p>Rotates a direction or displacement, which unlike a point is not affected by the translation.<p/>
+     * @param vx The x component in the frame of the transform.
+     * @param vy The y component in the frame of the transform.
+     * @return The y component in the parent frame.
+     * */
+    public double rotateY(double vx, double vy) {
+        return vx * sin + vy * cos;
+    }
+
+    /**
+     * <p>Rotates a direction or displacement back, which unlike a point is not affected by the translation.<p/>
+     * @param vx The x component in the parent frame.
+     * @param vy The y component in the parent frame.
+     * @return The x component in the frame of the transform.
+     * */
+    public double inverseRotateX(double vx, double vy) {
+        return vx * cos + vy * sin;
+    }
+
+    /**
+     * <p>Rotates a direction or displacement back, which unlike a point is not affected by the translation.<p/>
+     * @param vx The x component in the parent frame.
+     * @param vy The y component in the parent frame.
+     * @return The y component in the frame of the transform.
+     * */
+    public double inverseRotateY(double vx, double vy) {
+        return vy * cos - vx * sin;
+    }
+
+    /**
+     * <p>Converts a pose from the frame of the transform to the parent frame.<p/>
+     * @param pose The pose in the frame of the transform.
+     * @param out The destination of the pose in the parent frame, expressed as a transform.
+     * @return The destination.
+     * */
+    public Transform2D applyToPose(Pose2D pose, Transform2D out) {
+        final double poseCos = Math.cos(pose.getTheta());
+        final double poseSin = Math.sin(pose.getTheta());
+        out.setUnchecked(
+                applyX(pose.getX(), pose.getY()),
+                applyY(pose.getX(), pose.getY()),
+                theta + pose.getTheta(),
+                cos * poseCos - sin * poseSin,
+                sin * poseCos + cos * poseSin
+        );
+        return out;
+    }
+
+    // ----ACCESS----
+
+    /** @return The translation in the x axis.*/
+    public double getX() {
+        return x;
+    }
+
+    /** @return The translation in the y axis.*/
+    public double getY() {
+        return y;
+    }
+
+    /** @return The rotation in Radians. Compositions sum the rotations without wrapping them.*/
+    public double getTheta() {
+        return theta;
+    }
+
+    /** @return The cosine of the rotation.*/
+    public double getCos() {
+        return cos;
+    }
+
+    /** @return The sine of the rotation.*/
+    public double getSin() {
+        return sin;
+    }
+
+    /**
+     * <p>Creates a pose positioned at the origin of the frame of the transform. Allocates the pose.<p/>
+     * @return The pose.
+     * */
+    public Pose2D toPose() {
+        return Pose2D.unchecked(x, y, theta);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.getDefault(),
+                "Transform2D(x: %f, y: %f, theta: %f)",
+                x,
+                y,
+                theta);
+    }
+}
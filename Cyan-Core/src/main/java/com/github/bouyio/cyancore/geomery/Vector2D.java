@@ -2,13 +2,19 @@ package com.github.bouyio.cyancore.geomery;
 
 /**
  * <p>This class represents a two-dimensional vector.</p>
+ * <p>
+ *     Only the cartesian components are stored on creation. The polar components are calculated
+ *     the first time they are requested and then cached, so vectors used only for their cartesian
+ *     components never pay for the trigonometry.
+ * </p>
  * */
 public class Vector2D {
     private final double x;
     private final double y;
 
-    private final double r;
-    private final double theta;
+    // NaN until calculated; the polar components of finite components are never NaN.
+    private double r = Double.NaN;
+    private double theta = Double.NaN;
 
     /**
      * <p>Creates a vector with specified x and y values.<p/>
@@ -16,20 +22,29 @@ public class Vector2D {
      * @param y The y value of the point.
      * */
     public Vector2D(double x, double y) {
-
         if (!Double.isFinite(x) || !Double.isFinite(y)) {
             throw new IllegalArgumentException("Point coordinates must be finite values");
         }
 
-        if (Double.isNaN(x) || Double.isNaN(y)) {
-            throw new IllegalArgumentException("Point coordinates must be numbers");
-        }
+        this.x = x;
+        this.y = y;
+    }
 
+    private Vector2D(double x, double y, boolean unchecked) {
         this.x = x;
         this.y = y;
+    }
 
-        r = Math.hypot(x, y);
-        theta = Math.atan2(x, y);
+    /**
+     * <p>
+     *     Creates a vector without validating its components.
+     *     Meant for vectors derived from already validated values, such as the coordinates of a {@link Point}.
+     * <p/>
+     * @param x The x value of the point. Must be finite.
+     * @param y The y value of the point. Must be finite.
+     * */
+    public static Vector2D unchecked(double x, double y) {
+        return new Vector2D(x, y, true);
     }
 
     /**@return The cartesian x component of the vector.*/
@@ -44,11 +59,13 @@ public class Vector2D {
 
     /**@return The radial r component of the vector.*/
     public double getRadialR() {
+        if (Double.isNaN(r)) r = Math.hypot(x, y);
         return r;
     }
 
     /**@return The radial theta component of the vector.*/
     public double getRadialTheta() {
+        if (Double.isNaN(theta)) theta = Math.atan2(x, y);
         return theta;
     }
 }
@@ -3,6 +3,9 @@ package com.github.bouyio.cyancore.localization;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
+import com.github.bouyio.cyancore.geomery.Transform2D;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 import com.github.bouyio.cyancore.util.Distance;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -93,7 +96,13 @@ public class GyroTankOdometry implements PositionProvider {
     private double previousAngle = 0;
     private double deltaAngle = 0;
 
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+    private final Transform2D robotToField = new Transform2D();
+
     private Logger logger;
+    private int robotXChannel;
+    private int robotYChannel;
+    private int robotHeadingChannel;
     private boolean isLoggerAttached = false;
 
     /**
@@ -135,6 +144,23 @@ public class GyroTankOdometry implements PositionProvider {
         return currPose;
     }
 
+    /**
+     * <p>Formats the velocity of the robot estimated from consecutive pose updates as {@link Pose2D}.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        return velocityEstimator.getVelocity();
+    }
+
+    /**
+     * <p>Sets the clock used for timing the pose updates of the velocity estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
     /**
      * <p>Updates the position estimate.<p/>
      * */
@@ -151,8 +177,9 @@ public class GyroTankOdometry implements PositionProvider {
 
         double dC = (dLeft + dRight) / 2;
 
-        double dX = dC * Math.cos(theta);
-        double dY = dC * Math.sin(theta);
+        robotToField.setRotation(theta);
+        double dX = robotToField.rotateX(dC, 0);
+        double dY = robotToField.rotateY(dC, 0);
 
         previousLeft = currentLeft;
         previousRight = currentRight;
@@ -160,6 +187,7 @@ public class GyroTankOdometry implements PositionProvider {
         x += dX;
         y += dY;
         currPose = new Pose2D(x, y, theta);
+        velocityEstimator.update(x, y, theta);
     }
 
     /**
@@ -169,7 +197,11 @@ public class GyroTankOdometry implements PositionProvider {
      * */
     public void attachLogger(Logger logger) {
         this.logger = logger;
-        isLoggerAttached = true;
+        isLoggerAttached = logger != null;
+        if (logger == null) return;
+        robotXChannel = logger.registerChannel("robotX");
+        robotYChannel = logger.registerChannel("robotY");
+        robotHeadingChannel = logger.registerChannel("robotHeading");
     }
 
     /**
@@ -179,9 +211,9 @@ public class GyroTankOdometry implements PositionProvider {
      * */
     public void debug() {
         if (isLoggerAttached) {
-            logger.logValue("robotX", x);
-            logger.logValue("robotY", y);
-            logger.logValue("robotHeading", theta);
+            logger.logValue(robotXChannel, x);
+            logger.logValue(robotYChannel, y);
+            logger.logValue(robotHeadingChannel, theta);
         }
     }
 }
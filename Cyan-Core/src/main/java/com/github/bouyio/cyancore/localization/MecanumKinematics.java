@@ -3,6 +3,9 @@ package com.github.bouyio.cyancore.localization;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
+import com.github.bouyio.cyancore.geomery.Transform2D;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 import com.github.bouyio.cyancore.util.Distance;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -114,7 +117,13 @@ public class MecanumKinematics implements PositionProvider {
     private double previousLeftBack = 0;
     private double previousRightBack = 0;
 
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+    private final Transform2D robotToField = new Transform2D();
+
     private Logger logger = null;
+    private int robotXChannel;
+    private int robotYChannel;
+    private int robotHeadingChannel;
     private Distance.DistanceUnit distanceUnitOfMeasurement = null;
 
     /**
@@ -174,6 +183,23 @@ public class MecanumKinematics implements PositionProvider {
         return currPose;
     }
 
+    /**
+     * <p>Formats the velocity of the robot estimated from consecutive pose updates as {@link Pose2D}.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        return velocityEstimator.getVelocity();
+    }
+
+    /**
+     * <p>Sets the clock used for timing the pose updates of the velocity estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
     /**
      * <p>Updates the measurements and calculates the position and heading estimate.<p/>
      * <p>
@@ -202,14 +228,13 @@ public class MecanumKinematics implements PositionProvider {
 
         double dTheta = (dRBack + dRFront - dLBack - dLFront) / (4 * TRACK_WIDTH);
 
-        double cos = Math.cos(theta);
-        double sin = Math.sin(theta);
-
         double dForward = dC ;
         double dStrafe = (dLBack + dRFront - dLFront - dRBack) / 4 ;
 
-        double dx = (dStrafe * sin) + (dForward * cos);
-        double dy = (dStrafe * cos) + (-dForward * sin);
+        // A positive strafe is to the left of the robot, so the displacement is rotated like the other systems.
+        robotToField.setRotation(theta);
+        double dx = robotToField.rotateX(dForward, dStrafe);
+        double dy = robotToField.rotateY(dForward, dStrafe);
 
         x += dx;
         y += dy;
@@ -223,6 +248,7 @@ public class MecanumKinematics implements PositionProvider {
         previousRightBack = cRBack;
 
         currPose = new Pose2D(x, y, theta);
+        velocityEstimator.update(x, y, theta);
     }
 
     /**
@@ -232,6 +258,10 @@ public class MecanumKinematics implements PositionProvider {
      * */
     public void attachLogger(Logger logger) {
         this.logger = logger;
+        if (logger == null) return;
+        robotXChannel = logger.registerChannel("robotX");
+        robotYChannel = logger.registerChannel("robotY");
+        robotHeadingChannel = logger.registerChannel("robotHeading");
     }
 
     /**
@@ -241,9 +271,9 @@ public class MecanumKinematics implements PositionProvider {
      * */
     public void debug() {
         if (logger != null) {
-            logger.logValue("robotX", x);
-            logger.logValue("robotY", y);
-            logger.logValue("robotHeading", theta);
+            logger.logValue(robotXChannel, x);
+            logger.logValue(robotYChannel, y);
+            logger.logValue(robotHeadingChannel, theta);
         }
     }
 }
@@ -21,4 +21,13 @@ public interface PositionProvider {
      * <p>Used for updating and estimating the current pose of the Robot.<p/>
      * */
     void update();
+
+    /**
+     * <p>Formats the estimated velocity of the robot.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second
+     * as {@link Pose2D}, or null if the provider does not estimate its velocity.
+     * */
+    default Pose2D getVelocity() {
+        return null;
+    }
 }
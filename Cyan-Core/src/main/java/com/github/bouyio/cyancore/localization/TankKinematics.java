@@ -3,6 +3,9 @@ package com.github.bouyio.cyancore.localization;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
+import com.github.bouyio.cyancore.geomery.Transform2D;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 import com.github.bouyio.cyancore.util.Distance;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -87,7 +90,13 @@ public class TankKinematics implements PositionProvider {
 
     private Pose2D currentPose = null;
 
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+    private final Transform2D robotToField = new Transform2D();
+
     private Logger logger;
+    private int robotXChannel;
+    private int robotYChannel;
+    private int robotHeadingChannel;
     private boolean isLoggerAttached = false;
 
     /**
@@ -135,6 +144,23 @@ public class TankKinematics implements PositionProvider {
         return currentPose;
     }
 
+    /**
+     * <p>Formats the velocity of the robot estimated from consecutive pose updates as {@link Pose2D}.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        return velocityEstimator.getVelocity();
+    }
+
+    /**
+     * <p>Sets the clock used for timing the pose updates of the velocity estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
     /**
      * <p>Updates the measurements and calculates the position and heading estimate.<p/>
      * <p>
@@ -159,9 +185,9 @@ public class TankKinematics implements PositionProvider {
         // Optimized: Pre-calculate angle delta for better readability
         double dTheta = (dRight - dLeft) / TRACK_WIDTH;
 
-        // Optimized: Use more efficient trigonometric calculations
-        double dX = dC * Math.cos(theta);
-        double dY = dC * Math.sin(theta);
+        robotToField.setRotation(theta);
+        double dX = robotToField.rotateX(dC, 0);
+        double dY = robotToField.rotateY(dC, 0);
 
         // Update state variables
         previousLeft = currentLeft;
@@ -172,6 +198,7 @@ public class TankKinematics implements PositionProvider {
         x += dX;
         y += dY;
         currentPose = new Pose2D(x, y, theta);
+        velocityEstimator.update(x, y, theta);
     }
 
     /**
@@ -181,7 +208,11 @@ public class TankKinematics implements PositionProvider {
      * */
     public void attachLogger(Logger logger) {
         this.logger = logger;
-        isLoggerAttached = true;
+        isLoggerAttached = logger != null;
+        if (logger == null) return;
+        robotXChannel = logger.registerChannel("robotX");
+        robotYChannel = logger.registerChannel("robotY");
+        robotHeadingChannel = logger.registerChannel("robotHeading");
     }
 
     /**
@@ -191,9 +222,9 @@ public class TankKinematics implements PositionProvider {
      * */
     public void debug() {
         if (isLoggerAttached) {
-            logger.logValue("robotX", x);
-            logger.logValue("robotY", y);
-            logger.logValue("robotHeading", theta);
+            logger.logValue(robotXChannel, x);
+            logger.logValue(robotYChannel, y);
+            logger.logValue(robotHeadingChannel, theta);
         }
     }
 }
@@ -3,7 +3,10 @@ package com.github.bouyio.cyancore.localization;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
+import com.github.bouyio.cyancore.geomery.Transform2D;
 import com.github.bouyio.cyancore.geomery.Vector2D;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 import com.github.bouyio.cyancore.util.Distance;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -90,7 +93,13 @@ public class TwoDeadWheelOdometry implements PositionProvider {
     private double previousPerpendicular = 0;
     private double previousParallel = 0;
 
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+    private final Transform2D robotToField = new Transform2D();
+
     private Logger logger = null;
+    private int robotXChannel;
+    private int robotYChannel;
+    private int robotHeadingChannel;
     private Distance.DistanceUnit distanceUnitOfMeasurement = null;
 
     /**
@@ -137,6 +146,23 @@ public class TwoDeadWheelOdometry implements PositionProvider {
         return currPose;
     }
 
+    /**
+     * <p>Formats the velocity of the robot estimated from consecutive pose updates as {@link Pose2D}.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        return velocityEstimator.getVelocity();
+    }
+
+    /**
+     * <p>Sets the clock used for timing the pose updates of the velocity estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
     /**
      * <p>Updates the position estimate.<p/>
      * */
@@ -151,11 +177,10 @@ public class TwoDeadWheelOdometry implements PositionProvider {
         double dPerpendicular = cPerpendicular - previousPerpendicular;
         double dParallel = cParallel - previousParallel;
 
-        double cos = Math.cos(theta);
-        double sin = Math.sin(theta);
-
-        double dx = (dPerpendicular * sin) + (dParallel * cos);
-        double dy = (-dPerpendicular * cos) + (dParallel * sin);
+        // The perpendicular wheel measures towards the right of the robot.
+        robotToField.setRotation(theta);
+        double dx = robotToField.rotateX(dParallel, -dPerpendicular);
+        double dy = robotToField.rotateY(dParallel, -dPerpendicular);
 
         x += dx;
         y += dy;
@@ -164,6 +189,7 @@ public class TwoDeadWheelOdometry implements PositionProvider {
         previousParallel = cParallel;
 
         currPose = new Pose2D(x, y, theta);
+        velocityEstimator.update(x, y, theta);
     }
 
     /**
@@ -173,6 +199,10 @@ public class TwoDeadWheelOdometry implements PositionProvider {
      * */
     public void attachLogger(Logger logger) {
         this.logger = logger;
+        if (logger == null) return;
+        robotXChannel = logger.registerChannel("robotX");
+        robotYChannel = logger.registerChannel("robotY");
+        robotHeadingChannel = logger.registerChannel("robotHeading");
     }
 
     /**
@@ -182,9 +212,9 @@ public class TwoDeadWheelOdometry implements PositionProvider {
      * */
     public void debug() {
         if (logger != null) {
-            logger.logValue("robotX", x);
-            logger.logValue("robotY", y);
-            logger.logValue("robotHeading", theta);
+            logger.logValue(robotXChannel, x);
+            logger.logValue(robotYChannel, y);
+            logger.logValue(robotHeadingChannel, theta);
         }
     }
 }
@@ -0,0 +1,116 @@
+package com.github.bouyio.cyancore.localization;
+
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.MathUtil;
+
+/**
+ * <p>
+ *     Estimates the velocity of the robot by differentiating consecutive pose estimates
+ *     over the time measured by a {@link Clock}.
+ * <p/>
+ * @see PositionProvider#getVelocity()
+ * */
+public class VelocityEstimator {
+
+    private Clock clock;
+
+    private double previousX = 0;
+    private double previousY = 0;
+    private double previousTheta = 0;
+    private long previousTime = 0;
+    private boolean hasPreviousPose = false;
+
+    private double velocityX = 0;
+    private double velocityY = 0;
+    private double angularVelocity = 0;
+
+    /**
+     * <p>Creates an estimator timed by the given clock.<p/>
+     * @param clock The clock.
+     * */
+    public VelocityEstimator(Clock clock) {
+        setClock(clock);
+    }
+
+    /**
+     * <p>Sets the clock used for measuring the time between updates and restarts the estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        hasPreviousPose = false;
+    }
+
+    /**
+     * <p>Updates the velocity estimate with the latest pose estimate.<p/>
+     * @param x The x coordinates of the robot.
+     * @param y The y coordinates of the robot.
+     * @param theta The heading of the robot in Radians.
+     * */
+    public void update(double x, double y, double theta) {
+        final long currentTime = clock.nanoTime();
+
+        if (hasPreviousPose) {
+            final long deltaNanos = currentTime - previousTime;
+
+            // Keep the previous estimate if no time has passed instead of dividing by zero.
+            if (deltaNanos <= 0) return;
+
+            final double inverseDeltaTime = 1e9 / deltaNanos;
+            velocityX = (x - previousX) * inverseDeltaTime;
+            velocityY = (y - previousY) * inverseDeltaTime;
+            angularVelocity = Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(theta - previousTheta), 0))
+                    * inverseDeltaTime;
+        }
+
+        previousX = x;
+        previousY = y;
+        previousTheta = theta;
+        previousTime = currentTime;
+        hasPreviousPose = true;
+    }
+
+    /**
+     * <p>Clears the estimate. The next update only records the pose.<p/>
+     * */
+    public void reset() {
+        hasPreviousPose = false;
+        velocityX = 0;
+        velocityY = 0;
+        angularVelocity = 0;
+    }
+
+    /**@return The velocity along the x axis in distance units per second.*/
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**@return The velocity along the y axis in distance units per second.*/
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**@return The linear speed in distance units per second.*/
+    public double getSpeed() {
+        return Math.hypot(velocityX, velocityY);
+    }
+
+    /**@return The angular velocity in Radians per second.*/
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**@return The time of the latest update in nanoseconds.*/
+    public long getLastUpdateTime() {
+        return previousTime;
+    }
+
+    /**@return The velocity formatted as {@link Pose2D}; x and y velocity and angular velocity.*/
+    public Pose2D getVelocity() {
+        return new Pose2D(velocityX, velocityY, angularVelocity);
+    }
+}
@@ -2,9 +2,11 @@ package com.github.bouyio.cyancore.pathing;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 
 import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.PointArray;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.pathing.engine.CircleLineIntersectionCalculator;
 import com.github.bouyio.cyancore.pathing.engine.PathFollower;
@@ -23,21 +25,50 @@ import com.github.bouyio.cyancore.util.Distance;
  * @author Gvol (<a href="https://github.com/Gvolexe">...</a>)
  */
 public class Path {
+
+    /**
+     * <p>The points of the path in one unit of measurement, in both of their forms.</p>
+     * */
+    private static class Geometry {
+        final List<Point> points;
+        final PointArray array;
+
+        Geometry(Point[] points) {
+            this.points = new ArrayList<>(points.length);
+            Collections.addAll(this.points, points);
+            this.array = new PointArray(points);
+        }
+    }
+
     private Distance.DistanceUnit distanceUnitOfMeasurement = null;
-    private final List<Point> pathPoints;
+    private final Geometry declaredGeometry;
+
+    // Converted once per unit and reused every time a follower with that unit follows the path.
+    private final EnumMap<Distance.DistanceUnit, Geometry> convertedGeometry =
+            new EnumMap<>(Distance.DistanceUnit.class);
+    private Distance.DistanceUnit followingUnit = null;
+
+    // The geometry in the following unit; all queries of the path use it.
+    private List<Point> pathPoints;
+    private PointArray pointArray;
 
     private int segmentIndex = 0;
     private boolean isOnLastSegment = false;
 
     private double admissibleError = 0.05;
 
+    private double endHeading = Double.NaN;
+    private boolean isSettleDetectionEnabled = false;
+    private boolean isSettled = false;
+
     /**
      * <p>Creates a path with the points in the order they are given.<p/>
      * @param points The points of the path in the given order.
      * */
     public Path(Point... points) {
-        pathPoints = new ArrayList<>();
-        Collections.addAll(pathPoints, points);
+        declaredGeometry = new Geometry(points);
+        pathPoints = declaredGeometry.points;
+        pointArray = declaredGeometry.array;
     }
 
     /**
@@ -51,14 +82,105 @@ public class Path {
         admissibleError = error;
     }
 
+    /**
+     * <p>Sets the distance unit of measurement the points of the path are declared in.<p/>
+     * @param unit The unit of the declared points.
+     * */
     public void setDistanceUnitOfMeasurement(Distance.DistanceUnit unit) {
+        if (unit == distanceUnitOfMeasurement) return;
         distanceUnitOfMeasurement = unit;
+        convertedGeometry.clear();
+        selectGeometry();
     }
 
     public Distance.DistanceUnit getDistanceUnitOfMeasurement() {
         return distanceUnitOfMeasurement;
     }
 
+    /**
+     * <p>
+     *     Sets the distance unit of measurement of the follower of the path. From then on every query of the path
+     *     answers in that unit. The points are converted the first time a unit is used and the converted points
+     *     are cached, so switching back and forth between units costs nothing after the first time.
+     * <p/>
+     * <p>The declared points are used as they are if either unit has not been set.<p/>
+     * @param unit The unit of the follower or null if it has none.
+     * */
+    public void setFollowingUnit(Distance.DistanceUnit unit) {
+        if (unit == followingUnit) return;
+        followingUnit = unit;
+        selectGeometry();
+    }
+
+    /**@return The distance unit of measurement the queries of the path answer in or null if it has not been set.*/
+    public Distance.DistanceUnit getFollowingUnit() {
+        return followingUnit;
+    }
+
+    private void selectGeometry() {
+        Geometry geometry = declaredGeometry;
+        if (followingUnit != null && distanceUnitOfMeasurement != null && followingUnit != distanceUnitOfMeasurement) {
+            geometry = convertedGeometry.get(followingUnit);
+            if (geometry == null) {
+                geometry = convertGeometry(followingUnit);
+                convertedGeometry.put(followingUnit, geometry);
+            }
+        }
+        pathPoints = geometry.points;
+        pointArray = geometry.array;
+    }
+
+    private Geometry convertGeometry(Distance.DistanceUnit unit) {
+        final List<Point> declaredPoints = declaredGeometry.points;
+        final Point[] converted = new Point[declaredPoints.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = new Point(
+                    Distance.convert(declaredPoints.get(i).getX(), distanceUnitOfMeasurement, unit),
+                    Distance.convert(declaredPoints.get(i).getY(), distanceUnitOfMeasurement, unit));
+        }
+        return new Geometry(converted);
+    }
+
+    /**
+     * <p>
+     *     Sets the heading the robot should have when the path is finished.
+     *     Only taken into account when the path is finished by a settle detector such as
+     *     {@link com.github.bouyio.cyancore.pathing.engine.FinalApproachController}.
+     * <p/>
+     * <p>
+     *     The path only settles once the robot has turned to the heading, so the drivetrain must apply the heading
+     *     output of the approach. The {@link com.github.bouyio.cyancore.pathing.engine.MecanumDriveVectorInterpreter}
+     *     does so in its default heading mode; if it holds a heading or faces a point instead, that heading must
+     *     agree with the end heading.
+     * <p/>
+     * @param heading The end heading in Radians or {@link Double#NaN} if any heading is acceptable.
+     * */
+    public void setEndHeading(double heading) {
+        endHeading = heading;
+    }
+
+    /**@return The end heading of the path in Radians or {@link Double#NaN} if it has not been set.*/
+    public double getEndHeading() {
+        return endHeading;
+    }
+
+    /**
+     * <p>
+     *     Sets whether the path is finished by an external settle detector instead of the position of the robot.
+     *     When enabled, the path is finished only after {@link #markSettled()} has been called.
+     * <p/>
+     * */
+    public void setSettleDetectionEnabled(boolean enabled) {
+        isSettleDetectionEnabled = enabled;
+    }
+
+    /**
+     * <p>Declares the path finished. Used by settle detectors once the robot has come to rest at the last point.<p/>
+     * */
+    public void markSettled() {
+        isSettled = true;
+    }
+
     /**
      * <p>Returns the segment (area between two points) the robot is estimated to be in.<p/>
      * @return A array of two points representing the current segment.
@@ -103,12 +225,30 @@ public class Path {
         return pathPoints.size();
     }
 
+    /**@return The last declared point of the path, in the following unit.*/
+    public Point getLastPoint() {
+        return pathPoints.get(getPathLength() - 1);
+    }
+
+    /**@return The coordinates of the declared points of the path in the following unit, for batch queries.*/
+    public PointArray getPointArray() {
+        return pointArray;
+    }
+
+    /**@return Whether the robot is estimated to be on the last segment of the path.*/
+    public boolean isOnLastSegment() {
+        return isOnLastSegment || segmentIndex >= getPathLength() - 2;
+    }
+
     /**
      * <p>Checks if the robot has finished the path using its position.<p/>
+     * <p>If settle detection is enabled the path is finished only once it has been marked as settled.<p/>
      * @param pose The current pose of the robot.
      * */
     public boolean isPathFinished(Pose2D pose) {
-        return pathPoints.get(getPathLength() - 1).getDistanceFrom(pose) < admissibleError && isOnLastSegment;
+        if (isSettled) return true;
+        if (isSettleDetectionEnabled) return false;
+        return getLastPoint().getDistanceFrom(pose) < admissibleError && isOnLastSegment;
     }
 
     /**
@@ -117,6 +257,7 @@ public class Path {
     public void reset() {
         segmentIndex = 0;
         isOnLastSegment = false;
+        isSettled = false;
     }
 
     /**
@@ -124,22 +265,10 @@ public class Path {
      * @param pose The nearest point.
      * */
     public Point getClosestPoint(Pose2D pose) {
-        Point nearest = null;
-        for (Point p : pathPoints) {
-
-            if (nearest == null) {
-                nearest = p;
-                continue;
-            }
-
-            // This 0.003 should be configurable.
-            // Oh well. ¯\_(ツ)_/¯
-            if (nearest.getDistanceFrom(pose) > p.getDistanceFrom(pose) &&
-                    (Math.abs(nearest.getDistanceFrom(pose) - p.getDistanceFrom(pose))) > 0.003) nearest = p;
-
-        }
-
-        return nearest;
+        // This 0.003 should be configurable.
+        // Oh well. ¯\_(ツ)_/¯
+        int nearest = pointArray.nearestIndex(pose.getX(), pose.getY(), 0, getPathLength(), 0.003);
+        return nearest < 0 ? null : pathPoints.get(nearest);
     }
 
     /**
@@ -147,27 +276,10 @@ public class Path {
      * @param pose The nearest point.
      * */
     public Point getClosestNextPoint(Pose2D pose) {
-        Point nearest = null;
-
         int startingIndex = segmentIndex + 1 < getPathLength() ? segmentIndex + 2 : segmentIndex;
 
-
-        for (int i = startingIndex; i < getPathLength(); i++) {
-            Point p = pathPoints.get(i);
-
-            if (nearest == null) {
-                nearest = p;
-                continue;
-            }
-
-            // This 0.003 should be configurable.
-            // Oh well. ¯\_(ツ)_/¯
-            if (nearest.getDistanceFrom(pose) > p.getDistanceFrom(pose) &&
-                    (Math.abs(nearest.getDistanceFrom(pose) - p.getDistanceFrom(pose))) > 0.003) nearest = p;
-
-        }
-
-        return nearest;
+        int nearest = pointArray.nearestIndex(pose.getX(), pose.getY(), startingIndex, getPathLength(), 0.003);
+        return nearest < 0 ? null : pathPoints.get(nearest);
     }
 
     /**
@@ -181,7 +293,7 @@ public class Path {
         Point[] pathPoints = new Point[getPathLength()];
 
         for (int i = 0; i < getPathLength(); i++) {
-            pathPoints[i] = this.pathPoints.get(i);
+            pathPoints[i] = declaredGeometry.points.get(i);
         }
 
         return new Path(
@@ -200,7 +312,7 @@ public class Path {
         Point[] pathPoints = new Point[getPathLength()];
 
         for (int i = 0; i < getPathLength(); i++) {
-            pathPoints[i] = this.pathPoints.get(getPathLength() - i - 1);
+            pathPoints[i] = declaredGeometry.points.get(getPathLength() - i - 1);
         }
 
         return new Path(
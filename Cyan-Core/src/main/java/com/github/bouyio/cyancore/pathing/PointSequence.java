@@ -2,7 +2,7 @@ package com.github.bouyio.cyancore.pathing;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.EnumMap;
 import java.util.List;
 
 import com.github.bouyio.cyancore.geomery.Point;
@@ -15,10 +15,16 @@ import com.github.bouyio.cyancore.util.Distance;
  * @see PathFollower
  * */
 public class PointSequence {
-    List<Point> points = new LinkedList<>();
+    List<Point> points = new ArrayList<>();
 
     private Distance.DistanceUnit unitOfMeasurement = null;
 
+    // Converted once per unit and reused every time a follower with that unit follows the sequence.
+    private final EnumMap<Distance.DistanceUnit, List<Point>> convertedPoints =
+            new EnumMap<>(Distance.DistanceUnit.class);
+    private Distance.DistanceUnit followingUnit = null;
+    private List<Point> followedPoints = points;
+
     private int currentPointIndex = 0;
 
     /**
@@ -29,17 +35,17 @@ public class PointSequence {
         Collections.addAll(points, sequencePoints);
     }
 
-    /**@return The current point of the sequence.*/
+    /**@return The current point of the sequence, in the following unit.*/
     public Point getCurrentPoint() {
-        return points.get(currentPointIndex);
+        return followedPoints.get(currentPointIndex);
     }
 
     /**
      * <p>Changes the current point of the sequence to next one.<p/>
-     * @return The next point of the sequence.
+     * @return The next point of the sequence, in the following unit.
      * */
     public Point nextPoint() {
-        if (currentPointIndex == points.size() - 1) return null;
+        if (currentPointIndex == followedPoints.size() - 1) return null;
 
         currentPointIndex++;
         return getCurrentPoint();
@@ -51,6 +57,7 @@ public class PointSequence {
      * */
     public void appendPoint(Point p) {
         points.add(p);
+        invalidateConversions();
     }
 
     /**
@@ -60,6 +67,7 @@ public class PointSequence {
      * */
     public void insertPoint(int index, Point p) {
         points.add(index, p);
+        invalidateConversions();
     }
 
     /**
@@ -71,7 +79,9 @@ public class PointSequence {
 
     /**<p>Sets the distance unit of measurement of this point sequence.</p>*/
     public void setUnitOfMeasurement(Distance.DistanceUnit unit) {
+        if (unit == unitOfMeasurement) return;
         unitOfMeasurement = unit;
+        invalidateConversions();
     }
 
     /**@return The distance unit of measurement of this point sequence.*/
@@ -79,6 +89,45 @@ public class PointSequence {
         return unitOfMeasurement;
     }
 
+    /**
+     * <p>
+     *     Sets the distance unit of measurement of the follower of the sequence. From then on the points of the
+     *     sequence are returned in that unit. The points are converted the first time a unit is used and the
+     *     converted points are cached until the sequence is modified.
+     * <p/>
+     * <p>The declared points are used as they are if either unit has not been set.<p/>
+     * @param unit The unit of the follower or null if it has none.
+     * */
+    public void setFollowingUnit(Distance.DistanceUnit unit) {
+        if (unit == followingUnit) return;
+        followingUnit = unit;
+        selectPoints();
+    }
+
+    private void invalidateConversions() {
+        convertedPoints.clear();
+        selectPoints();
+    }
+
+    private void selectPoints() {
+        if (followingUnit == null || unitOfMeasurement == null || followingUnit == unitOfMeasurement) {
+            followedPoints = points;
+            return;
+        }
+
+        List<Point> converted = convertedPoints.get(followingUnit);
+        if (converted == null) {
+            converted = new ArrayList<>(points.size());
+            for (Point point : points) {
+                converted.add(new Point(
+                        Distance.convert(point.getX(), unitOfMeasurement, followingUnit),
+                        Distance.convert(point.getY(), unitOfMeasurement, followingUnit)));
+            }
+            convertedPoints.put(followingUnit, converted);
+        }
+        followedPoints = converted;
+    }
+
     /**
      * <p>
      *     Creates a copy of the sequence object.
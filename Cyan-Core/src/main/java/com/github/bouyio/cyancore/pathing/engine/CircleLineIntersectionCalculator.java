@@ -3,6 +3,7 @@ package com.github.bouyio.cyancore.pathing.engine;
 import com.github.bouyio.cyancore.localization.PositionProvider;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.pathing.Path;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -45,6 +46,23 @@ public class CircleLineIntersectionCalculator {
     private double dbgSol2X = Double.MAX_VALUE;
     private double dbgSol2Y = Double.MIN_VALUE;
     private int dbgSegmentID = 0;
+    private Point dbgSegmentStart = null;
+    private Point dbgSegmentEnd = null;
+    private Pose2D dbgPose = null;
+
+    private int debugSamplingDivisor = 1;
+    private long debugCalls = 0;
+
+    private int systemChannel;
+    private int discriminantChannel;
+    private int pointsFoundChannel;
+    private int solution1XChannel;
+    private int solution1YChannel;
+    private int solution2XChannel;
+    private int solution2YChannel;
+    private int segmentChannel;
+    private int pathFinishedChannel;
+    private int crossTrackErrorChannel;
 
 
     /**
@@ -91,23 +109,23 @@ public class CircleLineIntersectionCalculator {
         posProvider.update();
         Point circleCenter = posProvider.getPose().toPoint();
 
-        point1 = new Point(
-                abs(point1.getCoordinates().getCartesianX() - point2.getCoordinates().getCartesianX()) < differenceThreshold ?
-                        point1.getCoordinates().getCartesianX() + differenceThreshold : point1.getCoordinates().getCartesianX(),
+        point1 = Point.unchecked(
+                abs(point1.getX() - point2.getX()) < differenceThreshold ?
+                        point1.getX() + differenceThreshold : point1.getX(),
 
-                abs(point1.getCoordinates().getCartesianY() - point2.getCoordinates().getCartesianY()) < differenceThreshold ?
-                        point1.getCoordinates().getCartesianY() + differenceThreshold : point1.getCoordinates().getCartesianY()
+                abs(point1.getY() - point2.getY()) < differenceThreshold ?
+                        point1.getY() + differenceThreshold : point1.getY()
         );
 
         // Components of the quadratic equation.
-        double m1 = (point2.getCoordinates().getCartesianY() - point1.getCoordinates().getCartesianY()) /
-                (point2.getCoordinates().getCartesianX() - point1.getCoordinates().getCartesianX());
+        double m1 = (point2.getY() - point1.getY()) /
+                (point2.getX() - point1.getX());
 
         double quadraticA = 1 + pow(m1, 2);
 
         // The first point's coordinates relative to the circle center.
-        double x1 = point1.getCoordinates().getCartesianX() - circleCenter.getCoordinates().getCartesianX();
-        double y1 = point1.getCoordinates().getCartesianY() - circleCenter.getCoordinates().getCartesianY();
+        double x1 = point1.getX() - circleCenter.getX();
+        double y1 = point1.getY() - circleCenter.getY();
 
         double quadraticB = (2 * m1 * y1) - (2 * pow(m1, 2) * x1);
 
@@ -121,18 +139,18 @@ public class CircleLineIntersectionCalculator {
         List<Point> solutions = new ArrayList<>();
 
         // The area of the section that the solutions must be in.
-        double minX = min(point1.getCoordinates().getCartesianX(), point2.getCoordinates().getCartesianX());
-        double maxX = max(point1.getCoordinates().getCartesianX(), point2.getCoordinates().getCartesianX());
-        double minY = min(point1.getCoordinates().getCartesianY(), point2.getCoordinates().getCartesianY());
-        double maxY = max(point1.getCoordinates().getCartesianY(), point2.getCoordinates().getCartesianY());
+        double minX = min(point1.getX(), point2.getX());
+        double maxX = max(point1.getX(), point2.getX());
+        double minY = min(point1.getY(), point2.getY());
+        double maxY = max(point1.getY(), point2.getY());
 
         // Calculation of the first solution.
 
         double xRoot1 = ((-quadraticB + sqrt(discriminant)) / (2 * quadraticA));
         double yRoot1 = m1 * (xRoot1 - x1) + y1;
 
-        xRoot1 += circleCenter.getCoordinates().getCartesianX();
-        yRoot1 += circleCenter.getCoordinates().getCartesianY();
+        xRoot1 += circleCenter.getX();
+        yRoot1 += circleCenter.getY();
 
 
         dbgPointSolutions = 0;
@@ -140,7 +158,7 @@ public class CircleLineIntersectionCalculator {
         dbgSol1Y = yRoot1;
 
         if (MathUtil.isValueInRange(minX, maxX, xRoot1) && MathUtil.isValueInRange(minY, maxY, yRoot1)) {
-            solutions.add(new Point(xRoot1, yRoot1));
+            solutions.add(Point.unchecked(xRoot1, yRoot1));
             dbgPointSolutions++;
         }
 
@@ -149,14 +167,14 @@ public class CircleLineIntersectionCalculator {
         double xRoot2 = ((-quadraticB - sqrt(discriminant)) / (2 * quadraticA));
         double yRoot2 = m1 * (xRoot2 - x1) + y1;
 
-        xRoot2 += circleCenter.getCoordinates().getCartesianX();
-        yRoot2 += circleCenter.getCoordinates().getCartesianY();
+        xRoot2 += circleCenter.getX();
+        yRoot2 += circleCenter.getY();
 
         dbgSol2X = xRoot2;
         dbgSol2Y = yRoot2;
 
         if (MathUtil.isValueInRange(minX, maxX, xRoot2) && MathUtil.isValueInRange(minY, maxY, yRoot2)) {
-            solutions.add(new Point(xRoot2, yRoot2));
+            solutions.add(Point.unchecked(xRoot2, yRoot2));
             dbgPointSolutions++;
         }
 
@@ -197,6 +215,11 @@ public class CircleLineIntersectionCalculator {
             dbgSegmentID = targetPath.getSegmentIndex();
         }
 
+        // Only the references are captured; the cross-track error is calculated when it is logged.
+        dbgSegmentStart = currentSegment[0];
+        dbgSegmentEnd = currentSegment[1];
+        dbgPose = posProvider.getPose();
+
         List<Point> solutions;
 
         try {
@@ -240,6 +263,23 @@ public class CircleLineIntersectionCalculator {
     }
 
 
+    /**
+     * <p>Calculates the distance of the robot from the closest point of a segment.<p/>
+     * */
+    private static double distanceFromSegment(Pose2D pose, Point start, Point end) {
+        final double startX = start.getX();
+        final double startY = start.getY();
+        final double segmentX = end.getX() - startX;
+        final double segmentY = end.getY() - startY;
+        final double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+        double projection = lengthSquared == 0 ? 0 :
+                ((pose.getX() - startX) * segmentX + (pose.getY() - startY) * segmentY) / lengthSquared;
+        projection = Math.max(0, Math.min(1, projection));
+
+        return Math.hypot(pose.getX() - (startX + projection * segmentX), pose.getY() - (startY + projection * segmentY));
+    }
+
     /**
      * <p>
      *    Attaches a logger to this instance to record debug values.
@@ -247,24 +287,55 @@ public class CircleLineIntersectionCalculator {
      * */
     public void attachLogger(Logger l) {
         logger = l;
+        if (l == null) return;
+
+        systemChannel = l.registerChannel(SYSTEM_NAME);
+        discriminantChannel = l.registerChannel("Discriminant");
+        pointsFoundChannel = l.registerChannel("Points Found");
+        solution1XChannel = l.registerChannel("Solution 1 X");
+        solution1YChannel = l.registerChannel("Solution 1 Y");
+        solution2XChannel = l.registerChannel("Solution 2 X");
+        solution2YChannel = l.registerChannel("Solution 2 Y");
+        segmentChannel = l.registerChannel("Current Segment");
+        pathFinishedChannel = l.registerChannel("Is Path Finished");
+        crossTrackErrorChannel = l.registerChannel("Cross Track Error");
+    }
+
+    /**
+     * <p>
+     *    Sets how often the debug actions actually run. With a divisor of N only every Nth call of
+     *    {@link #debug()} logs.
+     * <p/>
+     * @param divisor The sampling divisor; 1 logs on every call.
+     * */
+    public void setDebugSamplingDivisor(int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Debug sampling divisor must be positive");
+        }
+        debugSamplingDivisor = divisor;
     }
 
     /**
      * <p>
      *    Runs the debug actions, such as logging, of this system.
      * <p/>
+     * @see #setDebugSamplingDivisor(int)
      * */
     public void debug() {
         if (logger == null) return;
-
-        logger.logValue(SYSTEM_NAME, SYSTEM_VERSION);
-        logger.logValue("Discriminant", dbgDiscriminant);
-        logger.logValue("Points Found", dbgPointSolutions);
-        logger.logValue("Solution 1 X", dbgSol1X);
-        logger.logValue("Solution 1 Y", dbgSol1Y);
-        logger.logValue("Solution 2 X", dbgSol2X);
-        logger.logValue("Solution 2 Y", dbgSol2Y);
-        logger.logValue("Current Segment", dbgSegmentID);
-        logger.logValue("Is Path Finished", targetPath.isPathFinished(posProvider.getPose()));
+        if (debugCalls++ % debugSamplingDivisor != 0) return;
+
+        logger.logValue(systemChannel, SYSTEM_VERSION);
+        logger.logValue(discriminantChannel, dbgDiscriminant);
+        logger.logValue(pointsFoundChannel, dbgPointSolutions);
+        logger.logValue(solution1XChannel, dbgSol1X);
+        logger.logValue(solution1YChannel, dbgSol1Y);
+        logger.logValue(solution2XChannel, dbgSol2X);
+        logger.logValue(solution2YChannel, dbgSol2Y);
+        logger.logValue(segmentChannel, dbgSegmentID);
+        logger.logValue(pathFinishedChannel, targetPath.isPathFinished(posProvider.getPose()));
+        if (dbgPose != null) {
+            logger.logValue(crossTrackErrorChannel, distanceFromSegment(dbgPose, dbgSegmentStart, dbgSegmentEnd));
+        }
     }
 }
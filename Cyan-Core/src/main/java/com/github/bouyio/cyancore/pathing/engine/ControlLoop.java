@@ -0,0 +1,308 @@
+package com.github.bouyio.cyancore.pathing.engine;
+
+import com.github.bouyio.cyancore.debugger.Histogram;
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.pathing.PathSequence;
+import com.github.bouyio.cyancore.pathing.PointSequence;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+import com.github.bouyio.cyancore.util.ManualClock;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Runs a control pipeline, such as {@link PositionProvider} → {@link PathFollower} → {@link VectorInterpreter},
+ *     at a fixed rate instead of whenever the OpMode loop happens to run.
+ *     Ticks are scheduled on absolute {@link Clock} deadlines so the rate does not drift.
+ * </p>
+ * <p>
+ *     When timed by a {@link ManualClock} the loop does not wait; it advances the clock to each deadline
+ *     instead, so simulations run as fast as the stage allows.
+ * </p>
+ * <p>
+ *     For every tick the duration of the stage and the jitter, the delay of the start of the tick
+ *     from its deadline, are recorded in histograms. A tick whose stage runs past the next deadline
+ *     is counted as an overrun and the schedule restarts from the end of that tick instead of trying to catch up.
+ * </p>
+ * @see Histogram
+ * */
+public class ControlLoop {
+
+    /**
+     * <p>A unit of work executed once every tick.</p>
+     * */
+    @FunctionalInterface
+    public interface Stage {
+        /**
+         * <p>Executes the work of one tick.</p>
+         * @return Whether the loop should keep running.
+         * */
+        boolean execute();
+    }
+
+    /** Waits shorter than this are spun instead of parked, as parking is not precise enough for them.*/
+    private static final long SPIN_THRESHOLD_NANOS = 1_000_000L;
+
+    private static final int HISTOGRAM_BUCKETS = 100;
+
+    private final long periodNanos;
+    private final Clock clock;
+
+    private final Histogram tickDurations;
+    private final Histogram tickJitter;
+
+    private long nextDeadline = 0;
+    private boolean isScheduleStarted = false;
+
+    private long tickCount = 0;
+    private long overrunCount = 0;
+
+    // ----SYSTEM VERSION INFO---
+
+    private final String SYSTEM_VERSION = "1.0";
+    private final String SYSTEM_NAME = "CONTROL_LOOP";
+    public String getSystemVersion() {return SYSTEM_VERSION;}
+    public String getSystemName() {return SYSTEM_NAME;}
+
+    private Logger logger = null;
+    private int systemChannel;
+    private int ticksChannel;
+    private int overrunsChannel;
+    private int headroomChannel;
+
+    /**
+     * <p>Creates a loop running at the given frequency, timed by the global clock.</p>
+     * @param frequency The frequency of the loop in Hertz.
+     * @see Clocks#getGlobalClock()
+     * */
+    public ControlLoop(double frequency) {
+        this(frequency, Clocks.getGlobalClock());
+    }
+
+    /**
+     * <p>Creates a loop running at the given frequency, timed by the given clock.</p>
+     * @param frequency The frequency of the loop in Hertz.
+     * @param clock The clock.
+     * */
+    public ControlLoop(double frequency, Clock clock) {
+        if (!(frequency > 0) || Double.isInfinite(frequency)) {
+            throw new IllegalArgumentException("Loop frequency must be positive and finite");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        periodNanos = Math.max(1, Math.round(1e9 / frequency));
+
+        // Both histograms cover two periods; anything longer is counted as overflow.
+        long bucketWidth = Math.max(1, 2 * periodNanos / HISTOGRAM_BUCKETS);
+        tickDurations = new Histogram("Tick Duration", bucketWidth, HISTOGRAM_BUCKETS);
+        tickJitter = new Histogram("Tick Jitter", bucketWidth, HISTOGRAM_BUCKETS);
+    }
+
+    // ----STAGE FACTORIES----
+
+    /**
+     * <p>Creates a stage following a {@link Path} until it is finished.</p>
+     * @param follower The follower.
+     * @param path The path to be followed.
+     * @param motorOutput The consumer applying the calculated powers to the motors.
+     * */
+    public static Stage pathStage(PathFollower follower, Path path, Consumer<double[]> motorOutput) {
+        return () -> {
+            follower.followPath(path);
+            motorOutput.accept(follower.getCalculatedPowers());
+            return !path.isPathFinished(follower.posProvider.getPose());
+        };
+    }
+
+    /**
+     * <p>Creates a stage following a {@link PathSequence} until it is finished.</p>
+     * @param follower The follower.
+     * @param sequence The sequence to be followed.
+     * @param motorOutput The consumer applying the calculated powers to the motors.
+     * */
+    public static Stage pathSequenceStage(PathFollower follower, PathSequence sequence, Consumer<double[]> motorOutput) {
+        return () -> {
+            boolean isRunning = follower.followPathSequence(sequence);
+            motorOutput.accept(follower.getCalculatedPowers());
+            return isRunning;
+        };
+    }
+
+    /**
+     * <p>Creates a stage following a {@link PointSequence} until it is finished.</p>
+     * @param follower The follower.
+     * @param sequence The sequence to be followed.
+     * @param motorOutput The consumer applying the calculated powers to the motors.
+     * */
+    public static Stage pointSequenceStage(PathFollower follower, PointSequence sequence, Consumer<double[]> motorOutput) {
+        return () -> {
+            boolean isRunning = follower.followPointSequence(sequence);
+            motorOutput.accept(follower.getCalculatedPowers());
+            return isRunning;
+        };
+    }
+
+    // ----EXECUTION----
+
+    /**
+     * <p>
+     *     Runs the stage every tick until it reports that it is done, the given condition becomes false
+     *     or the thread is interrupted.
+     * </p>
+     * @param stage The stage to be run.
+     * @param isActive The condition for the loop to keep running, e.g. {@code this::opModeIsActive}.
+     * */
+    public void run(Stage stage, BooleanSupplier isActive) {
+        while (isActive.getAsBoolean()) {
+            if (!tick(stage)) return;
+        }
+    }
+
+    /**
+     * <p>Waits for the next deadline and runs the stage once.</p>
+     * @param stage The stage to be run.
+     * @return Whether the loop should keep running; false if the stage is done or the thread was interrupted.
+     * */
+    public boolean tick(Stage stage) {
+        if (!isScheduleStarted) {
+            nextDeadline = clock.nanoTime();
+            isScheduleStarted = true;
+        }
+
+        if (!waitUntil(nextDeadline)) return false;
+
+        final long startTime = clock.nanoTime();
+        tickJitter.record(startTime - nextDeadline);
+
+        boolean shouldContinue = stage.execute();
+
+        final long endTime = clock.nanoTime();
+        tickDurations.record(endTime - startTime);
+        tickCount++;
+
+        nextDeadline += periodNanos;
+        if (endTime > nextDeadline) {
+            overrunCount++;
+            nextDeadline = endTime;
+        }
+
+        return shouldContinue;
+    }
+
+    /**
+     * <p>Restarts the schedule so the next tick runs immediately. The statistics are kept.</p>
+     * */
+    public void restartSchedule() {
+        isScheduleStarted = false;
+    }
+
+    /**
+     * <p>Clears the recorded statistics.</p>
+     * */
+    public void resetStatistics() {
+        tickDurations.reset();
+        tickJitter.reset();
+        tickCount = 0;
+        overrunCount = 0;
+    }
+
+    /**
+     * <p>Parks and then spins the thread until the deadline.</p>
+     * @return False if the thread was interrupted while waiting.
+     * */
+    private boolean waitUntil(long deadline) {
+        if (clock instanceof ManualClock) {
+            ((ManualClock) clock).advanceTo(deadline);
+            return !Thread.currentThread().isInterrupted();
+        }
+
+        long remaining = deadline - clock.nanoTime();
+
+        while (remaining > 0) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.yield();
+            }
+            remaining = deadline - clock.nanoTime();
+        }
+
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    // ----STATISTICS----
+
+    /** @return The period of the loop in nanoseconds.*/
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /** @return The histogram of the time spent executing the stage, in nanoseconds.*/
+    public Histogram getTickDurations() {
+        return tickDurations;
+    }
+
+    /** @return The histogram of the delay of the start of each tick from its deadline, in nanoseconds.*/
+    public Histogram getTickJitter() {
+        return tickJitter;
+    }
+
+    /** @return The amount of executed ticks.*/
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /** @return The amount of ticks whose stage ran past the next deadline.*/
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /** @return The fraction of the period left unused by the average tick.*/
+    public double getHeadroom() {
+        return 1 - tickDurations.getMean() / periodNanos;
+    }
+
+    // ----DEBUG METHODS----
+
+    /**
+     * <p>
+     *    Attaches a logger to this instance to record debug values.
+     * <p/>
+     * */
+    public void attachLogger(Logger l) {
+        logger = l;
+        tickDurations.attachLogger(l);
+        tickJitter.attachLogger(l);
+        if (l == null) return;
+
+        systemChannel = l.registerChannel(SYSTEM_NAME);
+        ticksChannel = l.registerChannel("Loop Ticks");
+        overrunsChannel = l.registerChannel("Loop Overruns");
+        headroomChannel = l.registerChannel("Loop Headroom");
+    }
+
+    /**
+     * <p>
+     *    Runs the debug actions, such as logging, of this system.
+     * <p/>
+     * */
+    public void debug() {
+        if (logger == null) return;
+
+        logger.logValue(systemChannel, SYSTEM_VERSION);
+        logger.logValue(ticksChannel, tickCount);
+        logger.logValue(overrunsChannel, overrunCount);
+        logger.logValue(headroomChannel, getHeadroom());
+        tickDurations.log();
+        tickJitter.log();
+    }
+}
@@ -0,0 +1,271 @@
+package com.github.bouyio.cyancore.pathing.engine;
+
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+import com.github.bouyio.cyancore.util.FeedforwardCoefficients;
+import com.github.bouyio.cyancore.util.FeedforwardFit;
+
+/**
+ * <p>
+ *     Measures the feedforward coefficients of a drivetrain by driving it straight and fitting
+ *     {@code kS·sgn(v) + kV·v + kA·a} to the applied power and the velocity reported by the odometry.
+ * </p>
+ * <p>
+ *     Two kinds of tests are supported and their samples are fitted together:
+ *     <ul>
+ *         <li>Quasistatic - The power is ramped slowly, so the acceleration is negligible. Determines kS and kV.</li>
+ *         <li>Dynamic - The power is stepped, so the robot accelerates hard. Determines kA.</li>
+ *     </ul>
+ *     The robot is driven by commanding the {@link VectorInterpreter} along the positive x axis,
+ *     so it should start facing it with a clear path ahead.
+ * </p>
+ * @see FeedforwardFit
+ * @see PositionProvider#getVelocity()
+ * */
+public class DriveCharacterization {
+
+    /**
+     * <p>The test being run.</p>
+     * */
+    public enum TestMode {
+        IDLE, QUASISTATIC, DYNAMIC
+    }
+
+    private final VectorInterpreter vectorInterpreter;
+    private final PositionProvider positionProvider;
+    private Clock clock;
+
+    private final FeedforwardFit fit = new FeedforwardFit();
+
+    // ----USER SETTINGS----
+
+    private double minimumVelocity = 0.01;
+    private double timeLimit = 5;
+
+    // ---SYSTEM WORKING VARIABLES---
+
+    private TestMode mode = TestMode.IDLE;
+    private double testParameter = 0;
+    private long startTime = 0;
+
+    private long previousTime = 0;
+    private double previousVelocity = 0;
+    private boolean hasPreviousSample = false;
+
+    private double appliedPower = 0;
+
+    // ----SYSTEM VERSION INFO---
+
+    private final String SYSTEM_VERSION = "1.0";
+    private final String SYSTEM_NAME = "DRIVE_CHARACTERIZATION";
+    public String getSystemVersion() {return SYSTEM_VERSION;}
+    public String getSystemName() {return SYSTEM_NAME;}
+
+    private Logger logger = null;
+    private double dbgVelocity = 0;
+    private double dbgAcceleration = 0;
+
+    private int systemChannel;
+    private int modeChannel;
+    private int powerChannel;
+    private int velocityChannel;
+    private int accelerationChannel;
+    private int samplesChannel;
+
+    /**
+     * <p>Creates a characterization routine timed by the given clock.</p>
+     * @param vectorInterpreter The interpreter of the drivetrain.
+     * @param positionProvider The odometry of the robot. Must support {@link PositionProvider#getVelocity()}.
+     * @param clock The clock.
+     * */
+    public DriveCharacterization(VectorInterpreter vectorInterpreter, PositionProvider positionProvider, Clock clock) {
+        if (vectorInterpreter == null || positionProvider == null) {
+            throw new IllegalArgumentException("Vector interpreter and position provider cannot be null");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.vectorInterpreter = vectorInterpreter;
+        this.positionProvider = positionProvider;
+        this.clock = clock;
+    }
+
+    /**
+     * <p>Creates a characterization routine timed by the global clock.</p>
+     * @param vectorInterpreter The interpreter of the drivetrain.
+     * @param positionProvider The odometry of the robot. Must support {@link PositionProvider#getVelocity()}.
+     * @see Clocks#getGlobalClock()
+     * */
+    public DriveCharacterization(VectorInterpreter vectorInterpreter, PositionProvider positionProvider) {
+        this(vectorInterpreter, positionProvider, Clocks.getGlobalClock());
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the speed below which samples are ignored, as the robot is held by static friction.</p>
+     * @param minimumVelocity The speed in distance units per second.
+     * */
+    public void setMinimumVelocity(double minimumVelocity) {
+        this.minimumVelocity = Math.abs(minimumVelocity);
+    }
+
+    /**
+     * <p>Sets the duration after which a test stops on its own.</p>
+     * @param seconds The duration in seconds.
+     * */
+    public void setTimeLimit(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Time limit must be positive");
+        }
+        timeLimit = seconds;
+    }
+
+    // ----TESTS----
+
+    /**
+     * <p>Starts a quasistatic test, ramping the power linearly from zero.</p>
+     * @param rampRate The increase of power per second, e.g. 0.1.
+     * */
+    public void startQuasistatic(double rampRate) {
+        if (!(rampRate > 0)) {
+            throw new IllegalArgumentException("Ramp rate must be positive");
+        }
+        start(TestMode.QUASISTATIC, rampRate);
+    }
+
+    /**
+     * <p>Starts a dynamic test, applying a constant power from a standstill.</p>
+     * @param stepPower The power applied, e.g. 0.7.
+     * */
+    public void startDynamic(double stepPower) {
+        if (!(stepPower > 0) || stepPower > 1) {
+            throw new IllegalArgumentException("Step power must be between 0 and 1");
+        }
+        start(TestMode.DYNAMIC, stepPower);
+    }
+
+    private void start(TestMode mode, double testParameter) {
+        this.mode = mode;
+        this.testParameter = testParameter;
+        startTime = clock.nanoTime();
+        hasPreviousSample = false;
+    }
+
+    /**
+     * <p>
+     *     Samples the odometry and commands the drivetrain for the running test.
+     *     The odometry should have been updated before every call.
+     * </p>
+     * @return Whether the test is still running.
+     * */
+    public boolean update() {
+        if (mode == TestMode.IDLE) return false;
+
+        final long currentTime = clock.nanoTime();
+        final double elapsed = (currentTime - startTime) * 1e-9;
+
+        Pose2D velocity = positionProvider.getVelocity();
+        if (velocity == null) {
+            throw new IllegalStateException("The position provider does not estimate velocity");
+        }
+        final double speed = Math.hypot(velocity.getX(), velocity.getY());
+
+        if (hasPreviousSample && currentTime > previousTime) {
+            final double acceleration = (speed - previousVelocity) * 1e9 / (currentTime - previousTime);
+            if (speed >= minimumVelocity) {
+                fit.addSample(appliedPower, speed, acceleration);
+            }
+            dbgAcceleration = acceleration;
+        }
+        dbgVelocity = speed;
+
+        previousVelocity = speed;
+        previousTime = currentTime;
+        hasPreviousSample = true;
+
+        final double power = mode == TestMode.QUASISTATIC ? testParameter * elapsed : testParameter;
+
+        if (elapsed >= timeLimit || power > 1) {
+            stop();
+            return false;
+        }
+
+        appliedPower = power;
+        vectorInterpreter.processPower(new Pose2D(power, 0, 0));
+        return true;
+    }
+
+    /**
+     * <p>Stops the running test and the drivetrain. The samples are kept.</p>
+     * */
+    public void stop() {
+        mode = TestMode.IDLE;
+        appliedPower = 0;
+        vectorInterpreter.stop();
+    }
+
+    /** @return The test being run.*/
+    public TestMode getMode() {
+        return mode;
+    }
+
+    /** @return The power applied on the last update.*/
+    public double getAppliedPower() {
+        return appliedPower;
+    }
+
+    // ----RESULTS----
+
+    /** @return The fit accumulating the samples of all the tests.*/
+    public FeedforwardFit getFit() {
+        return fit;
+    }
+
+    /**
+     * <p>Fits the coefficients to the samples of all the tests run so far.</p>
+     * @return The fitted coefficients.
+     * @see FeedforwardFit#solve()
+     * */
+    public FeedforwardCoefficients getCoefficients() {
+        return fit.solve();
+    }
+
+    // ----DEBUG METHODS----
+
+    /**
+     * <p>
+     *    Attaches a logger to this instance to record debug values.
+     * <p/>
+     * */
+    public void attachLogger(Logger l) {
+        logger = l;
+        if (l == null) return;
+
+        systemChannel = l.registerChannel(SYSTEM_NAME);
+        modeChannel = l.registerChannel("Characterization Mode");
+        powerChannel = l.registerChannel("Characterization Power");
+        velocityChannel = l.registerChannel("Characterization Velocity");
+        accelerationChannel = l.registerChannel("Characterization Acceleration");
+        samplesChannel = l.registerChannel("Characterization Samples");
+    }
+
+    /**
+     * <p>
+     *    Runs the debug actions, such as logging, of this system.
+     * <p/>
+     * */
+    public void debug() {
+        if (logger == null) return;
+
+        logger.logValue(systemChannel, SYSTEM_VERSION);
+        logger.logValue(modeChannel, mode.toString());
+        logger.logValue(powerChannel, appliedPower);
+        logger.logValue(velocityChannel, dbgVelocity);
+        logger.logValue(accelerationChannel, dbgAcceleration);
+        logger.logValue(samplesChannel, fit.getSampleCount());
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.bouyio.cyancore.pathing.engine;
+
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.VelocityEstimator;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+import com.github.bouyio.cyancore.util.MathUtil;
+import com.github.bouyio.cyancore.util.PIDController;
+
+/**
+ * <p>
+ *     Drives the robot onto the last point of a {@link Path} once it is close enough to it.
+ *     Replaces the pure pursuit target chasing, which tends to orbit the final point, with a pose
+ *     controller that decelerates towards the point and declares the path finished only when the
+ *     position, heading and velocity of the robot have all settled.
+ * </p>
+ * <p>
+ *     Distances and velocities are expressed in the distance unit of the follower, angles in Radians.
+ * </p>
+ * @see PathFollower
+ * @see Path#setEndHeading(double)
+ * */
+public class FinalApproachController {
+
+    /**
+     * <p>The kind of drivetrain the approach outputs are meant for.</p>
+     * <ul>
+     *     <li>{@code TANK} - Steers towards the point and turns in place to the end heading once there.</li>
+     *     <li>{@code HOLONOMIC} - Translates towards the point while rotating to the end heading.</li>
+     * </ul>
+     * */
+    public enum DriveType {
+        TANK, HOLONOMIC
+    }
+
+    private final PIDController translationalController;
+    private final PIDController headingController;
+    private final DriveType driveType;
+
+    private final double handoverRadius;
+
+    // ----USER SETTINGS----
+
+    private double positionTolerance = 0.05;
+    private double headingTolerance = Math.toRadians(2);
+    private double velocityTolerance = 0.05;
+    private double angularVelocityTolerance = Math.toRadians(5);
+
+    private double maxVelocity = 0;
+    private double maxDeceleration = 0;
+
+    // ---SYSTEM WORKING VARIABLES---
+
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+
+    private boolean isSettled = false;
+    // Whether the controller has taken over the current path; cleared on reset.
+    private boolean isActive = false;
+
+    // ----SYSTEM VERSION INFO---
+
+    private final String SYSTEM_VERSION = "1.1";
+    private final String SYSTEM_NAME = "FINAL_APPROACH";
+    public String getSystemVersion() {return SYSTEM_VERSION;}
+    public String getSystemName() {return SYSTEM_NAME;}
+
+    // ----DEBUG FIELDS----
+    private Logger logger = null;
+    private double dbgDistanceError = 0;
+    private double dbgHeadingError = 0;
+
+    private int systemChannel;
+    private int distanceErrorChannel;
+    private int headingErrorChannel;
+    private int velocityChannel;
+    private int angularVelocityChannel;
+    private int settledChannel;
+
+    /**
+     * <p>Creates a final approach controller.</p>
+     * @param translationalController The controller driving the distance to the point to zero.
+     * @param headingController The controller driving the heading error to zero.
+     * @param driveType The kind of drivetrain the outputs are meant for.
+     * @param handoverRadius The distance from the last point of the path inside which the controller takes over.
+     * */
+    public FinalApproachController(
+            PIDController translationalController,
+            PIDController headingController,
+            DriveType driveType,
+            double handoverRadius
+    ) {
+        if (translationalController == null || headingController == null) {
+            throw new IllegalArgumentException("Approach controllers cannot be null");
+        }
+        if (handoverRadius <= 0) {
+            throw new IllegalArgumentException("Handover radius must be positive");
+        }
+        this.translationalController = translationalController;
+        this.headingController = headingController;
+        this.driveType = driveType;
+        this.handoverRadius = handoverRadius;
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the thresholds all of which must be met for the approach to be considered settled.</p>
+     * @param positionTolerance The maximum distance from the point.
+     * @param headingTolerance The maximum heading error in Radians. Ignored if the path has no end heading.
+     * @param velocityTolerance The maximum linear speed in distance units per second.
+     * @param angularVelocityTolerance The maximum angular speed in Radians per second.
+     * */
+    public void setSettleTolerances(
+            double positionTolerance,
+            double headingTolerance,
+            double velocityTolerance,
+            double angularVelocityTolerance
+    ) {
+        this.positionTolerance = Math.abs(positionTolerance);
+        this.headingTolerance = Math.abs(headingTolerance);
+        this.velocityTolerance = Math.abs(velocityTolerance);
+        this.angularVelocityTolerance = Math.abs(angularVelocityTolerance);
+    }
+
+    /**
+     * <p>
+     *     Limits the translational output so the robot can always stop at the point with the given deceleration.
+     *     The allowed speed is {@code sqrt(2·a·d)}, expressed as a fraction of {@code maxVelocity}.
+     *     Setting any of the two to zero disables the limit.
+     * </p>
+     * @param maxVelocity The speed of the robot at full power in distance units per second.
+     * @param maxDeceleration The deceleration the robot can achieve in distance units per second squared.
+     * */
+    public void setDecelerationProfile(double maxVelocity, double maxDeceleration) {
+        this.maxVelocity = Math.abs(maxVelocity);
+        this.maxDeceleration = Math.abs(maxDeceleration);
+    }
+
+    /**
+     * <p>Sets the clock used for timing the velocity estimation.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
+    /** @return The distance from the last point of the path inside which the controller takes over.*/
+    public double getHandoverRadius() {
+        return handoverRadius;
+    }
+
+    /** @return The kind of drivetrain the outputs are meant for.*/
+    public DriveType getDriveType() {
+        return driveType;
+    }
+
+    // ----APPROACH----
+
+    /**
+     * <p>Checks whether the robot is close enough to the target for the controller to take over.</p>
+     * @param pose The current pose of the robot.
+     * @param target The last point of the path.
+     * */
+    public boolean isWithinHandover(Pose2D pose, Point target) {
+        return target.getDistanceFrom(pose) <= handoverRadius;
+    }
+
+    /**
+     * <p>
+     *     Calculates the drive command towards the target and updates the settle detection.
+     *     The command follows the {@link VectorInterpreter#process(Pose2D)} standard.
+     *     The x and y components are the field-relative translation scaled to the allowed power
+     *     and the heading component is the output of the heading controller.
+     * </p>
+     * @param pose The current pose of the robot.
+     * @param target The last point of the path.
+     * @param endHeading The heading the robot should end at in Radians or {@link Double#NaN} if any heading is acceptable.
+     * @return The drive command.
+     * */
+    public Pose2D calculate(Pose2D pose, Point target, double endHeading) {
+        isActive = true;
+        velocityEstimator.update(pose.getX(), pose.getY(), pose.getTheta());
+        double linearVelocity = velocityEstimator.getSpeed();
+        double angularVelocity = velocityEstimator.getAngularVelocity();
+
+        double deltaX = target.getX() - pose.getX();
+        double deltaY = target.getY() - pose.getY();
+        double distance = Math.hypot(deltaX, deltaY);
+
+        boolean hasEndHeading = !Double.isNaN(endHeading);
+        double endHeadingError = hasEndHeading ? wrap(endHeading - pose.getTheta()) : 0;
+        boolean isInPosition = distance < positionTolerance;
+
+        dbgDistanceError = distance;
+        dbgHeadingError = endHeadingError;
+
+        isSettled = isInPosition &&
+                Math.abs(endHeadingError) < headingTolerance &&
+                linearVelocity < velocityTolerance &&
+                Math.abs(angularVelocity) < angularVelocityTolerance;
+
+        double power = 0;
+        if (!isInPosition) {
+            power = MathUtil.clamp(0, allowedPower(distance), translationalController.update(distance));
+        }
+
+        double x = distance == 0 ? 0 : deltaX / distance * power;
+        double y = distance == 0 ? 0 : deltaY / distance * power;
+
+        double headingOutput;
+        if (driveType == DriveType.TANK && !isInPosition) {
+            // A differential drivetrain can only approach the point by facing it.
+            headingOutput = headingController.update(wrap(Math.atan2(deltaY, deltaX) - pose.getTheta()));
+        } else {
+            headingOutput = hasEndHeading ? headingController.update(endHeadingError) : 0;
+        }
+
+        return new Pose2D(x, y, headingOutput);
+    }
+
+    /**
+     * <p>Checks whether the position, heading and velocity thresholds were all met on the last calculation.</p>
+     * */
+    public boolean isSettled() {
+        return isSettled;
+    }
+
+    /** @return The estimated linear speed of the robot in distance units per second.*/
+    public double getLinearVelocity() {
+        return velocityEstimator.getSpeed();
+    }
+
+    /** @return The estimated angular velocity of the robot in Radians per second.*/
+    public double getAngularVelocity() {
+        return velocityEstimator.getAngularVelocity();
+    }
+
+    /**
+     * <p>Resets the controllers and the settle detection in order for the approach to be reused.</p>
+     * */
+    public void reset() {
+        translationalController.resetIntegralSum();
+        headingController.resetIntegralSum();
+        velocityEstimator.reset();
+        isSettled = false;
+        isActive = false;
+    }
+
+    /**
+     * <p>Calculates the maximum power that still allows the robot to stop at the point.</p>
+     * */
+    private double allowedPower(double distance) {
+        if (maxVelocity == 0 || maxDeceleration == 0) return 1;
+        return Math.min(1, Math.sqrt(2 * maxDeceleration * distance) / maxVelocity);
+    }
+
+    private static double wrap(double angle) {
+        return Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(angle), 0));
+    }
+
+    // ----DEBUG METHODS----
+
+    /**
+     * <p>
+     *    Attaches a logger to this instance to record debug values.
+     * <p/>
+     * */
+    public void attachLogger(Logger l) {
+        logger = l;
+        if (l == null) return;
+
+        systemChannel = l.registerChannel(SYSTEM_NAME);
+        distanceErrorChannel = l.registerChannel("Approach Distance Error");
+        headingErrorChannel = l.registerChannel("Approach Heading Error");
+        velocityChannel = l.registerChannel("Approach Velocity");
+        angularVelocityChannel = l.registerChannel("Approach Angular Velocity");
+        settledChannel = l.registerChannel("Is Settled");
+    }
+
+    /**
+     * <p>
+     *    Runs the debug actions, such as logging, of this system.
+     *    The approach values are only logged once the controller has taken over,
+     *    so the first {@code Is Settled} entry of an approach marks its start.
+     * <p/>
+     * */
+    public void debug() {
+        if (logger == null) return;
+
+        logger.logValue(systemChannel, SYSTEM_VERSION);
+        if (!isActive) return;
+
+        logger.logValue(distanceErrorChannel, dbgDistanceError);
+        logger.logValue(headingErrorChannel, dbgHeadingError);
+        logger.logValue(velocityChannel, velocityEstimator.getSpeed());
+        logger.logValue(angularVelocityChannel, velocityEstimator.getAngularVelocity());
+        logger.logValue(settledChannel, isSettled);
+    }
+}
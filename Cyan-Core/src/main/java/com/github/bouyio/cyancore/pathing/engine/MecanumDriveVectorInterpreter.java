@@ -1,16 +1,20 @@
 package com.github.bouyio.cyancore.pathing.engine;
 
-import com.github.bouyio.cyancore.debugger.DebugPacket;
 import com.github.bouyio.cyancore.debugger.Loggable;
 import com.github.bouyio.cyancore.debugger.Logger;
-import com.github.bouyio.cyancore.debugger.formating.Identifier;
+import com.github.bouyio.cyancore.geomery.Point;
 import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.geomery.Transform2D;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.util.MathUtil;
+import com.github.bouyio.cyancore.util.PIDController;
 
 import java.util.function.DoubleSupplier;
 
 /**
  * <p>
  *     This class is a bridge between the PathFollower and any Mecanum drivetrain.
+ *     Translates field-centrically while rotating according to the selected {@link HeadingMode}.
  *     Also supports the standardised debugging interface of the Loggable System.
  * </p>
  * @see VectorInterpreter
@@ -26,17 +30,50 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
         public final int sign;
     }
 
+    /**
+     * <p>The source of the rotation of the drivetrain.</p>
+     * <ul>
+     *     <li>
+     *         {@code NONE} - Does not rotate the robot while following, as the interpreter did before heading modes
+     *         were added, but applies the heading output of {@link FinalApproachController} so end headings are reached.
+     *     </li>
+     *     <li>{@code FOLLOW_COMMAND} - Uses the heading component of the processed pose, e.g. the steering output of the follower.</li>
+     *     <li>{@code FACE_POINT} - Keeps the robot facing a target point while driving.</li>
+     *     <li>{@code HOLD_HEADING} - Keeps the robot at a fixed heading while driving.</li>
+     * </ul>
+     * */
+    public enum HeadingMode {
+        NONE, FOLLOW_COMMAND, FACE_POINT, HOLD_HEADING
+    }
+
     private Logger logger = null;
+    private int systemChannel;
+    private int leftFrontPowerChannel;
+    private int leftBackPowerChannel;
+    private int rightFrontPowerChannel;
+    private int rightBackPowerChannel;
+    private int xPowerChannel;
+    private int yPowerChannel;
+    private int rotationPowerChannel;
+    private int headingModeChannel;
 
     private double[] motorInputs = new double[] {0, 0, 0, 0};
 
     private double dbgXPower = 0;
     private double dbgYPower = 0;
+    private double dbgRotationPower = 0;
 
 
     private final MecanumReverseSideParameters reverseSide;
 
     private final DoubleSupplier headingProvider;
+    private final Transform2D headingRotation = new Transform2D();
+    private final PositionProvider positionProvider;
+
+    private PIDController headingController = new PIDController(1, 0, 0);
+    private HeadingMode headingMode = HeadingMode.NONE;
+    private Point facedPoint = null;
+    private double heldHeading = 0;
 
     public static final int LEFT_FRONT_MOTOR_ID = 0;
     public static final int LEFT_BACK_MOTOR_ID = 1;
@@ -46,20 +83,50 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
     // ----SYSTEM VERSION INFO----
 
     private final String SYSTEM_NAME = "MECANUM_VI";
-    private final String SYSTEM_VERSION = "1.2";
+    private final String SYSTEM_VERSION = "1.6";
 
     public String getSystemName() { return SYSTEM_NAME; }
     public String getSystemVersion() { return SYSTEM_VERSION; }
 
     // ----CONSTRUCTORS----
+    /**
+     * <p>
+     *     Creates an instance of the system with specified options.
+     *     The heading of the robot is read from the pose of the localization system,
+     *     so no additional sensor reads are needed.
+     * </p>
+     * @param positionProvider The robot's localization system.
+     * @param reverseSide The side of the drivetrain whose motors are set to {@code REVERSE}
+     * */
+    public MecanumDriveVectorInterpreter(PositionProvider positionProvider, MecanumReverseSideParameters reverseSide) {
+        this.positionProvider = positionProvider;
+        this.headingProvider = () -> positionProvider.getPose().getTheta();
+        this.reverseSide = reverseSide;
+    }
+
+    /**
+     * <p>
+     *     Creates an instance of the system with specified options and default reverse side: {@code LEFT}.
+     *     The heading of the robot is read from the pose of the localization system.
+     * </p>
+     * @param positionProvider The robot's localization system.
+     * */
+    public MecanumDriveVectorInterpreter(PositionProvider positionProvider) {
+        this(positionProvider, MecanumReverseSideParameters.LEFT);
+    }
+
     /**
      * <p>
      *     Creates an instance of the system with specified options.
      * </p>
      * @param headingProvider The object updating the heading of the robot
      * @param reverseSide The side of the drivetrain whose motors are set to {@code REVERSE}
+     * @deprecated Reads the heading separately from the localization system and cannot face points.
+     * Use {@link #MecanumDriveVectorInterpreter(PositionProvider, MecanumReverseSideParameters)} instead.
      * */
+    @Deprecated
     public MecanumDriveVectorInterpreter(DoubleSupplier headingProvider, MecanumReverseSideParameters reverseSide) {
+        this.positionProvider = null;
         this.headingProvider = headingProvider;
         this.reverseSide = reverseSide;
     }
@@ -69,43 +136,138 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
      *     Creates an instance of the system with specified options and default reverse side: {@code LEFT}.
      * </p>
      * @param headingProvider The object updating the heading of the robot
+     * @deprecated Reads the heading separately from the localization system and cannot face points.
+     * Use {@link #MecanumDriveVectorInterpreter(PositionProvider)} instead.
      * */
+    @Deprecated
     public MecanumDriveVectorInterpreter(DoubleSupplier headingProvider) {
         this(headingProvider, MecanumReverseSideParameters.LEFT);
     }
 
+    // ----HEADING MODES----
+
+    /**
+     * <p>Sets the controller used for the {@code FACE_POINT} and {@code HOLD_HEADING} modes.</p>
+     * @param controller The heading controller.
+     * */
+    public void setHeadingController(PIDController controller) {
+        if (controller == null) {
+            throw new IllegalArgumentException("Heading controller cannot be null");
+        }
+        headingController = controller;
+    }
+
+    /**
+     * <p>
+     *     Stops rotating the robot; only the translation of the processed pose is driven, except for the commands of
+     *     {@link #processPower(Pose2D)} which keep their heading component. This is the default mode.
+     * </p>
+     * */
+    public void disableHeadingControl() {
+        headingMode = HeadingMode.NONE;
+    }
+
+    /**
+     * <p>
+     *     Rotates the robot using the heading component of the processed pose, such as the steering output of
+     *     {@link PathFollower} or the heading output of {@link FinalApproachController}.
+     * </p>
+     * */
+    public void followCommandedHeading() {
+        headingMode = HeadingMode.FOLLOW_COMMAND;
+    }
+
+    /**
+     * <p>Keeps the robot facing the given point while driving.</p>
+     * @param point The point to be faced in the unit of measurement of the localization system.
+     * @throws IllegalStateException If the system was created without a localization system.
+     * */
+    public void facePoint(Point point) {
+        if (positionProvider == null) {
+            throw new IllegalStateException("Facing a point requires a PositionProvider");
+        }
+        if (point == null) {
+            throw new IllegalArgumentException("Point cannot be null");
+        }
+        if (headingMode != HeadingMode.FACE_POINT) headingController.resetIntegralSum();
+        facedPoint = point;
+        headingMode = HeadingMode.FACE_POINT;
+    }
+
+    /**
+     * <p>Keeps the robot at the given heading while driving.</p>
+     * @param heading The heading to be held in Radians.
+     * */
+    public void holdHeading(double heading) {
+        if (headingMode != HeadingMode.HOLD_HEADING) headingController.resetIntegralSum();
+        heldHeading = heading;
+        headingMode = HeadingMode.HOLD_HEADING;
+    }
+
+    /** @return The currently selected heading mode.*/
+    public HeadingMode getHeadingMode() {
+        return headingMode;
+    }
+
     /**
      * <p>
      *     Uses the error from the target to calculate the power to be applied to each motor.
      *     The drive to {@code desiredPose} function uses field-centric drive.
+     *     The translation is always driven at full power and the rotation is added on top of it
+     *     according to the selected {@link HeadingMode}.
      * </p>
      * */
     @Override
     public void process(Pose2D desiredPose) {
+        drive(desiredPose, false);
+    }
+
+    /**
+     * <p>
+     *     Same as {@link #process(Pose2D)}, but the translation keeps its magnitude up to full power,
+     *     so decelerating commands of {@link FinalApproachController} reach the wheels.
+     *     In the {@code NONE} heading mode the heading component of the command is applied as well,
+     *     so the end heading of a path is reached without selecting a heading mode. The other modes keep
+     *     controlling the rotation, so a held or faced heading should agree with the end heading of the path.
+     * </p>
+     * */
+    @Override
+    public void processPower(Pose2D command) {
+        drive(command, true);
+    }
+
+    private void drive(Pose2D desiredPose, boolean isPowerCommand) {
         double heading = headingProvider.getAsDouble();
+        double rotation = calculateRotation(desiredPose, heading, isPowerCommand);
 
         double euclideanError = Math.hypot(desiredPose.getY(), desiredPose.getX());
-        euclideanError = euclideanError == 0 ? 1 : euclideanError;
+        if (isPowerCommand) {
+            euclideanError = Math.max(euclideanError, 1);
+        } else {
+            euclideanError = euclideanError == 0 ? 1 : euclideanError;
+        }
 
         double normalizedX = desiredPose.getX() / euclideanError;
         double normalizedY = desiredPose.getY() / euclideanError;
 
 
-        double rotY = normalizedX * Math.cos(heading) - normalizedY * Math.sin(heading);
-        double rotX = normalizedX * Math.sin(heading) + normalizedY * Math.cos(heading);
+        // The field-centric command is rotated into the frame of the robot: x forward, y to the left.
+        headingRotation.setRotation(heading);
+        double forward = headingRotation.inverseRotateX(normalizedX, normalizedY);
+        double strafe = headingRotation.inverseRotateY(normalizedX, normalizedY);
 
-        rotX *= 1.1;
+        strafe *= 1.1;
 
-        normalizedX = rotX;
-        normalizedY = rotY;
+        dbgYPower = forward;
+        dbgXPower = strafe;
+        dbgRotationPower = rotation;
 
-        dbgYPower = normalizedY;
-        dbgXPower = normalizedX;
-
-        motorInputs[LEFT_FRONT_MOTOR_ID] = (normalizedY  + normalizedX) * reverseSide.sign;
-        motorInputs[LEFT_BACK_MOTOR_ID] = (normalizedY  - normalizedX) * reverseSide.sign;
-        motorInputs[RIGHT_FRONT_MOTOR_ID] = (normalizedY  - normalizedX) * reverseSide.sign;
-        motorInputs[RIGHT_BACK_MOTOR_ID] = (normalizedY + normalizedX) * reverseSide.sign;
+        // A positive strafe moves the robot to the left and a positive rotation speeds up the right side,
+        // turning the robot counterclockwise, matching the localization systems.
+        motorInputs[LEFT_FRONT_MOTOR_ID] = (forward - strafe - rotation) * reverseSide.sign;
+        motorInputs[LEFT_BACK_MOTOR_ID] = (forward + strafe - rotation) * reverseSide.sign;
+        motorInputs[RIGHT_FRONT_MOTOR_ID] = (forward + strafe + rotation) * reverseSide.sign;
+        motorInputs[RIGHT_BACK_MOTOR_ID] = (forward - strafe + rotation) * reverseSide.sign;
 
         double max = 1;
         for (double motorInput : motorInputs) {
@@ -118,6 +280,38 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
         motorInputs[RIGHT_BACK_MOTOR_ID] /= max;
     }
 
+    /**
+     * <p>
+     *     Calculates the rotation power of the drivetrain using the selected heading mode.
+     *     Like the headings of the localization systems, a positive rotation is counterclockwise.
+     * </p>
+     * @param desiredPose The processed pose.
+     * @param heading The current heading of the robot in Radians.
+     * @param isPowerCommand Whether the pose was given to {@link #processPower(Pose2D)}.
+     * @return The rotation power.
+     * */
+    private double calculateRotation(Pose2D desiredPose, double heading, boolean isPowerCommand) {
+        switch (headingMode) {
+            case FACE_POINT:
+                Pose2D pose = positionProvider.getPose();
+                double bearing = Math.atan2(
+                        facedPoint.getY() - pose.getY(),
+                        facedPoint.getX() - pose.getX());
+                return headingController.update(wrapAngle(bearing - heading)) / Math.PI;
+            case HOLD_HEADING:
+                return headingController.update(wrapAngle(heldHeading - heading)) / Math.PI;
+            case FOLLOW_COMMAND:
+                return desiredPose.getTheta() / Math.PI;
+            case NONE:
+            default:
+                return isPowerCommand ? desiredPose.getTheta() / Math.PI : 0;
+        }
+    }
+
+    private static double wrapAngle(double angle) {
+        return Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(angle), 0));
+    }
+
     /**
      * <p>
      *     Stops the drivetrains - Sets the power to be applied to each motor to 0.
@@ -161,6 +355,17 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
     @Override
     public void attachLogger(Logger logger) {
         this.logger = logger;
+        if (logger == null) return;
+
+        systemChannel = logger.registerChannel(SYSTEM_NAME);
+        leftFrontPowerChannel = logger.registerChannel("Left Front Power");
+        leftBackPowerChannel = logger.registerChannel("Left Back Power");
+        rightFrontPowerChannel = logger.registerChannel("Right Front Power");
+        rightBackPowerChannel = logger.registerChannel("Right Back Power");
+        xPowerChannel = logger.registerChannel("X power");
+        yPowerChannel = logger.registerChannel("Y power");
+        rotationPowerChannel = logger.registerChannel("Rotation power");
+        headingModeChannel = logger.registerChannel("Heading Mode");
     }
 
     /**
@@ -172,13 +377,15 @@ public class MecanumDriveVectorInterpreter implements VectorInterpreter, Loggabl
     @Override
     public void log() {
         if (logger != null) {
-            logger.record(new DebugPacket<>(new Identifier(SYSTEM_NAME), SYSTEM_VERSION));
-            logger.logValue("Left Front Power", motorInputs[LEFT_FRONT_MOTOR_ID]);
-            logger.logValue("Left Back Power", motorInputs[LEFT_BACK_MOTOR_ID]);
-            logger.logValue("Right Front Power", motorInputs[RIGHT_FRONT_MOTOR_ID]);
-            logger.logValue("Right Back Power", motorInputs[RIGHT_BACK_MOTOR_ID]);
-            logger.logValue("X power", dbgXPower);
-            logger.logValue("Y power", dbgYPower);
+            logger.logValue(systemChannel, SYSTEM_VERSION);
+            logger.logValue(leftFrontPowerChannel, motorInputs[LEFT_FRONT_MOTOR_ID]);
+            logger.logValue(leftBackPowerChannel, motorInputs[LEFT_BACK_MOTOR_ID]);
+            logger.logValue(rightFrontPowerChannel, motorInputs[RIGHT_FRONT_MOTOR_ID]);
+            logger.logValue(rightBackPowerChannel, motorInputs[RIGHT_BACK_MOTOR_ID]);
+            logger.logValue(xPowerChannel, dbgXPower);
+            logger.logValue(yPowerChannel, dbgYPower);
+            logger.logValue(rotationPowerChannel, dbgRotationPower);
+            logger.logValue(headingModeChannel, headingMode.name());
         }
     }
 }
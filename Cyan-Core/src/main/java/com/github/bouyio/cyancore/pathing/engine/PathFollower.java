@@ -1,10 +1,10 @@
 package com.github.bouyio.cyancore.pathing.engine;
 
-import com.github.bouyio.cyancore.debugger.DebugPacket;
 import com.github.bouyio.cyancore.debugger.Loggable;
-import com.github.bouyio.cyancore.debugger.formating.Identifier;
+import com.github.bouyio.cyancore.debugger.StageTimer;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
 import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.geomery.Transform2D;
 import com.github.bouyio.cyancore.localization.PositionProvider;
 import com.github.bouyio.cyancore.debugger.Logger;
 import com.github.bouyio.cyancore.geomery.Point;
@@ -12,7 +12,6 @@ import com.github.bouyio.cyancore.pathing.Path;
 import com.github.bouyio.cyancore.pathing.PathSequence;
 import com.github.bouyio.cyancore.pathing.PointSequence;
 import com.github.bouyio.cyancore.util.Distance;
-import com.github.bouyio.cyancore.util.MathUtil;
 import com.github.bouyio.cyancore.util.PIDController;
 
 /**
@@ -25,6 +24,25 @@ import com.github.bouyio.cyancore.util.PIDController;
  */
 public class PathFollower {
 
+    // ----STAGES----
+
+    /** The stage of updating the {@link PositionProvider}.*/
+    public static final int STAGE_LOCALIZATION = 0;
+    /** The stage of managing paths, segments and sequences and checking whether they are finished.*/
+    public static final int STAGE_SEGMENT_MANAGEMENT = 1;
+    /** The stage of solving the circle line intersection for the target point.*/
+    public static final int STAGE_INTERSECTION = 2;
+    /** The stage of computing the error to the target point.*/
+    public static final int STAGE_ERROR = 3;
+    /** The stage of the steering {@link PIDController} or the {@link FinalApproachController}.*/
+    public static final int STAGE_PID = 4;
+    /** The stage of the {@link VectorInterpreter}.*/
+    public static final int STAGE_INTERPRETER = 5;
+
+    private static final String[] STAGE_NAMES = {
+            "Localization", "Segment Management", "Intersection", "Error", "PID", "Interpreter"
+    };
+
     // ----SYSTEM COMPONENTS----
 
     PIDController controller;
@@ -32,6 +50,7 @@ public class PathFollower {
     VectorInterpreter vectorInterpreter;
 
     CircleLineIntersectionCalculator cliCalc;
+    FinalApproachController finalApproach;
     private Logger logger;
 
     // ----USER SETTINGS----
@@ -41,12 +60,16 @@ public class PathFollower {
 
     // ---SYSTEM WORKING VARIABLES---
     private double[] motorPowers;
+    private final Transform2D robotToField = new Transform2D();
 
     private boolean isLoggerAttached = false;
+    private Path approachedPath = null;
+
+    private StageTimer stageTimer = null;
 
     // ----SYSTEM VERSION INFO---
 
-    private final String SYSTEM_VERSION = "2.2";
+    private final String SYSTEM_VERSION = "2.3";
     private final String SYSTEM_NAME = "PATH_FOLLOWER";
     public String getSystemVersion() {return SYSTEM_VERSION;}
     public String getSystemName() {return SYSTEM_NAME;}
@@ -57,7 +80,17 @@ public class PathFollower {
 
     private double dbgDistanceToPoint = 0;
     private double dbgAngleError = 0;
-    private String dbgTargetPoint = "";
+    private double dbgTargetX = 0;
+    private double dbgTargetY = 0;
+
+    private int debugSamplingDivisor = 1;
+    private long debugCalls = 0;
+
+    private int systemChannel;
+    private int targetXChannel;
+    private int targetYChannel;
+    private int distanceToPointChannel;
+    private int headingErrorChannel;
 
     // ----CONSTRUCTORS----
 
@@ -91,6 +124,20 @@ public class PathFollower {
         cliCalc = new CircleLineIntersectionCalculator(posProvider, lookAheadDistance, admissibleError);
     }
 
+    /**
+     * <p>
+     *     Sets up a {@link FinalApproachController} that takes over {@link Path} following once the robot is
+     *     on the last segment and inside the handover radius of the last point.
+     *     While it is set up, paths are finished only once the approach has settled.
+     * <p/>
+     * @param controller The final approach controller or null to disable the final approach.
+     * */
+    public void finalApproachSetUp(FinalApproachController controller) {
+        finalApproach = controller;
+        approachedPath = null;
+        if (finalApproach != null && isLoggerAttached) finalApproach.attachLogger(logger);
+    }
+
     /**
      * <p>Sets the minimum admissible error. It is used to determine sequence point switching and point arrival.<p/>
      * */
@@ -99,12 +146,40 @@ public class PathFollower {
     }
 
     /**
-     * <p>Sets the unit of measurement used by the follower. Required for conversions of {@link SmartPoint}.<p/>
+     * <p>
+     *     Sets the unit of measurement used by the follower. Required for conversions of {@link SmartPoint} and
+     *     of paths and sequences declared in another unit, which are converted once when first followed.
+     * <p/>
      * */
     public void setDistanceUnitOfMeasurement(Distance.DistanceUnit unit) {
         distanceUnitOfMeasurement = unit;
     }
 
+    /**
+     * <p>
+     *     Enables or disables the timing of the stages of every following call. While enabled, the time spent in
+     *     each stage is recorded in nanoseconds and can be read through {@link #getStageTimer()}.
+     *     The localization updates performed inside the encapsulated systems are counted in their own stage.
+     * <p/>
+     * @param enabled Whether the stages are timed.
+     * @see #STAGE_LOCALIZATION
+     * */
+    public void setStageTimingEnabled(boolean enabled) {
+        if (!enabled) {
+            stageTimer = null;
+            return;
+        }
+        if (stageTimer != null) return;
+
+        stageTimer = new StageTimer(STAGE_NAMES);
+        if (isLoggerAttached) stageTimer.attachLogger(logger);
+    }
+
+    /** @return The timer of the following stages or null if stage timing is disabled.*/
+    public StageTimer getStageTimer() {
+        return stageTimer;
+    }
+
     // ----POINT/SEQUENCE/PATH FOLLOWING----
 
     /**
@@ -124,25 +199,27 @@ public class PathFollower {
             throw new IllegalArgumentException("Point cannot be null");
         }
 
-        posProvider.update();
+        enterStage(STAGE_ERROR);
+        updatePosition();
 
         // Optimized: Cache pose to avoid multiple calls
         Pose2D currentPose = posProvider.getPose();
-        Pose2D pointCoords = point.getAsPose();
 
-        double deltaX = pointCoords.getX() - currentPose.getX();
-        double deltaY = pointCoords.getY() - currentPose.getY();
+        double deltaX = point.getX() - currentPose.getX();
+        double deltaY = point.getY() - currentPose.getY();
 
         // Optimized: Use Math.hypot for better numerical stability
         double distanceToPoint = Math.hypot(deltaX, deltaY);
-        double angleError = Math.atan2(deltaY, deltaX) - currentPose.getTheta();
-        angleError = Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(angleError), 0));
+        // The bearing of the point in the frame of the robot, rotated like the vector interpreters.
+        robotToField.setRotation(currentPose.getTheta());
+        double angleError = Math.atan2(robotToField.inverseRotateY(deltaX, deltaY),
+                robotToField.inverseRotateX(deltaX, deltaY));
 
         // Store debug values
         dbgDistanceToPoint = distanceToPoint;
         dbgAngleError = angleError;
 
-        return new Pose2D(deltaX, deltaY, angleError);
+        return Pose2D.unchecked(deltaX, deltaY, angleError);
     }
 
     /**
@@ -168,8 +245,10 @@ public class PathFollower {
         double x = error.getX() / denominator;
         double y = error.getY() / denominator;
 
+        enterStage(STAGE_PID);
         double steeringPIDOut = controller.update(error.getTheta());
 
+        enterStage(STAGE_INTERPRETER);
         vectorInterpreter.process(new Pose2D(x, y, steeringPIDOut));
         motorPowers = vectorInterpreter.getMotorInputs();
     }
@@ -188,20 +267,27 @@ public class PathFollower {
      * @implNote Calls {@link PositionProvider#update()}.
      * */
     public boolean followPointSequence(PointSequence seq) {
+        beginStages(STAGE_SEGMENT_MANAGEMENT);
+        try {
+            return runPointSequenceStep(seq);
+        } finally {
+            endStages();
+        }
+    }
+
+    private boolean runPointSequenceStep(PointSequence seq) {
 
         if (seq == null) return false;
 
+        seq.setFollowingUnit(distanceUnitOfMeasurement);
         Point currentPoint = seq.getCurrentPoint();
         double error = Math.hypot(
                 calculatePointError(currentPoint).getX(),
                 calculatePointError(currentPoint).getY());
 
+        enterStage(STAGE_SEGMENT_MANAGEMENT);
         if (error < distanceErrorTolerance) {
             currentPoint = seq.nextPoint();
-
-            if (seq.getUnitOfMeasurement() != null && distanceUnitOfMeasurement != null) {
-                currentPoint = convertToLocalUnit(currentPoint, seq.getUnitOfMeasurement());
-            }
         }
 
         if (currentPoint == null) return false;
@@ -225,13 +311,24 @@ public class PathFollower {
      *
      * */
     public void followPoint(Point point) {
-        posProvider.update();
+        beginStages(STAGE_ERROR);
+        try {
+            runPointStep(point);
+        } finally {
+            endStages();
+        }
+    }
+
+    private void runPointStep(Point point) {
+        updatePosition();
         if (point == null || point.getDistanceFrom(posProvider.getPose()) < distanceErrorTolerance) {
+            enterStage(STAGE_INTERPRETER);
             vectorInterpreter.stop();
             motorPowers = vectorInterpreter.getMotorInputs();
             return;
         }
-        dbgTargetPoint = point.toString();
+        dbgTargetX = point.getX();
+        dbgTargetY = point.getY();
 
         calculatePowers(point);
     }
@@ -254,31 +351,106 @@ public class PathFollower {
      * @param path The path to be followed.
      */
     public void followPath(Path path) {
+        beginStages(STAGE_SEGMENT_MANAGEMENT);
+        try {
+            runPathStep(path);
+        } finally {
+            endStages();
+        }
+    }
+
+    private void runPathStep(Path path) {
         if (cliCalc == null || path == null) return;
 
+        path.setFollowingUnit(distanceUnitOfMeasurement);
         path.setMinimumPathError(distanceErrorTolerance);
+        path.setSettleDetectionEnabled(finalApproach != null);
 
         cliCalc.setTargetPath(path);
 
-        Point targetPoint = cliCalc.getTargetPoint();
-
-        if (path.getDistanceUnitOfMeasurement() != null && distanceUnitOfMeasurement != null) {
-            targetPoint = convertToLocalUnit(targetPoint, path.getDistanceUnitOfMeasurement());
+        if (finalApproach != null && shouldFollowFinalApproach(path)) {
+            followFinalApproach(path);
+            return;
         }
+        approachedPath = null;
 
-        posProvider.update();
+        enterStage(STAGE_INTERSECTION);
+        Point targetPoint = cliCalc.getTargetPoint();
+
+        enterStage(STAGE_SEGMENT_MANAGEMENT);
+        updatePosition();
 
         if (path.isPathFinished(posProvider.getPose()) || targetPoint == null) {
+            enterStage(STAGE_INTERPRETER);
             vectorInterpreter.stop();
             motorPowers = vectorInterpreter.getMotorInputs();
             return;
         }
 
-        dbgTargetPoint = targetPoint.toString();
+        dbgTargetX = targetPoint.getX();
+        dbgTargetY = targetPoint.getY();
 
         calculatePowers(targetPoint);
     }
 
+    /**
+     * <p>Checks whether the final approach should take over the following of the given path.<p/>
+     * @implNote Calls {@link PositionProvider#update()}.
+     * */
+    private boolean shouldFollowFinalApproach(Path path) {
+        if (!path.isOnLastSegment()) return false;
+
+        updatePosition();
+        return approachedPath == path || finalApproach.isWithinHandover(posProvider.getPose(), path.getLastPoint());
+    }
+
+    /**
+     *
+     * <p>
+     *     Drives the robot onto the last point of the path using the {@link FinalApproachController}.
+     *     Once the approach has settled, the path is marked as finished and the drivetrain is stopped.
+     * <p/>
+     *
+     * @param path The path whose last point is approached.
+     * @implNote Calls {@link PositionProvider#update()}.
+     * */
+    private void followFinalApproach(Path path) {
+        if (approachedPath != path) {
+            finalApproach.reset();
+            approachedPath = path;
+        }
+
+        updatePosition();
+        Pose2D currentPose = posProvider.getPose();
+
+        if (path.isPathFinished(currentPose)) {
+            enterStage(STAGE_INTERPRETER);
+            vectorInterpreter.stop();
+            motorPowers = vectorInterpreter.getMotorInputs();
+            return;
+        }
+
+        Point lastPoint = path.getLastPoint();
+        enterStage(STAGE_PID);
+        Pose2D command = finalApproach.calculate(currentPose, lastPoint, path.getEndHeading());
+
+        if (finalApproach.isSettled()) {
+            path.markSettled();
+            enterStage(STAGE_INTERPRETER);
+            vectorInterpreter.stop();
+            motorPowers = vectorInterpreter.getMotorInputs();
+            return;
+        }
+
+        dbgTargetX = lastPoint.getX();
+        dbgTargetY = lastPoint.getY();
+        dbgDistanceToPoint = lastPoint.getDistanceFrom(currentPose);
+
+        enterStage(STAGE_INTERPRETER);
+        vectorInterpreter.processPower(command);
+        motorPowers = vectorInterpreter.getMotorInputs();
+    }
+
     /**
      *
      * <p>
@@ -313,12 +485,22 @@ public class PathFollower {
      * @implNote Calls {@link PositionProvider#update()}.
      * */
     public boolean followPathSequence(PathSequence seq) {
+        beginStages(STAGE_SEGMENT_MANAGEMENT);
+        try {
+            return runPathSequenceStep(seq);
+        } finally {
+            endStages();
+        }
+    }
+
+    private boolean runPathSequenceStep(PathSequence seq) {
 
         if (seq == null) return false;
 
         Path currentPath = seq.nextPathUpdate();
 
         if (currentPath == null) {
+            enterStage(STAGE_INTERPRETER);
             vectorInterpreter.stop();
             return false;
         }
@@ -327,24 +509,28 @@ public class PathFollower {
         return true;
     }
 
-    /**
-     *
-     * <p>
-     *     Converts the coordinates of a given point to a given distance unit.
-     * </p>
-     *
-     * @param point The given point.
-     * @param unit The given distance unit.
-     * */
-    private Point convertToLocalUnit(Point point, Distance.DistanceUnit unit) {
-        SmartPoint conversionPoint = new SmartPoint(
-                unit,
-                point.getCoordinates().getCartesianX(),
-                point.getCoordinates().getCartesianY());
+    // ----STAGE TIMING----
+
+    private void beginStages(int stage) {
+        if (stageTimer != null) stageTimer.beginCycle(stage);
+    }
+
+    private void endStages() {
+        if (stageTimer != null) stageTimer.endCycle();
+    }
 
-        return conversionPoint.getAsPoint(distanceUnitOfMeasurement);
+    private int enterStage(int stage) {
+        return stageTimer == null ? stage : stageTimer.enter(stage);
     }
 
+    /**
+     * <p>Updates the {@link PositionProvider}, counting the time in the localization stage.<p/>
+     * */
+    private void updatePosition() {
+        final int previousStage = enterStage(STAGE_LOCALIZATION);
+        posProvider.update();
+        enterStage(previousStage);
+    }
 
     // ----DEBUG METHODS----
 
@@ -357,25 +543,55 @@ public class PathFollower {
      * */
     public void attachLogger(Logger logger) {
         this.logger = logger;
-        isLoggerAttached = true;
+        isLoggerAttached = logger != null;
         if (cliCalc != null) cliCalc.attachLogger(logger);
+        if (finalApproach != null) finalApproach.attachLogger(logger);
         if (vectorInterpreter instanceof Loggable) ((Loggable) vectorInterpreter).attachLogger(logger);
+        if (stageTimer != null) stageTimer.attachLogger(logger);
+        if (logger == null) return;
+
+        systemChannel = logger.registerChannel(SYSTEM_NAME);
+        targetXChannel = logger.registerChannel("TargetPoint X");
+        targetYChannel = logger.registerChannel("TargetPoint Y");
+        distanceToPointChannel = logger.registerChannel("robotDistanceToPoint");
+        headingErrorChannel = logger.registerChannel("robotHeadingError");
+    }
+
+    /**
+     * <p>
+     *    Sets how often the debug actions actually run. With a divisor of N only every Nth call of
+     *    {@link #debug()} logs, including the encapsulated systems.
+     * <p/>
+     * @param divisor The sampling divisor; 1 logs on every call.
+     * */
+    public void setDebugSamplingDivisor(int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Debug sampling divisor must be positive");
+        }
+        debugSamplingDivisor = divisor;
     }
 
     /**
      * <p>
      *    Runs the debug actions, such as logging, of this system and the encapsulated systems within it.
+     *    The values are captured as primitives while following and are only formatted when the logger is exported.
      * <p/>
+     * @see #setDebugSamplingDivisor(int)
      * */
     public void debug() {
+        if (debugCalls++ % debugSamplingDivisor != 0) return;
+
         if (isLoggerAttached) {
             if (vectorInterpreter instanceof Loggable) ((Loggable) vectorInterpreter).log();
-            logger.record(new DebugPacket<>(new Identifier(SYSTEM_NAME), SYSTEM_VERSION));
-            logger.logValue("TargetPoint", dbgTargetPoint);
-            logger.logValue("robotDistanceToPoint", dbgDistanceToPoint);
-            logger.logValue("robotHeadingError", dbgAngleError);
+            logger.logValue(systemChannel, SYSTEM_VERSION);
+            logger.logValue(targetXChannel, dbgTargetX);
+            logger.logValue(targetYChannel, dbgTargetY);
+            logger.logValue(distanceToPointChannel, dbgDistanceToPoint);
+            logger.logValue(headingErrorChannel, dbgAngleError);
 
             if (cliCalc != null) cliCalc.debug();
+            if (finalApproach != null) finalApproach.debug();
+            if (stageTimer != null) stageTimer.debug();
         }
     }
 }
@@ -0,0 +1,191 @@
+package com.github.bouyio.cyancore.pathing.engine;
+
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+import com.github.bouyio.cyancore.util.FeedforwardCoefficients;
+import com.github.bouyio.cyancore.util.MathUtil;
+import com.github.bouyio.cyancore.util.MotionProfile;
+import com.github.bouyio.cyancore.util.PIDController;
+
+/**
+ * <p>
+ *     Drives a single axis, such as the distance travelled along a path segment, through a {@link MotionProfile}.
+ *     The output is the feedforward {@code kS·sgn(v) + kV·v + kA·a} of the target motion plus the output
+ *     of a {@link PIDController} on the position error, so the feedback only has to correct the
+ *     deviations from the model instead of producing the whole command.
+ * </p>
+ * <p>
+ *     When a profile is started the feedforward is evaluated once for every sample of the profile and
+ *     stored in a lookup table, which is then interpolated on every update.
+ * </p>
+ * @see FeedforwardCoefficients
+ * */
+public class ProfiledDriveController {
+
+    private final FeedforwardCoefficients feedforwardCoefficients;
+    private final PIDController positionController;
+    private Clock clock;
+
+    // ---SYSTEM WORKING VARIABLES---
+
+    private MotionProfile profile = null;
+    private double[] feedforwardTable = new double[0];
+    private long startTime = 0;
+
+    // ----SYSTEM VERSION INFO---
+
+    private final String SYSTEM_VERSION = "1.0";
+    private final String SYSTEM_NAME = "PROFILED_DRIVE_CONTROLLER";
+    public String getSystemVersion() {return SYSTEM_VERSION;}
+    public String getSystemName() {return SYSTEM_NAME;}
+
+    // ----DEBUG FIELDS----
+    private Logger logger = null;
+    private double dbgTargetPosition = 0;
+    private double dbgFeedforward = 0;
+    private double dbgFeedback = 0;
+
+    private int systemChannel;
+    private int targetPositionChannel;
+    private int feedforwardChannel;
+    private int feedbackChannel;
+
+    /**
+     * <p>Creates a controller timed by the given clock.</p>
+     * @param feedforwardCoefficients The coefficients of the feedforward model.
+     * @param positionController The controller correcting the position error.
+     * @param clock The clock.
+     * */
+    public ProfiledDriveController(
+            FeedforwardCoefficients feedforwardCoefficients,
+            PIDController positionController,
+            Clock clock
+    ) {
+        if (feedforwardCoefficients == null || positionController == null) {
+            throw new IllegalArgumentException("Feedforward coefficients and position controller cannot be null");
+        }
+        this.feedforwardCoefficients = feedforwardCoefficients;
+        this.positionController = positionController;
+        setClock(clock);
+    }
+
+    /**
+     * <p>Creates a controller timed by the global clock.</p>
+     * @param feedforwardCoefficients The coefficients of the feedforward model.
+     * @param positionController The controller correcting the position error.
+     * @see Clocks#getGlobalClock()
+     * */
+    public ProfiledDriveController(FeedforwardCoefficients feedforwardCoefficients, PIDController positionController) {
+        this(feedforwardCoefficients, positionController, Clocks.getGlobalClock());
+    }
+
+    /**
+     * <p>Sets the clock used for timing the profile.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    // ----PROFILE FOLLOWING----
+
+    /**
+     * <p>Starts following the given profile from the current time.</p>
+     * @param profile The profile to be followed.
+     * */
+    public void follow(MotionProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Motion profile cannot be null");
+        }
+
+        final int sampleAmount = profile.getSampleAmount();
+        if (feedforwardTable.length != sampleAmount) {
+            feedforwardTable = new double[sampleAmount];
+        }
+        for (int i = 0; i < sampleAmount; i++) {
+            feedforwardTable[i] = feedforwardCoefficients.calculate(
+                    profile.getVelocitySample(i),
+                    profile.getAccelerationSample(i)
+            );
+        }
+
+        this.profile = profile;
+        positionController.resetIntegralSum();
+        startTime = clock.nanoTime();
+    }
+
+    /**
+     * <p>Calculates the power for the current point of the profile.</p>
+     * @param measuredPosition The measured position along the profiled axis, relative to the start of the profile.
+     * @return The power, between -1 and 1.
+     * */
+    public double calculate(double measuredPosition) {
+        if (profile == null) {
+            throw new IllegalStateException("No motion profile is being followed");
+        }
+
+        final double time = getElapsedTime();
+
+        final double targetPosition = profile.getPosition(time);
+        final double feedforward = profile.sample(feedforwardTable, time);
+        final double feedback = positionController.update(targetPosition - measuredPosition);
+
+        dbgTargetPosition = targetPosition;
+        dbgFeedforward = feedforward;
+        dbgFeedback = feedback;
+
+        return MathUtil.clamp(-1, 1, feedforward + feedback);
+    }
+
+    /**
+     * <p>Checks whether the duration of the profile has elapsed. The position may still be settling.</p>
+     * */
+    public boolean isProfileFinished() {
+        return profile == null || getElapsedTime() >= profile.getDuration();
+    }
+
+    /** @return The time since the profile was started in seconds.*/
+    public double getElapsedTime() {
+        return (clock.nanoTime() - startTime) * 1e-9;
+    }
+
+    /** @return The profile being followed or null if none has been started.*/
+    public MotionProfile getProfile() {
+        return profile;
+    }
+
+    // ----DEBUG METHODS----
+
+    /**
+     * <p>
+     *    Attaches a logger to this instance to record debug values.
+     * <p/>
+     * */
+    public void attachLogger(Logger l) {
+        logger = l;
+        if (l == null) return;
+
+        systemChannel = l.registerChannel(SYSTEM_NAME);
+        targetPositionChannel = l.registerChannel("Profile Target Position");
+        feedforwardChannel = l.registerChannel("Profile Feedforward");
+        feedbackChannel = l.registerChannel("Profile Feedback");
+    }
+
+    /**
+     * <p>
+     *    Runs the debug actions, such as logging, of this system.
+     * <p/>
+     * */
+    public void debug() {
+        if (logger == null) return;
+
+        logger.logValue(systemChannel, SYSTEM_VERSION);
+        logger.logValue(targetPositionChannel, dbgTargetPosition);
+        logger.logValue(feedforwardChannel, dbgFeedforward);
+        logger.logValue(feedbackChannel, dbgFeedback);
+    }
+}
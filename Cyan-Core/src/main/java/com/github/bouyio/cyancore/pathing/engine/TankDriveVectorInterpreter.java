@@ -1,9 +1,7 @@
 package com.github.bouyio.cyancore.pathing.engine;
 
-import com.github.bouyio.cyancore.debugger.DebugPacket;
 import com.github.bouyio.cyancore.debugger.Loggable;
 import com.github.bouyio.cyancore.debugger.Logger;
-import com.github.bouyio.cyancore.debugger.formating.Identifier;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.util.MathUtil;
 
@@ -26,6 +24,10 @@ public class TankDriveVectorInterpreter implements VectorInterpreter, Loggable {
     }
 
     private Logger logger = null;
+    private int systemChannel;
+    private int leftPowerChannel;
+    private int rightPowerChannel;
+    private int reverseDriveChannel;
 
     private double leftMotorInput = 0;
     private double rightMotorInput = 0;
@@ -116,6 +118,12 @@ public class TankDriveVectorInterpreter implements VectorInterpreter, Loggable {
     @Override
     public void attachLogger(Logger logger) {
         this.logger = logger;
+        if (logger == null) return;
+
+        systemChannel = logger.registerChannel(SYSTEM_NAME);
+        leftPowerChannel = logger.registerChannel("Left Power");
+        rightPowerChannel = logger.registerChannel("Right Power");
+        reverseDriveChannel = logger.registerChannel("Reverse Drive");
     }
 
     /**
@@ -127,10 +135,10 @@ public class TankDriveVectorInterpreter implements VectorInterpreter, Loggable {
     @Override
     public void log() {
         if (logger != null) {
-            logger.record(new DebugPacket<>(new Identifier(SYSTEM_NAME), SYSTEM_VERSION));
-            logger.logValue("Left Power", leftMotorInput);
-            logger.logValue("Right Power", rightMotorInput);
-            logger.logValue("Reverse Drive", reverseDriveEnabled ? "enabled" : "disabled");
+            logger.logValue(systemChannel, SYSTEM_VERSION);
+            logger.logValue(leftPowerChannel, leftMotorInput);
+            logger.logValue(rightPowerChannel, rightMotorInput);
+            logger.logValue(reverseDriveChannel, reverseDriveEnabled ? "enabled" : "disabled");
         }
 
     }
@@ -19,6 +19,18 @@ public interface VectorInterpreter {
      * */
     void process(Pose2D desiredPose);
 
+    /**
+     * <p>
+     *     Calculates the motor powers for a command that is already expressed as the power to be applied,
+     *     such as the output of {@link FinalApproachController}, so commands below full power are not scaled up.
+     * </p>
+     * <p>Defaults to {@link #process(Pose2D)} for drivetrains that never scale commands up.</p>
+     * @param command The power of the robot in x and y axis as well as its steering power.
+     * */
+    default void processPower(Pose2D command) {
+        process(command);
+    }
+
     /**
      * <p>
      *     Requests the robot to stop any drivetrain movement.
@@ -0,0 +1,551 @@
+package com.github.bouyio.cyancore.simulation;
+
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.GyroTankOdometry;
+import com.github.bouyio.cyancore.localization.MecanumKinematics;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.localization.TankKinematics;
+import com.github.bouyio.cyancore.localization.ThreeDeadWheelOdometry;
+import com.github.bouyio.cyancore.localization.TwoDeadWheelOdometry;
+import com.github.bouyio.cyancore.pathing.engine.ControlLoop;
+import com.github.bouyio.cyancore.pathing.engine.MecanumDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.TankDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.VectorInterpreter;
+import com.github.bouyio.cyancore.util.ManualClock;
+import com.github.bouyio.cyancore.util.MathUtil;
+
+import java.util.Random;
+
+/**
+ * <p>
+ *     A headless simulator of a tank or mecanum drivetrain that runs faster than real time.
+ *     The motor powers, e.g. the output of a {@link VectorInterpreter}, are applied as wheel commands and
+ *     the simulated encoders and gyro are exposed through the measurement providers of the localization systems,
+ *     so the same localization, following and debugging code that runs on the robot can run in the simulation.
+ * <p/>
+ * <p>
+ *     Every wheel follows its command with first-order motor dynamics. The ground under each wheel follows the wheel
+ *     only as fast as the traction allows, so hard accelerations make the wheels slip: the drive encoders measure the
+ *     spinning wheels while the dead wheels and the true pose follow the ground.
+ *     Gaussian noise can be added to the encoders, accumulating like real odometry drift, and to the gyro.
+ * <p/>
+ * <p>
+ *     The simulator is a {@link PositionProvider} reporting the true pose of the robot; {@link #update()} does nothing,
+ *     the simulation only advances with {@link #step()}. Each step also advances the {@link ManualClock} of the simulator,
+ *     which should be injected to every time-dependent system of the simulated robot.
+ * <p/>
+ * <p>
+ *     Poses use the convention of the library: x forward at a heading of 0, y to the left and the heading counterclockwise in Radians.
+ * <p/>
+ * @see ManualClock
+ * */
+public class DrivetrainSimulator implements PositionProvider {
+
+    /**
+     * <p>The simulated drivetrain and the order of its motor powers.</p>
+     * <ul>
+     *     <li>{@code TANK} - Left, right, as in {@link TankDriveVectorInterpreter}.</li>
+     *     <li>{@code MECANUM} - Left front, left back, right front, right back, as in {@link MecanumDriveVectorInterpreter}.</li>
+     * </ul>
+     * */
+    public enum DriveType {
+        TANK(2), MECANUM(4);
+
+        DriveType(int motorAmount) {
+            this.motorAmount = motorAmount;
+        }
+
+        public final int motorAmount;
+    }
+
+    private static final int LEFT = TankDriveVectorInterpreter.LEFT_MOTOR_INDEX_ID;
+    private static final int RIGHT = TankDriveVectorInterpreter.RIGHT_MOTOR_INDEX_ID;
+
+    private static final int LEFT_FRONT = MecanumDriveVectorInterpreter.LEFT_FRONT_MOTOR_ID;
+    private static final int LEFT_BACK = MecanumDriveVectorInterpreter.LEFT_BACK_MOTOR_ID;
+    private static final int RIGHT_FRONT = MecanumDriveVectorInterpreter.RIGHT_FRONT_MOTOR_ID;
+    private static final int RIGHT_BACK = MecanumDriveVectorInterpreter.RIGHT_BACK_MOTOR_ID;
+
+    private final DriveType driveType;
+    private final double trackWidth;
+    private final double maxWheelSpeed;
+
+    private final ManualClock clock;
+    private final Random random;
+
+    // ----USER SETTINGS----
+
+    private double timeStep = 0.005;
+    private double motorTimeConstant = 0.1;
+    private double maxWheelAcceleration = Double.POSITIVE_INFINITY;
+    private double deadWheelWidth;
+    private double ticksToDistance = 1;
+
+    private double encoderNoise = 0;
+    private double gyroNoise = 0;
+    private double gyroDrift = 0;
+
+    // ---SYSTEM WORKING VARIABLES---
+
+    private final double[] motorPowers;
+    private final double[] wheelSpeeds;
+    private final double[] groundSpeeds;
+    private final double[] driveEncoders;
+
+    private double x = 0;
+    private double y = 0;
+    private double theta = 0;
+
+    private double forwardVelocity = 0;
+    private double strafeVelocity = 0;
+    private double angularVelocity = 0;
+
+    private double perpendicularDeadWheel = 0;
+    private double leftParallelDeadWheel = 0;
+    private double rightParallelDeadWheel = 0;
+    private double centerParallelDeadWheel = 0;
+
+    private double gyroHeading = 0;
+    private double gyroError = 0;
+
+    private double elapsedTime = 0;
+
+    private Pose2D currentPose = new Pose2D(0, 0, 0);
+
+    // ----SYSTEM VERSION INFO---
+
+    private final String SYSTEM_VERSION = "1.0";
+    private final String SYSTEM_NAME = "DRIVETRAIN_SIMULATOR";
+    public String getSystemVersion() {return SYSTEM_VERSION;}
+    public String getSystemName() {return SYSTEM_NAME;}
+
+    // ----CONSTRUCTORS----
+
+    /**
+     * <p>Creates a simulator timed by a new {@link ManualClock}, with noise seeded by 0.<p/>
+     * @param driveType The simulated drivetrain.
+     * @param trackWidth The track width, as given to the kinematics of the drivetrain.
+     * @param maxWheelSpeed The free speed of the wheels at full power in distance units per second.
+     * */
+    public DrivetrainSimulator(DriveType driveType, double trackWidth, double maxWheelSpeed) {
+        this(driveType, trackWidth, maxWheelSpeed, new ManualClock(), 0);
+    }
+
+    /**
+     * <p>Creates a simulator.<p/>
+     * @param driveType The simulated drivetrain.
+     * @param trackWidth The track width, as given to the kinematics of the drivetrain.
+     * For tank drivetrains it is the distance between the wheels, for mecanum drivetrains the value
+     * given to {@link MecanumKinematics}.
+     * @param maxWheelSpeed The free speed of the wheels at full power in distance units per second.
+     * @param clock The clock advanced by the simulation.
+     * @param seed The seed of the sensor noise.
+     * */
+    public DrivetrainSimulator(DriveType driveType, double trackWidth, double maxWheelSpeed, ManualClock clock, long seed) {
+        if (driveType == null) {
+            throw new IllegalArgumentException("Drive type cannot be null");
+        }
+        if (!(trackWidth > 0) || !(maxWheelSpeed > 0)) {
+            throw new IllegalArgumentException("Track width and wheel speed must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+
+        this.driveType = driveType;
+        this.trackWidth = trackWidth;
+        this.maxWheelSpeed = maxWheelSpeed;
+        this.clock = clock;
+        random = new Random(seed);
+        deadWheelWidth = trackWidth;
+
+        motorPowers = new double[driveType.motorAmount];
+        wheelSpeeds = new double[driveType.motorAmount];
+        groundSpeeds = new double[driveType.motorAmount];
+        driveEncoders = new double[driveType.motorAmount];
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the duration of a simulation step. Shorter steps are more accurate.<p/>
+     * @param seconds The duration of a step in seconds.
+     * */
+    public void setTimeStep(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Time step must be positive");
+        }
+        timeStep = seconds;
+    }
+
+    /**
+     * <p>Sets how quickly the wheels reach the speed commanded by their motor power.<p/>
+     * @param seconds The time constant of the motors in seconds; 0 makes the wheels follow their command instantly.
+     * */
+    public void setMotorTimeConstant(double seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Motor time constant cannot be negative");
+        }
+        motorTimeConstant = seconds;
+    }
+
+    /**
+     * <p>Sets the traction of the wheels. The ground under a wheel cannot accelerate faster than this, so the wheel slips.<p/>
+     * @param acceleration The maximum acceleration in distance units per second squared, or infinity for no slip.
+     * */
+    public void setTractionLimit(double acceleration) {
+        if (!(acceleration > 0)) {
+            throw new IllegalArgumentException("Traction limit must be positive");
+        }
+        maxWheelAcceleration = acceleration;
+    }
+
+    /**
+     * <p>
+     *     Sets the distance between the parallel dead wheels. The parallel dead wheels are placed symmetrically
+     *     around the center of rotation and the perpendicular one on it. Defaults to the track width.
+     * <p/>
+     * @param width The distance between the parallel dead wheels, as given to {@link ThreeDeadWheelOdometry}.
+     * */
+    public void setDeadWheelWidth(double width) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("Dead wheel width must be positive");
+        }
+        deadWheelWidth = width;
+    }
+
+    /**
+     * <p>Sets the ticks to distance ratio of all the simulated encoders.<p/>
+     * @param ticksToDistance The distance travelled per encoder tick.
+     * */
+    public void setTicksToDistance(double ticksToDistance) {
+        if (!(ticksToDistance > 0)) {
+            throw new IllegalArgumentException("Ticks to distance ratio must be positive");
+        }
+        this.ticksToDistance = ticksToDistance;
+    }
+
+    /**
+     * <p>Sets the noise of the encoders. It is added to the travel of every encoder on every step and accumulates.<p/>
+     * @param standardDeviation The standard deviation of the noise per step in ticks.
+     * */
+    public void setEncoderNoise(double standardDeviation) {
+        if (standardDeviation < 0) {
+            throw new IllegalArgumentException("Noise cannot be negative");
+        }
+        encoderNoise = standardDeviation;
+    }
+
+    /**
+     * <p>Sets the noise of the gyro.<p/>
+     * @param standardDeviation The standard deviation of every reading in Degrees.
+     * @param drift The drift of the readings in Degrees per second.
+     * */
+    public void setGyroNoise(double standardDeviation, double drift) {
+        if (standardDeviation < 0) {
+            throw new IllegalArgumentException("Noise cannot be negative");
+        }
+        gyroNoise = standardDeviation;
+        gyroDrift = drift;
+    }
+
+    /**
+     * <p>Reseeds the sensor noise.<p/>
+     * @param seed The seed.
+     * */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * <p>Places the robot at the given pose at rest. The sensors keep their readings, as on a real robot.<p/>
+     * @param pose The pose of the robot.
+     * */
+    public void setPose(Pose2D pose) {
+        x = pose.getX();
+        y = pose.getY();
+        theta = Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(pose.getTheta()), 0));
+
+        for (int i = 0; i < motorPowers.length; i++) {
+            wheelSpeeds[i] = 0;
+            groundSpeeds[i] = 0;
+        }
+        forwardVelocity = 0;
+        strafeVelocity = 0;
+        angularVelocity = 0;
+
+        currentPose = new Pose2D(x, y, theta);
+    }
+
+    // ----COMMANDS----
+
+    /**
+     * <p>Sets the powers applied to the motors until the next command. Powers are clamped to [-1, 1].<p/>
+     * @param powers The motor powers, in the order of the {@link DriveType}.
+     * */
+    public void setMotorPowers(double[] powers) {
+        if (powers == null || powers.length != motorPowers.length) {
+            throw new IllegalArgumentException("Expected " + motorPowers.length + " motor powers");
+        }
+        for (int i = 0; i < motorPowers.length; i++) {
+            motorPowers[i] = Math.max(-1, Math.min(1, powers[i]));
+        }
+    }
+
+    /**
+     * <p>Applies the motor inputs calculated by the given interpreter.<p/>
+     * @param vectorInterpreter The interpreter of the simulated drivetrain.
+     * */
+    public void drive(VectorInterpreter vectorInterpreter) {
+        setMotorPowers(vectorInterpreter.getMotorInputs());
+    }
+
+    // ----SIMULATION----
+
+    /**
+     * <p>Advances the simulation and its clock by one time step.<p/>
+     * */
+    public void step() {
+        step(timeStep);
+    }
+
+    /**
+     * <p>
+     *     Advances the simulation and its clock by the given duration, e.g. the remainder of a control period
+     *     that is not a whole number of time steps. The duration should not exceed the time step.
+     * <p/>
+     * @param seconds The duration in seconds.
+     * */
+    public void step(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Step duration must be positive");
+        }
+        final double motorResponse = motorTimeConstant == 0 ? 1 : 1 - Math.exp(-seconds / motorTimeConstant);
+        final double maxSpeedChange = maxWheelAcceleration * seconds;
+
+        for (int i = 0; i < motorPowers.length; i++) {
+            wheelSpeeds[i] += (motorPowers[i] * maxWheelSpeed - wheelSpeeds[i]) * motorResponse;
+
+            double groundChange = wheelSpeeds[i] - groundSpeeds[i];
+            groundChange = Math.max(-maxSpeedChange, Math.min(maxSpeedChange, groundChange));
+            groundSpeeds[i] += groundChange;
+
+            driveEncoders[i] += wheelSpeeds[i] * seconds / ticksToDistance + noise(encoderNoise);
+        }
+
+        switch (driveType) {
+            case TANK:
+                forwardVelocity = (groundSpeeds[LEFT] + groundSpeeds[RIGHT]) * 0.5;
+                strafeVelocity = 0;
+                angularVelocity = (groundSpeeds[RIGHT] - groundSpeeds[LEFT]) / trackWidth;
+                break;
+            case MECANUM:
+                forwardVelocity = (groundSpeeds[LEFT_FRONT] + groundSpeeds[LEFT_BACK]
+                        + groundSpeeds[RIGHT_FRONT] + groundSpeeds[RIGHT_BACK]) * 0.25;
+                strafeVelocity = (groundSpeeds[LEFT_BACK] + groundSpeeds[RIGHT_FRONT]
+                        - groundSpeeds[LEFT_FRONT] - groundSpeeds[RIGHT_BACK]) * 0.25;
+                angularVelocity = (groundSpeeds[RIGHT_FRONT] + groundSpeeds[RIGHT_BACK]
+                        - groundSpeeds[LEFT_FRONT] - groundSpeeds[LEFT_BACK]) / (4 * trackWidth);
+                break;
+        }
+
+        final double dForward = forwardVelocity * seconds;
+        final double dStrafe = strafeVelocity * seconds;
+        final double dTheta = angularVelocity * seconds;
+
+        // Integrating along the heading in the middle of the step keeps arcs accurate.
+        final double midTheta = theta + dTheta * 0.5;
+        final double cos = Math.cos(midTheta);
+        final double sin = Math.sin(midTheta);
+
+        x += dForward * cos - dStrafe * sin;
+        y += dForward * sin + dStrafe * cos;
+        theta = Math.toRadians(MathUtil.shiftAngle(Math.toDegrees(theta + dTheta), 0));
+
+        // The perpendicular dead wheel measures travel to the right of the robot.
+        perpendicularDeadWheel += -dStrafe / ticksToDistance + noise(encoderNoise);
+        centerParallelDeadWheel += dForward / ticksToDistance + noise(encoderNoise);
+        leftParallelDeadWheel += (dForward - dTheta * deadWheelWidth * 0.5) / ticksToDistance + noise(encoderNoise);
+        rightParallelDeadWheel += (dForward + dTheta * deadWheelWidth * 0.5) / ticksToDistance + noise(encoderNoise);
+
+        elapsedTime += seconds;
+        gyroError = gyroDrift * elapsedTime + noise(gyroNoise);
+        gyroHeading = MathUtil.shiftAngle(Math.toDegrees(theta), gyroError);
+
+        // The pose is only created when it is read, so steps without a control update allocate nothing.
+        currentPose = null;
+        clock.advanceSeconds(seconds);
+    }
+
+    /**
+     * <p>
+     *     Runs a control stage, such as one created by {@link ControlLoop#pathStage}, with the motor output
+     *     applied through {@link #setMotorPowers(double[])}, advancing the simulation between executions.
+     * <p/>
+     * @param stage The stage; executed once every control period.
+     * @param controlPeriod The period of the control loop in seconds, rounded to whole time steps.
+     * @param timeout The maximum simulated duration in seconds.
+     * @return The simulated duration in seconds until the stage finished or the timeout was reached.
+     * */
+    public double run(ControlLoop.Stage stage, double controlPeriod, double timeout) {
+        final int stepsPerPeriod = Math.max(1, (int) Math.round(controlPeriod / timeStep));
+        final double startTime = elapsedTime;
+
+        while (elapsedTime - startTime < timeout) {
+            if (!stage.execute()) break;
+            for (int i = 0; i < stepsPerPeriod; i++) {
+                step();
+            }
+        }
+
+        return elapsedTime - startTime;
+    }
+
+    private double noise(double standardDeviation) {
+        return standardDeviation == 0 ? 0 : random.nextGaussian() * standardDeviation;
+    }
+
+    // ----POSITION PROVIDER----
+
+    /**
+     * @return The true pose of the robot.
+     * */
+    @Override
+    public Pose2D getPose() {
+        if (currentPose == null) currentPose = new Pose2D(x, y, theta);
+        return currentPose;
+    }
+
+    /**
+     * <p>Does nothing; the simulation only advances with {@link #step()}.<p/>
+     * */
+    @Override
+    public void update() {
+    }
+
+    /**
+     * @return The true x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        final double cos = Math.cos(theta);
+        final double sin = Math.sin(theta);
+        return new Pose2D(
+                forwardVelocity * cos - strafeVelocity * sin,
+                forwardVelocity * sin + strafeVelocity * cos,
+                angularVelocity);
+    }
+
+    // ----SENSORS----
+
+    /**
+     * @param motor The index of the motor, in the order of the {@link DriveType}.
+     * @return The reading of the encoder of the motor in ticks.
+     * */
+    public double getDriveEncoder(int motor) {
+        return driveEncoders[motor];
+    }
+
+    /** @return The reading of the gyro in Degrees, counterclockwise.*/
+    public double getGyroHeading() {
+        return gyroHeading;
+    }
+
+    /** @return The reading of the perpendicular dead wheel in ticks.*/
+    public double getPerpendicularDeadWheel() {
+        return perpendicularDeadWheel;
+    }
+
+    /** @return The reading of the dead wheel on the center line of the robot in ticks.*/
+    public double getParallelDeadWheel() {
+        return centerParallelDeadWheel;
+    }
+
+    /** @return The reading of the left parallel dead wheel in ticks.*/
+    public double getLeftParallelDeadWheel() {
+        return leftParallelDeadWheel;
+    }
+
+    /** @return The reading of the right parallel dead wheel in ticks.*/
+    public double getRightParallelDeadWheel() {
+        return rightParallelDeadWheel;
+    }
+
+    // ----MEASUREMENT PROVIDERS----
+
+    /** @return A measurement provider reading the simulated drive encoders of a tank drivetrain.*/
+    public TankKinematics.MeasurementProvider createTankMeasurementProvider() {
+        requireDriveType(DriveType.TANK);
+        return new TankKinematics.MeasurementProvider(
+                () -> driveEncoders[LEFT],
+                () -> driveEncoders[RIGHT],
+                ticksToDistance);
+    }
+
+    /** @return A measurement provider reading the simulated drive encoders and gyro of a tank drivetrain.*/
+    public GyroTankOdometry.MeasurementProvider createGyroTankMeasurementProvider() {
+        requireDriveType(DriveType.TANK);
+        return new GyroTankOdometry.MeasurementProvider(
+                () -> driveEncoders[LEFT],
+                () -> driveEncoders[RIGHT],
+                this::getGyroHeading,
+                ticksToDistance);
+    }
+
+    /** @return A measurement provider reading the simulated drive encoders of a mecanum drivetrain.*/
+    public MecanumKinematics.MeasurementProvider createMecanumMeasurementProvider() {
+        requireDriveType(DriveType.MECANUM);
+        return new MecanumKinematics.MeasurementProvider(
+                () -> driveEncoders[LEFT_FRONT],
+                () -> driveEncoders[RIGHT_FRONT],
+                () -> driveEncoders[LEFT_BACK],
+                () -> driveEncoders[RIGHT_BACK],
+                ticksToDistance);
+    }
+
+    /** @return A measurement provider reading the simulated dead wheels and gyro.*/
+    public TwoDeadWheelOdometry.MeasurementProvider createTwoDeadWheelMeasurementProvider() {
+        return new TwoDeadWheelOdometry.MeasurementProvider(
+                this::getPerpendicularDeadWheel,
+                this::getParallelDeadWheel,
+                this::getGyroHeading,
+                ticksToDistance);
+    }
+
+    /** @return A measurement provider reading the simulated dead wheels.*/
+    public ThreeDeadWheelOdometry.MeasurementProvider createThreeDeadWheelMeasurementProvider() {
+        return new ThreeDeadWheelOdometry.MeasurementProvider(
+                this::getPerpendicularDeadWheel,
+                this::getLeftParallelDeadWheel,
+                this::getRightParallelDeadWheel,
+                ticksToDistance);
+    }
+
+    private void requireDriveType(DriveType type) {
+        if (driveType != type) {
+            throw new IllegalStateException("The simulated drivetrain is not " + type);
+        }
+    }
+
+    // ----STATE----
+
+    /** @return The clock advanced by the simulation.*/
+    public ManualClock getClock() {
+        return clock;
+    }
+
+    /** @return The simulated time in seconds.*/
+    public double getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /** @return The simulated drivetrain.*/
+    public DriveType getDriveType() {
+        return driveType;
+    }
+
+    /** @return The duration of a simulation step in seconds.*/
+    public double getTimeStep() {
+        return timeStep;
+    }
+}
@@ -0,0 +1,652 @@
+package com.github.bouyio.cyancore.simulation;
+
+import com.github.bouyio.cyancore.debugger.AllocationMeter;
+import com.github.bouyio.cyancore.debugger.Histogram;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.pathing.engine.PathFollower;
+import com.github.bouyio.cyancore.pathing.engine.legacy.LegacyPathFollower;
+import com.github.bouyio.cyancore.util.ManualClock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>
+ *     Runs two control pipelines, typically the {@link LegacyPathFollower} with the legacy localization
+ *     and the {@link PathFollower} with the current one, on the same sensor stream and reports, side by side,
+ *     the cost of every tick in time and allocated bytes, the commanded motor powers and the tracking error.
+ * <p/>
+ * <p>
+ *     The stream is either simulated or recorded:
+ *     <ul>
+ *         <li>
+ *             {@link #compareSimulated} drives each pipeline in closed loop on its own {@link DrivetrainSimulator},
+ *             both created with the same seed, so both robots face the same noise and the difference in their
+ *             paths comes only from the pipelines. The tracking error is measured on the true pose.
+ *         </li>
+ *         <li>
+ *             {@link #compareReplay} feeds both pipelines the samples of a single {@link SensorReplay}.
+ *             The commanded powers do not affect the recorded robot, so the comparison is open loop and
+ *             the tracking error is measured on the pose estimated by each pipeline.
+ *         </li>
+ *     </ul>
+ * <p/>
+ * <p>
+ *     The pipelines are ticked in lockstep, alternating which runs first, so neither profits from caches warmed
+ *     by the other. Runs may be repeated before the measured one so both pipelines are compiled by the JIT.
+ *     Allocations are measured only where {@link AllocationMeter#isSupported()}; otherwise they are reported as -1.
+ * <p/>
+ * @see MonteCarloRunner
+ * */
+public class FollowerComparison {
+
+    /**
+     * <p>A control pipeline under comparison: localization, following and drive output.</p>
+     * */
+    public interface Pipeline {
+        /**
+         * <p>Reads the sensors and calculates the motor powers of one tick.</p>
+         * @return Whether the pipeline should keep running.
+         * */
+        boolean execute();
+
+        /** @return The motor powers calculated in the last tick.*/
+        double[] getMotorPowers();
+
+        /** @return The pose estimated by the localization of the pipeline.*/
+        Pose2D getEstimatedPose();
+    }
+
+    /**
+     * <p>Builds a pipeline reading the sensors of the given source.</p>
+     * @param <S> The sensor source, a {@link DrivetrainSimulator} or a {@link SensorReplay}.
+     * */
+    @FunctionalInterface
+    public interface PipelineFactory<S> {
+        /**
+         * @param source The sensor source. Its clock should time every system of the pipeline.
+         * @return The pipeline.
+         * */
+        Pipeline build(S source);
+    }
+
+    /**
+     * <p>The measurements of a single pipeline.</p>
+     * */
+    public static class Report {
+        private final String name;
+
+        private final Histogram tickDurations = new Histogram(1_000, 1_000);
+        private final Histogram tickAllocations = new Histogram(16, 1_000);
+        private long totalAllocatedBytes = 0;
+
+        private int tickCount = 0;
+        private int motorAmount = 0;
+        private double[] motorPowers = new double[0];
+        private double[] trackingErrors = new double[256];
+        private double[] tickTimes = new double[256];
+
+        private boolean isCompleted = false;
+        private double completionTime = 0;
+        private double endpointError = 0;
+
+        Report(String name) {
+            this.name = name;
+        }
+
+        void recordTick(double time, long duration, long allocatedBytes, double[] powers, double trackingError) {
+            if (tickCount == 0) {
+                motorAmount = powers.length;
+                motorPowers = new double[motorAmount * tickTimes.length];
+            }
+            if (powers.length != motorAmount) {
+                throw new IllegalStateException(name + " changed its amount of motor powers");
+            }
+            if (tickCount == tickTimes.length) {
+                tickTimes = Arrays.copyOf(tickTimes, tickCount * 2);
+                trackingErrors = Arrays.copyOf(trackingErrors, tickCount * 2);
+                motorPowers = Arrays.copyOf(motorPowers, tickCount * 2 * motorAmount);
+            }
+
+            tickTimes[tickCount] = time;
+            trackingErrors[tickCount] = trackingError;
+            System.arraycopy(powers, 0, motorPowers, tickCount * motorAmount, motorAmount);
+            tickCount++;
+
+            tickDurations.record(duration);
+            if (allocatedBytes >= 0) {
+                tickAllocations.record(allocatedBytes);
+                totalAllocatedBytes += allocatedBytes;
+            }
+        }
+
+        void finish(boolean completed, double completionTime, double endpointError) {
+            this.isCompleted = completed;
+            this.completionTime = completionTime;
+            this.endpointError = endpointError;
+        }
+
+        /** @return The name of the pipeline.*/
+        public String getName() {
+            return name;
+        }
+
+        /** @return The amount of executed ticks.*/
+        public int getTickCount() {
+            return tickCount;
+        }
+
+        /** @return The durations of the ticks in nanoseconds.*/
+        public Histogram getTickDurations() {
+            return tickDurations;
+        }
+
+        /** @return The bytes allocated by the ticks; empty if allocations cannot be measured.*/
+        public Histogram getTickAllocations() {
+            return tickAllocations;
+        }
+
+        /** @return The bytes allocated by all the ticks, or -1 if allocations cannot be measured.*/
+        public long getTotalAllocatedBytes() {
+            return AllocationMeter.isSupported() ? totalAllocatedBytes : -1;
+        }
+
+        /**
+         * @param tick The index of the tick.
+         * @return The time of the tick in seconds since the start of the run.
+         * */
+        public double getTickTime(int tick) {
+            checkTick(tick);
+            return tickTimes[tick];
+        }
+
+        /**
+         * @param tick The index of the tick.
+         * @return A copy of the motor powers commanded in the tick.
+         * */
+        public double[] getMotorPowers(int tick) {
+            checkTick(tick);
+            return Arrays.copyOfRange(motorPowers, tick * motorAmount, (tick + 1) * motorAmount);
+        }
+
+        /**
+         * @param tick The index of the tick.
+         * @return The tracking error after the tick, or 0 if it is not measured.
+         * */
+        public double getTrackingError(int tick) {
+            checkTick(tick);
+            return trackingErrors[tick];
+        }
+
+        /** @return The root mean square of the tracking error, or 0 if it is not measured.*/
+        public double getRmsTrackingError() {
+            double sum = 0;
+            for (int i = 0; i < tickCount; i++) {
+                sum += trackingErrors[i] * trackingErrors[i];
+            }
+            return tickCount == 0 ? 0 : Math.sqrt(sum / tickCount);
+        }
+
+        /** @return The largest tracking error.*/
+        public double getMaxTrackingError() {
+            double max = 0;
+            for (int i = 0; i < tickCount; i++) {
+                max = Math.max(max, trackingErrors[i]);
+            }
+            return max;
+        }
+
+        /** @return Whether the pipeline reported that it was done before the end of the run.*/
+        public boolean isCompleted() {
+            return isCompleted;
+        }
+
+        /** @return The time in seconds until the pipeline was done, or the duration of the run if it was not.*/
+        public double getCompletionTime() {
+            return completionTime;
+        }
+
+        /** @return The distance of the final pose from the target pose.*/
+        public double getEndpointError() {
+            return endpointError;
+        }
+
+        private void checkTick(int tick) {
+            if (tick < 0 || tick >= tickCount) {
+                throw new IllegalArgumentException("Tick out of range: " + tick);
+            }
+        }
+    }
+
+    /**
+     * <p>The reports of the two pipelines.</p>
+     * */
+    public static class Comparison {
+        private final Report a;
+        private final Report b;
+
+        Comparison(Report a, Report b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        /** @return The report of the first pipeline.*/
+        public Report getA() {
+            return a;
+        }
+
+        /** @return The report of the second pipeline.*/
+        public Report getB() {
+            return b;
+        }
+
+        /**
+         * @return The mean absolute difference of the motor powers commanded by the pipelines in the ticks
+         * both executed, or 0 if they command different amounts of motors.
+         * */
+        public double getMeanPowerDifference() {
+            final int ticks = Math.min(a.tickCount, b.tickCount);
+            if (ticks == 0 || a.motorAmount != b.motorAmount) return 0;
+
+            double sum = 0;
+            for (int i = 0; i < ticks * a.motorAmount; i++) {
+                sum += Math.abs(a.motorPowers[i] - b.motorPowers[i]);
+            }
+            return sum / (ticks * a.motorAmount);
+        }
+
+        /**
+         * <p>Writes the ticks of both pipelines as comma separated values, one line per tick.</p>
+         * @param out The destination.
+         * @throws IOException If the destination cannot be written.
+         * */
+        public void writeCsv(Appendable out) throws IOException {
+            out.append("tick");
+            appendHeader(out, a);
+            appendHeader(out, b);
+            out.append('\n');
+
+            final int ticks = Math.max(a.tickCount, b.tickCount);
+            for (int tick = 0; tick < ticks; tick++) {
+                out.append(Integer.toString(tick));
+                appendTick(out, a, tick);
+                appendTick(out, b, tick);
+                out.append('\n');
+            }
+        }
+
+        private static void appendHeader(Appendable out, Report report) throws IOException {
+            out.append(',').append(report.name).append(" time");
+            for (int motor = 0; motor < report.motorAmount; motor++) {
+                out.append(',').append(report.name).append(" power ").append(Integer.toString(motor));
+            }
+            out.append(',').append(report.name).append(" tracking error");
+        }
+
+        private static void appendTick(Appendable out, Report report, int tick) throws IOException {
+            final boolean hasTick = tick < report.tickCount;
+            out.append(',').append(hasTick ? Double.toString(report.tickTimes[tick]) : "");
+            for (int motor = 0; motor < report.motorAmount; motor++) {
+                out.append(',').append(hasTick ? Double.toString(report.motorPowers[tick * report.motorAmount + motor]) : "");
+            }
+            out.append(',').append(hasTick ? Double.toString(report.trackingErrors[tick]) : "");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%-26s %18s %18s%n", "", a.name, b.name));
+            appendRow(builder, "Ticks", "%18d", a.tickCount, b.tickCount);
+            appendRow(builder, "Tick time mean [us]", "%18.2f", a.tickDurations.getMean() / 1e3, b.tickDurations.getMean() / 1e3);
+            appendRow(builder, "Tick time p50 [us]", "%18.2f",
+                    a.tickDurations.getPercentile(0.5) / 1e3, b.tickDurations.getPercentile(0.5) / 1e3);
+            appendRow(builder, "Tick time p99 [us]", "%18.2f",
+                    a.tickDurations.getPercentile(0.99) / 1e3, b.tickDurations.getPercentile(0.99) / 1e3);
+            appendRow(builder, "Tick time max [us]", "%18.2f", a.tickDurations.getMax() / 1e3, b.tickDurations.getMax() / 1e3);
+            if (AllocationMeter.isSupported()) {
+                appendRow(builder, "Allocated/tick mean [B]", "%18.1f", a.tickAllocations.getMean(), b.tickAllocations.getMean());
+                appendRow(builder, "Allocated/tick max [B]", "%18d", a.tickAllocations.getMax(), b.tickAllocations.getMax());
+                appendRow(builder, "Allocated total [B]", "%18d", a.totalAllocatedBytes, b.totalAllocatedBytes);
+            } else {
+                builder.append(String.format("%-26s %18s %18s%n", "Allocated/tick [B]", "n/a", "n/a"));
+            }
+            appendRow(builder, "Tracking error RMS", "%18.4f", a.getRmsTrackingError(), b.getRmsTrackingError());
+            appendRow(builder, "Tracking error max", "%18.4f", a.getMaxTrackingError(), b.getMaxTrackingError());
+            builder.append(String.format("%-26s %18s %18s%n", "Completed", a.isCompleted, b.isCompleted));
+            appendRow(builder, "Completion time [s]", "%18.3f", a.completionTime, b.completionTime);
+            appendRow(builder, "Endpoint error", "%18.4f", a.endpointError, b.endpointError);
+            builder.append(String.format("Mean power difference: %.4f", getMeanPowerDifference()));
+            return builder.toString();
+        }
+
+        private static void appendRow(StringBuilder builder, String label, String format, Object valueA, Object valueB) {
+            builder.append(String.format("%-26s " + format + " " + format + "%n", label, valueA, valueB));
+        }
+    }
+
+    private final String nameA;
+    private final String nameB;
+
+    // ----USER SETTINGS----
+
+    private Pose2D startPose = new Pose2D(0, 0, 0);
+    private Pose2D targetPose = new Pose2D(0, 0, 0);
+    private double controlPeriod = 0.02;
+    private double timeout = 30;
+    private int warmUpRuns = 3;
+    private ToDoubleFunction<Pose2D> trackingErrorFunction = null;
+
+    /**
+     * <p>Creates a comparison of two pipelines.</p>
+     * @param nameA The name of the first pipeline, e.g. {@code "Legacy"}.
+     * @param nameB The name of the second pipeline, e.g. {@code "Current"}.
+     * */
+    public FollowerComparison(String nameA, String nameB) {
+        if (nameA == null || nameB == null) {
+            throw new IllegalArgumentException("Pipeline names cannot be null");
+        }
+        this.nameA = nameA;
+        this.nameB = nameB;
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the pose the simulated robots start at.</p>
+     * @param pose The start pose.
+     * */
+    public void setStartPose(Pose2D pose) {
+        if (pose == null) {
+            throw new IllegalArgumentException("Start pose cannot be null");
+        }
+        startPose = pose;
+    }
+
+    /**
+     * <p>Sets the pose the endpoint error is measured from.</p>
+     * @param pose The target pose.
+     * */
+    public void setTargetPose(Pose2D pose) {
+        if (pose == null) {
+            throw new IllegalArgumentException("Target pose cannot be null");
+        }
+        targetPose = pose;
+    }
+
+    /**
+     * <p>Sets the period of the simulated control loop. Recorded runs keep their own timing.</p>
+     * @param seconds The period in seconds.
+     * */
+    public void setControlPeriod(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Control period must be positive");
+        }
+        controlPeriod = seconds;
+    }
+
+    /**
+     * <p>Sets the maximum simulated duration of a run.</p>
+     * @param seconds The timeout in seconds.
+     * */
+    public void setTimeout(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        timeout = seconds;
+    }
+
+    /**
+     * <p>Sets the amount of unmeasured runs executed before the measured one, to warm up the JIT.</p>
+     * @param runs The amount of runs.
+     * */
+    public void setWarmUpRuns(int runs) {
+        if (runs < 0) {
+            throw new IllegalArgumentException("Warm up run amount cannot be negative");
+        }
+        warmUpRuns = runs;
+    }
+
+    /**
+     * <p>Sets the function measuring the tracking error of a pose after every tick.</p>
+     * @param trackingErrorFunction The function, e.g. {@link MonteCarloRunner#pathDeviation}, or null to not measure it.
+     * */
+    public void setTrackingErrorFunction(ToDoubleFunction<Pose2D> trackingErrorFunction) {
+        this.trackingErrorFunction = trackingErrorFunction;
+    }
+
+    // ----COMPARISON----
+
+    /**
+     * <p>Drives each pipeline in closed loop on its own simulator, both created with the same seed.</p>
+     * @param pipelineA The factory of the first pipeline.
+     * @param pipelineB The factory of the second pipeline.
+     * @param simulatorFactory The factory of the simulators.
+     * @param seed The seed of the simulators.
+     * @return The reports of the measured run.
+     * */
+    public Comparison compareSimulated(PipelineFactory<DrivetrainSimulator> pipelineA,
+                                       PipelineFactory<DrivetrainSimulator> pipelineB,
+                                       MonteCarloRunner.SimulatorFactory simulatorFactory, long seed) {
+        if (pipelineA == null || pipelineB == null || simulatorFactory == null) {
+            throw new IllegalArgumentException("Pipeline and simulator factories cannot be null");
+        }
+
+        Comparison comparison = null;
+        for (int run = 0; run <= warmUpRuns; run++) {
+            comparison = runSimulated(pipelineA, pipelineB, simulatorFactory, seed);
+        }
+        return comparison;
+    }
+
+    /**
+     * <p>Feeds both pipelines the samples of a recorded run.</p>
+     * @param log The log of the run, recorded as described in {@link SensorReplay}.
+     * @param pipelineA The factory of the first pipeline.
+     * @param pipelineB The factory of the second pipeline.
+     * @return The reports of the measured run.
+     * @throws IOException If the log cannot be read.
+     * */
+    public Comparison compareReplay(File log, PipelineFactory<SensorReplay> pipelineA,
+                                    PipelineFactory<SensorReplay> pipelineB) throws IOException {
+        if (pipelineA == null || pipelineB == null) {
+            throw new IllegalArgumentException("Pipeline factories cannot be null");
+        }
+
+        Comparison comparison = null;
+        for (int run = 0; run <= warmUpRuns; run++) {
+            comparison = runReplay(new SensorReplay(log, new ManualClock()), pipelineA, pipelineB);
+        }
+        return comparison;
+    }
+
+    private Comparison runSimulated(PipelineFactory<DrivetrainSimulator> pipelineA,
+                                    PipelineFactory<DrivetrainSimulator> pipelineB,
+                                    MonteCarloRunner.SimulatorFactory simulatorFactory, long seed) {
+        final DrivetrainSimulator[] simulators = {
+                simulatorFactory.create(new ManualClock(), seed),
+                simulatorFactory.create(new ManualClock(), seed)
+        };
+        simulators[0].setPose(startPose);
+        simulators[1].setPose(startPose);
+
+        final Pipeline[] pipelines = {pipelineA.build(simulators[0]), pipelineB.build(simulators[1])};
+        final Report[] reports = {new Report(nameA), new Report(nameB)};
+        final boolean[] isRunning = {true, true};
+        final AllocationMeter meter = new AllocationMeter();
+
+        final int stepsPerPeriod = Math.max(1, (int) Math.round(controlPeriod / simulators[0].getTimeStep()));
+        int tick = 0;
+
+        while (isRunning[0] || isRunning[1]) {
+            for (int order = 0; order < 2; order++) {
+                // Alternating the order keeps either pipeline from running on caches warmed by the other.
+                final int i = (tick + order) & 1;
+                if (!isRunning[i]) continue;
+
+                final DrivetrainSimulator simulator = simulators[i];
+                if (simulator.getElapsedTime() >= timeout) {
+                    finish(reports[i], simulator.getPose(), false, simulator.getElapsedTime());
+                    isRunning[i] = false;
+                    continue;
+                }
+
+                if (!executeTick(pipelines[i], reports[i], meter, simulator.getElapsedTime(), simulator)) {
+                    finish(reports[i], simulator.getPose(), true, simulator.getElapsedTime());
+                    isRunning[i] = false;
+                    continue;
+                }
+
+                simulator.setMotorPowers(pipelines[i].getMotorPowers());
+                for (int step = 0; step < stepsPerPeriod; step++) {
+                    simulator.step();
+                }
+            }
+            tick++;
+        }
+
+        return new Comparison(reports[0], reports[1]);
+    }
+
+    private Comparison runReplay(SensorReplay replay, PipelineFactory<SensorReplay> pipelineA,
+                                 PipelineFactory<SensorReplay> pipelineB) {
+        final Pipeline[] pipelines = {pipelineA.build(replay), pipelineB.build(replay)};
+        final Report[] reports = {new Report(nameA), new Report(nameB)};
+        final boolean[] isRunning = {true, true};
+        final AllocationMeter meter = new AllocationMeter();
+
+        final long startTime = replay.getClock().nanoTime();
+        double time = 0;
+        int tick = 0;
+
+        while ((isRunning[0] || isRunning[1]) && replay.advance()) {
+            time = (replay.getClock().nanoTime() - startTime) * 1e-9;
+            for (int order = 0; order < 2; order++) {
+                final int i = (tick + order) & 1;
+                if (!isRunning[i]) continue;
+
+                if (!executeTick(pipelines[i], reports[i], meter, time, null)) {
+                    finish(reports[i], pipelines[i].getEstimatedPose(), true, time);
+                    isRunning[i] = false;
+                }
+            }
+            tick++;
+        }
+
+        for (int i = 0; i < 2; i++) {
+            if (isRunning[i]) finish(reports[i], pipelines[i].getEstimatedPose(), false, time);
+        }
+
+        return new Comparison(reports[0], reports[1]);
+    }
+
+    /**
+     * <p>Executes and measures one tick of a pipeline.</p>
+     * @param truth The source of the true pose, or null to measure the tracking error on the estimated pose.
+     * @return Whether the pipeline should keep running.
+     * */
+    private boolean executeTick(Pipeline pipeline, Report report, AllocationMeter meter, double time, PositionProvider truth) {
+        final long allocatedBefore = meter.getAllocatedBytes();
+        final long start = System.nanoTime();
+        final boolean isRunning = pipeline.execute();
+        final long duration = System.nanoTime() - start;
+        final long allocatedAfter = meter.getAllocatedBytes();
+
+        if (!isRunning) return false;
+
+        double trackingError = 0;
+        if (trackingErrorFunction != null) {
+            trackingError = trackingErrorFunction.applyAsDouble(truth != null ? truth.getPose() : pipeline.getEstimatedPose());
+        }
+
+        report.recordTick(time, duration, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore,
+                pipeline.getMotorPowers(), trackingError);
+        return true;
+    }
+
+    private void finish(Report report, Pose2D pose, boolean completed, double time) {
+        final double endpointError = pose == null ? Double.NaN
+                : Math.hypot(pose.getX() - targetPose.getX(), pose.getY() - targetPose.getY());
+        report.finish(completed, time, endpointError);
+    }
+
+    // ----PIPELINE ADAPTERS----
+
+    /**
+     * <p>
+     *     Adapts a {@link PathFollower} following a {@link Path}. The follower updates the localization itself.
+     * <p/>
+     * @param follower The follower.
+     * @param path The path to be followed; paths are stateful, so every pipeline needs its own.
+     * @param localization The localization of the follower.
+     * @return The pipeline.
+     * */
+    public static Pipeline pathFollowerPipeline(PathFollower follower, Path path, PositionProvider localization) {
+        return new Pipeline() {
+            @Override
+            public boolean execute() {
+                follower.followPath(path);
+                return !path.isPathFinished(localization.getPose());
+            }
+
+            @Override
+            public double[] getMotorPowers() {
+                return follower.getCalculatedPowers();
+            }
+
+            @Override
+            public Pose2D getEstimatedPose() {
+                return localization.getPose();
+            }
+        };
+    }
+
+    /**
+     * <p>
+     *     Adapts a {@link LegacyPathFollower} following a {@link Path} on a differential drivetrain.
+     *     The legacy localization systems are given their measurements by the caller, so they are refreshed
+     *     at the start of every tick, and the {@code linear} - {@code steering} output of the follower is mixed
+     *     into {@code left} - {@code right} motor powers the way an OpMode of the legacy engine does.
+     * <p/>
+     * @param follower The follower, set up for pure pursuit.
+     * @param path The path to be followed; paths are stateful, so every pipeline needs its own.
+     * @param localization The localization of the follower.
+     * @param measurementUpdate Passes the sensor readings to the localization, e.g.
+     *                          {@code () -> odometry.updateMeasurements(left.getAsDouble(), right.getAsDouble())}.
+     * @return The pipeline.
+     * */
+    public static Pipeline legacyTankPipeline(LegacyPathFollower follower, Path path, PositionProvider localization,
+                                              Runnable measurementUpdate) {
+        final double[] motorPowers = new double[2];
+        return new Pipeline() {
+            @Override
+            public boolean execute() {
+                measurementUpdate.run();
+                follower.followPath(path);
+
+                final double[] output = follower.getCalculatedPowers();
+                double left = output[0] - output[1];
+                double right = output[0] + output[1];
+                final double denominator = Math.max(Math.max(Math.abs(left), Math.abs(right)), 1);
+                motorPowers[0] = left / denominator;
+                motorPowers[1] = right / denominator;
+
+                final Pose2D pose = localization.getPose();
+                return pose == null || !path.isPathFinished(pose);
+            }
+
+            @Override
+            public double[] getMotorPowers() {
+                return motorPowers;
+            }
+
+            @Override
+            public Pose2D getEstimatedPose() {
+                return localization.getPose();
+            }
+        };
+    }
+}
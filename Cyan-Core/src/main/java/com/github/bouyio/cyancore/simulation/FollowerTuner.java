@@ -0,0 +1,368 @@
+package com.github.bouyio.cyancore.simulation;
+
+import com.github.bouyio.cyancore.pathing.engine.ControlLoop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *     Searches for the follower parameters, such as the {@link com.github.bouyio.cyancore.util.PIDController} gains,
+ *     the look ahead distance, the distance error tolerance or the profile limits, that minimize an objective
+ *     evaluated over simulated runs.
+ * <p/>
+ * <p>
+ *     Every candidate is evaluated by a {@link MonteCarloRunner}, executing its runs in parallel across the cores.
+ *     All candidates are evaluated with the same seed, so they face the same noise, slip and start errors and
+ *     their costs differ only because of their parameters.
+ * <p/>
+ * <p>
+ *     The search is a coordinate descent: each parameter in turn is stepped up and down, a step is kept if it lowers the cost,
+ *     and the step of a parameter is halved whenever neither direction helps. The search ends once every step has shrunk
+ *     below the minimum or the evaluation budget is spent.
+ * <p/>
+ * @see MonteCarloRunner
+ * */
+public class FollowerTuner {
+
+    /**
+     * <p>Builds the robot of a single run with the given parameters.</p>
+     * */
+    @FunctionalInterface
+    public interface ParameterizedRoutine {
+        /**
+         * @param simulator The simulator of the run. Its clock should time every system of the robot.
+         * @param parameters The parameter values, in the order they were added.
+         * @return The stage executed every control period.
+         * @see MonteCarloRunner.Routine
+         * */
+        ControlLoop.Stage build(DrivetrainSimulator simulator, double[] parameters);
+    }
+
+    /**
+     * <p>The cost of a candidate, lower is better.</p>
+     * */
+    @FunctionalInterface
+    public interface Objective {
+        double cost(MonteCarloRunner.Result result);
+    }
+
+    /**
+     * <p>A tuned parameter and its search range.</p>
+     * */
+    private static class Parameter {
+        final String name;
+        final double initial;
+        final double min;
+        final double max;
+        final double step;
+
+        Parameter(String name, double initial, double min, double max, double step) {
+            this.name = name;
+            this.initial = initial;
+            this.min = min;
+            this.max = max;
+            this.step = step;
+        }
+    }
+
+    /**
+     * <p>The best candidate found by a search.</p>
+     * */
+    public static class TuningResult {
+        private final String[] names;
+        private final double[] values;
+        private final double cost;
+        private final MonteCarloRunner.Result result;
+        private final int evaluations;
+
+        TuningResult(String[] names, double[] values, double cost, MonteCarloRunner.Result result, int evaluations) {
+            this.names = names;
+            this.values = values;
+            this.cost = cost;
+            this.result = result;
+            this.evaluations = evaluations;
+        }
+
+        /** @return The best parameter values, in the order they were added.*/
+        public double[] getValues() {
+            return values.clone();
+        }
+
+        /**
+         * @param name The name of the parameter.
+         * @return The best value of the parameter.
+         * */
+        public double getValue(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) return values[i];
+            }
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+
+        /** @return The cost of the best candidate.*/
+        public double getCost() {
+            return cost;
+        }
+
+        /** @return The simulated runs of the best candidate.*/
+        public MonteCarloRunner.Result getResult() {
+            return result;
+        }
+
+        /** @return The amount of evaluated candidates.*/
+        public int getEvaluations() {
+            return evaluations;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("Cost: %.4f after %d evaluations%n", cost, evaluations));
+            for (int i = 0; i < names.length; i++) {
+                builder.append(String.format("  %s = %.5f%n", names[i], values[i]));
+            }
+            builder.append(result);
+            return builder.toString();
+        }
+    }
+
+    /** The default cost of a unit of mean endpoint error, in seconds.*/
+    public static final double DEFAULT_ENDPOINT_ERROR_WEIGHT = 10;
+    /** The default cost of a run that did not complete before the timeout, in seconds, on top of the timeout itself.*/
+    public static final double DEFAULT_INCOMPLETE_RUN_PENALTY = 10;
+
+    private final ParameterizedRoutine routine;
+    private final MonteCarloRunner runner;
+    private final List<Parameter> parameters = new ArrayList<>();
+
+    // ----USER SETTINGS----
+
+    // Without a tracking error function only the endpoint error keeps the search from trading accuracy for time.
+    private Objective objective = weightedObjective(1, DEFAULT_ENDPOINT_ERROR_WEIGHT, DEFAULT_INCOMPLETE_RUN_PENALTY);
+    private int runsPerEvaluation = 64;
+    private long seed = 0;
+    private int maxEvaluations = 200;
+    private double minimumStepFraction = 0.05;
+
+    /**
+     * <p>Creates a tuner of the given routine.</p>
+     * @param routine The builder of the robot of every run.
+     * @param simulatorFactory The factory of the simulator of every run.
+     * */
+    public FollowerTuner(ParameterizedRoutine routine, MonteCarloRunner.SimulatorFactory simulatorFactory) {
+        if (routine == null) {
+            throw new IllegalArgumentException("Routine cannot be null");
+        }
+        this.routine = routine;
+        runner = new MonteCarloRunner(simulator -> routine.build(simulator, getInitialValues()), simulatorFactory);
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Gives access to the runner evaluating the candidates, to set up the randomization, target and timeout of the runs.</p>
+     * @return The runner.
+     * */
+    public MonteCarloRunner getRunner() {
+        return runner;
+    }
+
+    /**
+     * <p>Adds a parameter to the search.</p>
+     * @param name The name of the parameter.
+     * @param initial The value the search starts from.
+     * @param min The lowest allowed value.
+     * @param max The highest allowed value.
+     * @param step The initial step of the search.
+     * @return The index of the parameter in the values passed to the routine.
+     * */
+    public int addParameter(String name, double initial, double min, double max, double step) {
+        if (name == null) {
+            throw new IllegalArgumentException("Parameter name cannot be null");
+        }
+        if (!(min <= initial && initial <= max)) {
+            throw new IllegalArgumentException("The initial value of " + name + " must be within its range");
+        }
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Parameter step must be positive");
+        }
+        parameters.add(new Parameter(name, initial, min, max, step));
+        return parameters.size() - 1;
+    }
+
+    /**
+     * <p>
+     *     Sets the objective minimized by the search. Defaults to the mean completion time plus penalties
+     *     for the endpoint error and the runs that did not complete, and the tracking error if it is measured.
+     * </p>
+     * @param objective The objective.
+     * @see #weightedObjective(double, double, double)
+     * */
+    public void setObjective(Objective objective) {
+        if (objective == null) {
+            throw new IllegalArgumentException("Objective cannot be null");
+        }
+        this.objective = objective;
+    }
+
+    /**
+     * <p>Sets the amount of simulated runs every candidate is evaluated on.</p>
+     * @param runs The amount of runs.
+     * */
+    public void setRunsPerEvaluation(int runs) {
+        if (runs <= 0) {
+            throw new IllegalArgumentException("Run amount must be positive");
+        }
+        runsPerEvaluation = runs;
+    }
+
+    /**
+     * <p>Sets the seed shared by the evaluations of all the candidates.</p>
+     * @param seed The seed.
+     * */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * <p>Sets the maximum amount of evaluated candidates.</p>
+     * @param evaluations The evaluation budget.
+     * */
+    public void setMaxEvaluations(int evaluations) {
+        if (evaluations <= 0) {
+            throw new IllegalArgumentException("Evaluation budget must be positive");
+        }
+        maxEvaluations = evaluations;
+    }
+
+    /**
+     * <p>Sets the step, relative to the initial step of each parameter, below which a parameter is considered tuned.</p>
+     * @param fraction The fraction of the initial step.
+     * */
+    public void setMinimumStepFraction(double fraction) {
+        if (!(fraction > 0 && fraction < 1)) {
+            throw new IllegalArgumentException("Minimum step fraction must be between 0 and 1");
+        }
+        minimumStepFraction = fraction;
+    }
+
+    /**
+     * <p>Creates an objective of the mean completion time plus penalties for the tracking and endpoint errors.</p>
+     * @param trackingErrorWeight The cost of a unit of mean RMS tracking error, in seconds.
+     * @param endpointErrorWeight The cost of a unit of mean endpoint error, in seconds.
+     * @return The objective.
+     * @see MonteCarloRunner#setTrackingErrorFunction(java.util.function.ToDoubleFunction)
+     * */
+    public static Objective weightedObjective(double trackingErrorWeight, double endpointErrorWeight) {
+        return weightedObjective(trackingErrorWeight, endpointErrorWeight, 0);
+    }
+
+    /**
+     * <p>
+     *     Creates an objective of the mean completion time plus penalties for the tracking and endpoint errors
+     *     and for the runs that did not complete. A run that did not complete already counts the timeout as its completion time.
+     * </p>
+     * @param trackingErrorWeight The cost of a unit of mean RMS tracking error, in seconds.
+     * @param endpointErrorWeight The cost of a unit of mean endpoint error, in seconds.
+     * @param incompleteRunPenalty The cost of every run that did not complete, averaged over the runs, in seconds.
+     * @return The objective.
+     * @see MonteCarloRunner#setTrackingErrorFunction(java.util.function.ToDoubleFunction)
+     * */
+    public static Objective weightedObjective(double trackingErrorWeight, double endpointErrorWeight, double incompleteRunPenalty) {
+        return result -> result.getMeanCompletionTime()
+                + trackingErrorWeight * result.getMeanTrackingError()
+                + endpointErrorWeight * result.getMeanEndpointError()
+                + incompleteRunPenalty * (result.getRunAmount() - result.getCompletedAmount()) / result.getRunAmount();
+    }
+
+    // ----SEARCH----
+
+    /**
+     * <p>Runs the search from the initial values of the parameters.</p>
+     * @return The best candidate found.
+     * */
+    public TuningResult tune() {
+        if (parameters.isEmpty()) {
+            throw new IllegalStateException("No parameters have been added");
+        }
+
+        final int parameterAmount = parameters.size();
+        double[] best = getInitialValues();
+        double[] steps = new double[parameterAmount];
+        for (int i = 0; i < parameterAmount; i++) {
+            steps[i] = parameters.get(i).step;
+        }
+
+        MonteCarloRunner.Result bestResult = evaluate(best);
+        double bestCost = objective.cost(bestResult);
+        int evaluations = 1;
+
+        while (evaluations < maxEvaluations && !isConverged(steps)) {
+            for (int i = 0; i < parameterAmount && evaluations < maxEvaluations; i++) {
+                if (steps[i] < parameters.get(i).step * minimumStepFraction) continue;
+
+                boolean improved = false;
+                for (int direction = 1; direction >= -1 && evaluations < maxEvaluations; direction -= 2) {
+                    double[] candidate = best.clone();
+                    candidate[i] = clamp(best[i] + direction * steps[i], parameters.get(i));
+                    if (candidate[i] == best[i]) continue;
+
+                    MonteCarloRunner.Result result = evaluate(candidate);
+                    double cost = objective.cost(result);
+                    evaluations++;
+
+                    if (cost < bestCost) {
+                        best = candidate;
+                        bestCost = cost;
+                        bestResult = result;
+                        improved = true;
+                        break;
+                    }
+                }
+
+                if (!improved) steps[i] *= 0.5;
+            }
+        }
+
+        String[] names = new String[parameterAmount];
+        for (int i = 0; i < parameterAmount; i++) {
+            names[i] = parameters.get(i).name;
+        }
+        return new TuningResult(names, best, bestCost, bestResult, evaluations);
+    }
+
+    /**
+     * <p>Evaluates a single candidate.</p>
+     * @param values The parameter values, in the order they were added.
+     * @return The simulated runs of the candidate.
+     * */
+    public MonteCarloRunner.Result evaluate(double[] values) {
+        if (values.length != parameters.size()) {
+            throw new IllegalArgumentException("Expected " + parameters.size() + " parameter values");
+        }
+        final double[] candidate = values.clone();
+        // Every run gets its own copy so a routine cannot affect the others by modifying it.
+        runner.setRoutine(simulator -> routine.build(simulator, candidate.clone()));
+        return runner.run(runsPerEvaluation, seed);
+    }
+
+    private boolean isConverged(double[] steps) {
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] >= parameters.get(i).step * minimumStepFraction) return false;
+        }
+        return true;
+    }
+
+    private static double clamp(double value, Parameter parameter) {
+        return Math.max(parameter.min, Math.min(parameter.max, value));
+    }
+
+    private double[] getInitialValues() {
+        double[] values = new double[parameters.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parameters.get(i).initial;
+        }
+        return values;
+    }
+}
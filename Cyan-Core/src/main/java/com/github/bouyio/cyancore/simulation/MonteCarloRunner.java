@@ -0,0 +1,507 @@
+package com.github.bouyio.cyancore.simulation;
+
+import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.PointArray;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.pathing.engine.ControlLoop;
+import com.github.bouyio.cyancore.util.ManualClock;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>
+ *     Runs the same autonomous routine thousands of times on independent {@link DrivetrainSimulator}s in parallel,
+ *     with randomized encoder noise, wheel slip, start pose error and loop jitter, and reports the distributions
+ *     of the completion time and of the endpoint error.
+ * <p/>
+ * <p>
+ *     The runs are split across the cores by a fork-join pool. Every run creates its own simulator and robot,
+ *     so nothing is shared between runs; the {@link Routine} must therefore build every system it uses,
+ *     including paths and sequences, and inject the clock of the simulator into all of them instead of
+ *     relying on the global clock. The results of a run depend only on the seed and the run index,
+ *     so a whole evaluation can be reproduced.
+ * <p/>
+ * @see DrivetrainSimulator
+ * */
+public class MonteCarloRunner {
+
+    /**
+     * <p>Builds the robot of a single run on the given simulator.</p>
+     * */
+    @FunctionalInterface
+    public interface Routine {
+        /**
+         * @param simulator The simulator of the run. Its clock should time every system of the robot.
+         * @return The stage executed every control period, applying its motor output to the simulator,
+         * e.g. {@code ControlLoop.pathSequenceStage(follower, sequence, simulator::setMotorPowers)}.
+         * It reports that it is done when the routine is complete.
+         * */
+        ControlLoop.Stage build(DrivetrainSimulator simulator);
+    }
+
+    /**
+     * <p>Creates the simulator of a single run.</p>
+     * */
+    @FunctionalInterface
+    public interface SimulatorFactory {
+        /**
+         * @param clock A clock dedicated to the run.
+         * @param seed The seed of the sensor noise of the run.
+         * @return The simulator of the run.
+         * */
+        DrivetrainSimulator create(ManualClock clock, long seed);
+    }
+
+    /**
+     * <p>The outcome of an evaluation.</p>
+     * */
+    public static class Result {
+        private final double[] completionTimes;
+        private final double[] endpointErrors;
+        private final double[] trackingErrors;
+        private final int completedAmount;
+
+        private final double[] sortedCompletionTimes;
+        private final double[] sortedEndpointErrors;
+
+        Result(double[] completionTimes, double[] endpointErrors, double[] trackingErrors, int completedAmount) {
+            this.completionTimes = completionTimes;
+            this.endpointErrors = endpointErrors;
+            this.trackingErrors = trackingErrors;
+            this.completedAmount = completedAmount;
+
+            sortedCompletionTimes = completionTimes.clone();
+            sortedEndpointErrors = endpointErrors.clone();
+            Arrays.sort(sortedCompletionTimes);
+            Arrays.sort(sortedEndpointErrors);
+        }
+
+        /** @return The amount of runs.*/
+        public int getRunAmount() {
+            return completionTimes.length;
+        }
+
+        /** @return The amount of runs that completed before the timeout.*/
+        public int getCompletedAmount() {
+            return completedAmount;
+        }
+
+        /**
+         * @param run The index of the run.
+         * @return The completion time of the run in seconds, or the timeout if it did not complete.
+         * */
+        public double getCompletionTime(int run) {
+            return completionTimes[run];
+        }
+
+        /**
+         * @param run The index of the run.
+         * @return The distance of the robot from the target pose at the end of the run.
+         * */
+        public double getEndpointError(int run) {
+            return endpointErrors[run];
+        }
+
+        /**
+         * @param run The index of the run.
+         * @return The root mean square of the tracking error of the run, or 0 if it is not measured.
+         * @see MonteCarloRunner#setTrackingErrorFunction(ToDoubleFunction)
+         * */
+        public double getTrackingError(int run) {
+            return trackingErrors[run];
+        }
+
+        /**
+         * @param fraction The fraction of runs, between 0 and 1.
+         * @return The completion time in seconds that the given fraction of runs did not exceed.
+         * */
+        public double getCompletionTimePercentile(double fraction) {
+            return percentile(sortedCompletionTimes, fraction);
+        }
+
+        /**
+         * @param fraction The fraction of runs, between 0 and 1.
+         * @return The endpoint error that the given fraction of runs did not exceed.
+         * */
+        public double getEndpointErrorPercentile(double fraction) {
+            return percentile(sortedEndpointErrors, fraction);
+        }
+
+        /** @return The average completion time in seconds.*/
+        public double getMeanCompletionTime() {
+            return mean(completionTimes);
+        }
+
+        /** @return The average endpoint error.*/
+        public double getMeanEndpointError() {
+            return mean(endpointErrors);
+        }
+
+        /** @return The average of the root mean square tracking error of the runs.*/
+        public double getMeanTrackingError() {
+            return mean(trackingErrors);
+        }
+
+        /** @return The longest completion time in seconds.*/
+        public double getWorstCompletionTime() {
+            return sortedCompletionTimes[sortedCompletionTimes.length - 1];
+        }
+
+        /** @return The largest endpoint error.*/
+        public double getWorstEndpointError() {
+            return sortedEndpointErrors[sortedEndpointErrors.length - 1];
+        }
+
+        private static double percentile(double[] sorted, double fraction) {
+            final double clamped = Math.max(0, Math.min(1, fraction));
+            final int index = (int) Math.ceil(clamped * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        private static double mean(double[] values) {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum / values.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Runs: %d, completed: %d%n" +
+                    "  Completion time [s]: mean=%.3f p50=%.3f p95=%.3f p99=%.3f max=%.3f%n" +
+                    "  Endpoint error: mean=%.4f p50=%.4f p95=%.4f p99=%.4f max=%.4f%n" +
+                    "  Tracking error (RMS): mean=%.4f",
+                    getRunAmount(), completedAmount,
+                    getMeanCompletionTime(), getCompletionTimePercentile(0.5), getCompletionTimePercentile(0.95),
+                    getCompletionTimePercentile(0.99), getWorstCompletionTime(),
+                    getMeanEndpointError(), getEndpointErrorPercentile(0.5), getEndpointErrorPercentile(0.95),
+                    getEndpointErrorPercentile(0.99), getWorstEndpointError(),
+                    getMeanTrackingError());
+        }
+    }
+
+    /** Runs handled by a single task without splitting further.*/
+    private static final int RUNS_PER_TASK = 8;
+
+    private Routine routine;
+    private final SimulatorFactory simulatorFactory;
+
+    // ----USER SETTINGS----
+
+    private Pose2D startPose = new Pose2D(0, 0, 0);
+    private Pose2D targetPose = new Pose2D(0, 0, 0);
+
+    private double controlPeriod = 0.02;
+    private double timeout = 30;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private double encoderNoise = 0;
+    private double minTraction = Double.POSITIVE_INFINITY;
+    private double maxTraction = Double.POSITIVE_INFINITY;
+    private double startPositionError = 0;
+    private double startHeadingError = 0;
+    private double loopJitter = 0;
+
+    private ToDoubleFunction<Pose2D> trackingErrorFunction = null;
+
+    /**
+     * <p>Creates a runner of the given routine.</p>
+     * @param routine The builder of the robot of every run.
+     * @param simulatorFactory The factory of the simulator of every run.
+     * */
+    public MonteCarloRunner(Routine routine, SimulatorFactory simulatorFactory) {
+        if (routine == null || simulatorFactory == null) {
+            throw new IllegalArgumentException("Routine and simulator factory cannot be null");
+        }
+        this.routine = routine;
+        this.simulatorFactory = simulatorFactory;
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Replaces the routine of the runner, keeping every other setting.</p>
+     * @param routine The builder of the robot of every run.
+     * */
+    public void setRoutine(Routine routine) {
+        if (routine == null) {
+            throw new IllegalArgumentException("Routine cannot be null");
+        }
+        this.routine = routine;
+    }
+
+    /**
+     * <p>Sets the pose the robot is placed at before the random start error is applied.</p>
+     * @param pose The nominal start pose.
+     * */
+    public void setStartPose(Pose2D pose) {
+        if (pose == null) {
+            throw new IllegalArgumentException("Start pose cannot be null");
+        }
+        startPose = pose;
+    }
+
+    /**
+     * <p>Sets the pose the routine should end at, against which the endpoint error is measured.</p>
+     * @param pose The target pose.
+     * */
+    public void setTargetPose(Pose2D pose) {
+        if (pose == null) {
+            throw new IllegalArgumentException("Target pose cannot be null");
+        }
+        targetPose = pose;
+    }
+
+    /**
+     * <p>Sets the nominal period between executions of the stage.</p>
+     * @param seconds The control period in seconds.
+     * */
+    public void setControlPeriod(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Control period must be positive");
+        }
+        controlPeriod = seconds;
+    }
+
+    /**
+     * <p>Sets the simulated duration after which a run is stopped and counted as not completed.</p>
+     * @param seconds The timeout in seconds.
+     * */
+    public void setTimeout(double seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        timeout = seconds;
+    }
+
+    /**
+     * <p>Sets the amount of runs executed at the same time. Defaults to the amount of processors.</p>
+     * @param parallelism The amount of parallel runs.
+     * */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * <p>Sets the noise of the encoders of every run.</p>
+     * @param standardDeviation The standard deviation of the noise per simulation step in ticks.
+     * @see DrivetrainSimulator#setEncoderNoise(double)
+     * */
+    public void setEncoderNoise(double standardDeviation) {
+        if (standardDeviation < 0) {
+            throw new IllegalArgumentException("Noise cannot be negative");
+        }
+        encoderNoise = standardDeviation;
+    }
+
+    /**
+     * <p>Sets the range the traction limit of every run is uniformly drawn from.</p>
+     * @param min The lowest traction limit in distance units per second squared.
+     * @param max The highest traction limit in distance units per second squared.
+     * @see DrivetrainSimulator#setTractionLimit(double)
+     * */
+    public void setTractionRange(double min, double max) {
+        if (!(min > 0) || max < min) {
+            throw new IllegalArgumentException("Traction range must be positive and ordered");
+        }
+        minTraction = min;
+        maxTraction = max;
+    }
+
+    /**
+     * <p>Sets the error of the start pose of every run, drawn from normal distributions.</p>
+     * @param positionStandardDeviation The standard deviation of the x and y error.
+     * @param headingStandardDeviation The standard deviation of the heading error in Radians.
+     * */
+    public void setStartPoseError(double positionStandardDeviation, double headingStandardDeviation) {
+        if (positionStandardDeviation < 0 || headingStandardDeviation < 0) {
+            throw new IllegalArgumentException("Start pose error cannot be negative");
+        }
+        startPositionError = positionStandardDeviation;
+        startHeadingError = headingStandardDeviation;
+    }
+
+    /**
+     * <p>Sets the jitter of the control period, drawn from a normal distribution for every period.</p>
+     * @param standardDeviation The standard deviation of the period in seconds.
+     * */
+    public void setLoopJitter(double standardDeviation) {
+        if (standardDeviation < 0) {
+            throw new IllegalArgumentException("Loop jitter cannot be negative");
+        }
+        loopJitter = standardDeviation;
+    }
+
+    /**
+     * <p>
+     *     Sets the measure of how far the robot is from where it should be. It is sampled on the true pose
+     *     once every control period and the root mean square of the samples is reported for every run.
+     * </p>
+     * @param trackingErrorFunction The tracking error of a pose, e.g. {@link #pathDeviation(Point...)}, or null to not measure it.
+     * */
+    public void setTrackingErrorFunction(ToDoubleFunction<Pose2D> trackingErrorFunction) {
+        this.trackingErrorFunction = trackingErrorFunction;
+    }
+
+    /**
+     * <p>Creates a tracking error function measuring the distance of the robot from the closest point of a polyline.</p>
+     * @param points The points of the followed path.
+     * @return The tracking error function.
+     * */
+    public static ToDoubleFunction<Pose2D> pathDeviation(Point... points) {
+        if (points == null || points.length == 0) {
+            throw new IllegalArgumentException("At least one point is required");
+        }
+
+        final PointArray polyline = new PointArray(points);
+        return pose -> polyline.distanceToPolyline(pose.getX(), pose.getY());
+    }
+
+    // ----EVALUATION----
+
+    /**
+     * <p>Executes the given amount of runs in parallel.</p>
+     * @param runAmount The amount of runs.
+     * @param seed The seed the randomization of every run is derived from.
+     * @return The distributions of the runs.
+     * */
+    public Result run(int runAmount, long seed) {
+        if (runAmount <= 0) {
+            throw new IllegalArgumentException("Run amount must be positive");
+        }
+
+        final double[] completionTimes = new double[runAmount];
+        final double[] endpointErrors = new double[runAmount];
+        final double[] trackingErrors = new double[runAmount];
+        final boolean[] isCompleted = new boolean[runAmount];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RunTask(0, runAmount, seed, completionTimes, endpointErrors, trackingErrors, isCompleted));
+        } finally {
+            pool.shutdown();
+        }
+
+        int completedAmount = 0;
+        for (boolean completed : isCompleted) {
+            if (completed) completedAmount++;
+        }
+
+        return new Result(completionTimes, endpointErrors, trackingErrors, completedAmount);
+    }
+
+    /**
+     * <p>Executes a range of runs, splitting it in halves until it is small enough.</p>
+     * */
+    private class RunTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long seed;
+
+        private final double[] completionTimes;
+        private final double[] endpointErrors;
+        private final double[] trackingErrors;
+        private final boolean[] isCompleted;
+
+        RunTask(int from, int to, long seed, double[] completionTimes, double[] endpointErrors,
+                double[] trackingErrors, boolean[] isCompleted) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+            this.completionTimes = completionTimes;
+            this.endpointErrors = endpointErrors;
+            this.trackingErrors = trackingErrors;
+            this.isCompleted = isCompleted;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RUNS_PER_TASK) {
+                // Every run writes only its own slots, so the results need no synchronization.
+                for (int run = from; run < to; run++) {
+                    executeRun(run, seed, completionTimes, endpointErrors, trackingErrors, isCompleted);
+                }
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                    new RunTask(from, middle, seed, completionTimes, endpointErrors, trackingErrors, isCompleted),
+                    new RunTask(middle, to, seed, completionTimes, endpointErrors, trackingErrors, isCompleted));
+        }
+    }
+
+    private void executeRun(int run, long seed, double[] completionTimes, double[] endpointErrors,
+                            double[] trackingErrors, boolean[] isCompleted) {
+        final long runSeed = mixSeed(seed, run);
+        final Random random = new Random(runSeed);
+
+        DrivetrainSimulator simulator = simulatorFactory.create(new ManualClock(), ~runSeed);
+        if (encoderNoise > 0) simulator.setEncoderNoise(encoderNoise);
+        if (minTraction != Double.POSITIVE_INFINITY) {
+            simulator.setTractionLimit(minTraction + (maxTraction - minTraction) * random.nextDouble());
+        }
+        simulator.setPose(new Pose2D(
+                startPose.getX() + random.nextGaussian() * startPositionError,
+                startPose.getY() + random.nextGaussian() * startPositionError,
+                startPose.getTheta() + random.nextGaussian() * startHeadingError));
+
+        ControlLoop.Stage stage = routine.build(simulator);
+
+        final double timeStep = simulator.getTimeStep();
+        final double startTime = simulator.getElapsedTime();
+        boolean completed = false;
+
+        double trackingErrorSquaredSum = 0;
+        int trackingErrorSamples = 0;
+
+        while (simulator.getElapsedTime() - startTime < timeout) {
+            if (!stage.execute()) {
+                completed = true;
+                break;
+            }
+
+            if (trackingErrorFunction != null) {
+                final double error = trackingErrorFunction.applyAsDouble(simulator.getPose());
+                trackingErrorSquaredSum += error * error;
+                trackingErrorSamples++;
+            }
+
+            final double period = Math.max(timeStep, controlPeriod + (loopJitter > 0 ? random.nextGaussian() * loopJitter : 0));
+            final int steps = (int) (period / timeStep);
+            for (int i = 0; i < steps; i++) {
+                simulator.step();
+            }
+            // The jitter is usually far shorter than a time step, so the remainder is simulated instead of rounded away.
+            final double remainder = period - steps * timeStep;
+            if (remainder > 1e-9) simulator.step(remainder);
+        }
+
+        Pose2D endPose = simulator.getPose();
+        completionTimes[run] = completed ? simulator.getElapsedTime() - startTime : timeout;
+        endpointErrors[run] = Math.hypot(endPose.getX() - targetPose.getX(), endPose.getY() - targetPose.getY());
+        trackingErrors[run] = trackingErrorSamples == 0 ? 0 : Math.sqrt(trackingErrorSquaredSum / trackingErrorSamples);
+        isCompleted[run] = completed;
+    }
+
+    /**
+     * <p>Derives well spread seeds for consecutive runs.</p>
+     * */
+    private static long mixSeed(long seed, int run) {
+        long z = seed + (run + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
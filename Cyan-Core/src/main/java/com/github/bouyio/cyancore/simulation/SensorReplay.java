@@ -0,0 +1,327 @@
+package com.github.bouyio.cyancore.simulation;
+
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.debugger.TelemetryLogReader;
+import com.github.bouyio.cyancore.debugger.TelemetryRecorder;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.util.ManualClock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * <p>
+ *     Replays sensor samples recorded on the robot by a {@link TelemetryRecorder}, so the localization and following
+ *     of a run can be re-executed off the robot against the real inputs, e.g. to profile the follower or to compare
+ *     library versions.
+ * <p/>
+ * <p>
+ *     The samples are read through {@link #getSupplier(String)}, which returns the latest sample of a channel recorded
+ *     up to the end of the current loop of the replay. The suppliers are given to the measurement providers of the
+ *     localization systems in place of the hardware, e.g.
+ *     {@code new TankKinematics.MeasurementProvider(replay.getSupplier("Left Encoder"), replay.getSupplier("Right Encoder"), ticksToDistance)}.
+ *     With the clock of the replay injected to every time-dependent system and {@link #advance()} called before every
+ *     loop, the systems see the same inputs, loop by loop, as on the field.
+ * <p/>
+ * <p>
+ *     The samples are recorded on the robot by wrapping the sensor sources with {@link #recording(Logger, String, DoubleSupplier)}
+ *     and running a {@link #loopMarker(Logger)} at the start of every loop. The loop marks split the samples into loops:
+ *     every reading taken in a loop is replayed in the same loop, whenever within the loop it was taken.
+ *     The logger should be large enough for the recorder to keep up, as dropped samples cannot be replayed.
+ * <p/>
+ * <p>
+ *     The replay is also a {@link PositionProvider} of the recorded pose of the robot, read from the channels
+ *     logged by the localization systems.
+ * <p/>
+ * @see TelemetryLogReader
+ * */
+public class SensorReplay implements PositionProvider {
+
+    /** The channel of the loop marks logged by {@link #loopMarker(Logger)}; the default tick channel of the replay.*/
+    public static final String LOOP_CHANNEL = "Replay Loop";
+
+    /**
+     * <p>The samples of a single channel and the position of the replay within them.</p>
+     * */
+    private static class Series {
+        long[] timestamps = new long[256];
+        double[] values = new double[256];
+        int count = 0;
+        int cursor = 0;
+
+        void add(long timestamp, double value) {
+            if (count == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            timestamps[count] = timestamp;
+            values[count] = value;
+            count++;
+        }
+
+        /**
+         * @return The latest sample at the given time, or the first sample if the time is before it.
+         * */
+        double valueAt(long time) {
+            if (cursor > 0 && timestamps[cursor] > time) {
+                // The time moved backwards, e.g. the replay was restarted.
+                int index = Arrays.binarySearch(timestamps, 0, count, time);
+                cursor = Math.max(0, index >= 0 ? index : -index - 2);
+            }
+            while (cursor + 1 < count && timestamps[cursor + 1] <= time) {
+                cursor++;
+            }
+            return values[cursor];
+        }
+    }
+
+    private final ManualClock clock;
+    private final Map<String, Series> series = new LinkedHashMap<>();
+
+    private final long timeOffset;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+
+    private Series tickSeries;
+    private int tickIndex = -1;
+    // The samples recorded up to this time, the end of the current loop, are visible to the suppliers.
+    private long sampleTime;
+
+    private Series xSeries;
+    private Series ySeries;
+    private Series headingSeries;
+
+    // ----CONSTRUCTORS----
+
+    /**
+     * <p>
+     *     Loads the numeric channels of a log. The loops are marked by the {@link #LOOP_CHANNEL} if it was recorded;
+     *     otherwise a tick channel must be set before the replay is advanced.
+     * <p/>
+     * @param file The log.
+     * @param clock The clock of the replay; the recorded run starts at its current time.
+     * @throws IOException If the log cannot be read.
+     * @see #setTickChannel(String)
+     * */
+    public SensorReplay(File file, ManualClock clock) throws IOException {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+
+        final Map<Integer, Series> seriesById = new HashMap<>();
+        try (TelemetryLogReader reader = new TelemetryLogReader(file)) {
+            reader.readAll(new TelemetryLogReader.Visitor() {
+                @Override
+                public void onChannel(int id, byte type, String name) {
+                    if (type == TelemetryRecorder.TYPE_TEXT) return;
+                    Series channel = series.get(name);
+                    if (channel == null) {
+                        channel = new Series();
+                        series.put(name, channel);
+                    }
+                    seriesById.put(id, channel);
+                }
+
+                @Override
+                public void onDoubleColumn(int id, long[] timestamps, double[] values, int count) {
+                    Series channel = seriesById.get(id);
+                    for (int i = 0; i < count; i++) channel.add(timestamps[i], values[i]);
+                }
+
+                @Override
+                public void onLongColumn(int id, long[] timestamps, long[] values, int count) {
+                    Series channel = seriesById.get(id);
+                    for (int i = 0; i < count; i++) channel.add(timestamps[i], values[i]);
+                }
+            });
+        }
+
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (Series channel : series.values()) {
+            if (channel.count == 0) continue;
+            // Blocks hold the samples of each channel in order, but a channel may have been logged with both types.
+            sortIfNeeded(channel);
+            earliest = Math.min(earliest, channel.timestamps[0]);
+            latest = Math.max(latest, channel.timestamps[channel.count - 1]);
+        }
+        series.values().removeIf(channel -> channel.count == 0);
+        if (series.isEmpty()) {
+            throw new IOException(file + " contains no numeric samples");
+        }
+
+        firstTimestamp = earliest;
+        lastTimestamp = latest;
+        timeOffset = clock.nanoTime() - firstTimestamp;
+        sampleTime = firstTimestamp;
+        tickSeries = series.get(LOOP_CHANNEL);
+
+        setPoseChannels("robotX", "robotY", "robotHeading");
+    }
+
+    private static void sortIfNeeded(Series channel) {
+        for (int i = 1; i < channel.count; i++) {
+            if (channel.timestamps[i] < channel.timestamps[i - 1]) {
+                Integer[] order = new Integer[channel.count];
+                for (int j = 0; j < order.length; j++) order[j] = j;
+                final long[] timestamps = channel.timestamps;
+                Arrays.sort(order, (a, b) -> Long.compare(timestamps[a], timestamps[b]));
+
+                long[] sortedTimestamps = new long[channel.count];
+                double[] sortedValues = new double[channel.count];
+                for (int j = 0; j < order.length; j++) {
+                    sortedTimestamps[j] = channel.timestamps[order[j]];
+                    sortedValues[j] = channel.values[order[j]];
+                }
+                channel.timestamps = sortedTimestamps;
+                channel.values = sortedValues;
+                return;
+            }
+        }
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>
+     *     Sets the channel whose samples mark the loops of the recorded run, for logs recorded without loop marks.
+     *     The channel must be read once per loop, before any other recorded channel of the loop.
+     * <p/>
+     * @param name The name of the channel.
+     * */
+    public void setTickChannel(String name) {
+        tickSeries = requireSeries(name);
+        tickIndex = -1;
+    }
+
+    /**
+     * <p>Sets the channels of the recorded pose. Defaults to the channels logged by the localization systems.<p/>
+     * @param xChannel The channel of the x coordinate.
+     * @param yChannel The channel of the y coordinate.
+     * @param headingChannel The channel of the heading in Radians.
+     * */
+    public void setPoseChannels(String xChannel, String yChannel, String headingChannel) {
+        xSeries = series.get(xChannel);
+        ySeries = series.get(yChannel);
+        headingSeries = series.get(headingChannel);
+    }
+
+    private Series requireSeries(String name) {
+        Series channel = series.get(name);
+        if (channel == null) {
+            throw new IllegalArgumentException("No numeric samples recorded for channel: " + name);
+        }
+        return channel;
+    }
+
+    // ----REPLAY----
+
+    /**
+     * <p>
+     *     Advances the replay to the next recorded loop. The clock is moved to the start of the loop, the time of its
+     *     sample of the tick channel, while every channel returns the last sample recorded within the loop,
+     *     up to the next sample of the tick channel.
+     * <p/>
+     * @return False if the recorded run has ended.
+     * @throws IllegalStateException If the loops were not marked and no tick channel has been set.
+     * */
+    public boolean advance() {
+        if (tickSeries == null) {
+            throw new IllegalStateException("The log has no " + LOOP_CHANNEL + " channel; set a tick channel");
+        }
+        if (tickIndex + 1 >= tickSeries.count) return false;
+        tickIndex++;
+
+        // A sensor may be read several times in a loop; those readings share the tick of the loop.
+        while (tickIndex + 1 < tickSeries.count && tickSeries.timestamps[tickIndex + 1] == tickSeries.timestamps[tickIndex]) {
+            tickIndex++;
+        }
+
+        sampleTime = tickIndex + 1 < tickSeries.count ? tickSeries.timestamps[tickIndex + 1] - 1 : lastTimestamp;
+        clock.advanceTo(tickSeries.timestamps[tickIndex] + timeOffset);
+        return true;
+    }
+
+    /**
+     * @param name The name of the channel.
+     * @return A supplier of the latest sample of the channel recorded within the current loop.
+     * */
+    public DoubleSupplier getSupplier(String name) {
+        final Series channel = requireSeries(name);
+        return () -> channel.valueAt(sampleTime);
+    }
+
+    /**
+     * @param name The name of the channel.
+     * @return Whether numeric samples of the channel were recorded.
+     * */
+    public boolean hasChannel(String name) {
+        return series.containsKey(name);
+    }
+
+    /** @return The clock of the replay.*/
+    public ManualClock getClock() {
+        return clock;
+    }
+
+    /** @return The duration of the recorded run in seconds.*/
+    public double getDuration() {
+        return (lastTimestamp - firstTimestamp) * 1e-9;
+    }
+
+    // ----POSITION PROVIDER----
+
+    /**
+     * @return The last recorded pose of the robot within the current loop.
+     * */
+    @Override
+    public Pose2D getPose() {
+        if (xSeries == null || ySeries == null || headingSeries == null) {
+            throw new IllegalStateException("The pose of the robot was not recorded");
+        }
+        return new Pose2D(xSeries.valueAt(sampleTime), ySeries.valueAt(sampleTime), headingSeries.valueAt(sampleTime));
+    }
+
+    /**
+     * <p>Does nothing; the replay only advances with {@link #advance()}.<p/>
+     * */
+    @Override
+    public void update() {
+    }
+
+    // ----RECORDING----
+
+    /**
+     * <p>Wraps a sensor source so every reading is logged, to be replayed later.<p/>
+     * @param logger The logger recorded by a {@link TelemetryRecorder}.
+     * @param channel The name of the channel of the sensor.
+     * @param source The sensor source.
+     * @return The wrapped source.
+     * */
+    public static DoubleSupplier recording(Logger logger, String channel, DoubleSupplier source) {
+        final int handle = logger.registerChannel(channel);
+        return () -> {
+            final double value = source.getAsDouble();
+            logger.logValue(handle, value);
+            return value;
+        };
+    }
+
+    /**
+     * <p>Creates a marker of the loops of the recorded run, to be run at the start of every loop before any sensor is read.<p/>
+     * @param logger The logger recorded by a {@link TelemetryRecorder}.
+     * @return The marker, logging the index of the loop to the {@link #LOOP_CHANNEL}.
+     * */
+    public static Runnable loopMarker(Logger logger) {
+        final int handle = logger.registerChannel(LOOP_CHANNEL);
+        final long[] loop = {0};
+        return () -> logger.logValue(handle, loop[0]++);
+    }
+}
@@ -0,0 +1,320 @@
+package com.github.bouyio.cyancore.test;
+
+import com.github.bouyio.cyancore.debugger.AllocationMeter;
+import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.localization.TankKinematics;
+import com.github.bouyio.cyancore.localization.ThreeDeadWheelOdometry;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.pathing.engine.MecanumDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.PathFollower;
+import com.github.bouyio.cyancore.pathing.engine.TankDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.VectorInterpreter;
+import com.github.bouyio.cyancore.simulation.DrivetrainSimulator;
+import com.github.bouyio.cyancore.util.Distance;
+import com.github.bouyio.cyancore.util.PIDCoefficients;
+import com.github.bouyio.cyancore.util.PIDController;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Allocation regression test of the steady-state control loop.
+ * Runs the full follower pipeline (odometry update, circle line intersection target selection,
+ * power calculation and vector interpretation) on a {@link DrivetrainSimulator} for thousands of ticks
+ * and fails if its ticks allocate more than their budget.
+ *
+ * A tick fits its budget if it allocates no more than the budget. A scenario passes if its mean allocation
+ * per tick fits the budget and no more than {@link #ALLOWED_OUTLIER_TICKS} of its ticks exceed it. The few
+ * outliers are tolerated because the JIT may compile or deoptimize mid-run and allocate within a single tick;
+ * a regression of the hot path exceeds the budget on most ticks and still fails.
+ *
+ * Only the pipeline is measured, not the simulation. Every scenario is run a few times before the
+ * measured run so the JIT has compiled the hot path, and the first ticks of the measured run are skipped
+ * so the path is tracked in its steady state.
+ *
+ * The budgets are the allocations of the pipeline today plus a small margin. Lower them whenever
+ * the hot path allocates less, down to zero once it is garbage-free, so it cannot regress.
+ *
+ * Requires a JVM providing {@code com.sun.management.ThreadMXBean}; the test is skipped elsewhere.
+ */
+public class AllocationBudgetTest {
+
+    /** Budget of a tick of tank path following in bytes. */
+    static final long TANK_PATH_BUDGET = 1_300;
+
+    /** Budget of a tick of mecanum path following in bytes. */
+    static final long MECANUM_PATH_BUDGET = 650;
+
+    private static final int WARM_UP_RUNS = 5;
+    private static final int SKIPPED_TICKS = 500;
+    private static final int MEASURED_TICKS = 2_000;
+
+    /** Ticks allowed over budget, half a percent of the measured ones. */
+    private static final int ALLOWED_OUTLIER_TICKS = MEASURED_TICKS / 200;
+
+    private static final double CONTROL_PERIOD = 0.02;
+
+    private static int failures = 0;
+
+    /**
+     * A pipeline under test and its simulator.
+     */
+    private static class Scenario {
+        final DrivetrainSimulator simulator;
+        final PathFollower follower;
+        final Path path;
+
+        Scenario(DrivetrainSimulator simulator, PathFollower follower, Path path) {
+            this.simulator = simulator;
+            this.follower = follower;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Main test runner - executes all allocation budget tests
+     */
+    public static void main(String[] args) {
+        System.out.println("🚀 Starting Cyan Core Allocation Budget Tests");
+        System.out.println("==============================================\n");
+
+        if (!AllocationMeter.isSupported()) {
+            System.out.println("⚠ Allocations cannot be measured on this JVM, skipping.");
+            return;
+        }
+
+        testTankPathBudget();
+        testMecanumPathBudget();
+        testConvertedPathBudget();
+
+        if (failures > 0) {
+            throw new AssertionError(failures + " allocation budget(s) exceeded");
+        }
+        System.out.println("✅ All allocation budgets respected!");
+    }
+
+    /**
+     * Test the allocations of tank drive path following with drive encoder odometry
+     */
+    public static void testTankPathBudget() {
+        System.out.println("=== Testing Tank Path Following Budget ===");
+        checkBudget("Tank path following", TANK_PATH_BUDGET, simulator -> {
+            TankKinematics odometry = new TankKinematics(0.4, Distance.DistanceUnit.METER,
+                    simulator.createTankMeasurementProvider());
+            odometry.setClock(simulator.getClock());
+
+            TankDriveVectorInterpreter interpreter = new TankDriveVectorInterpreter(
+                    false, TankDriveVectorInterpreter.TankReverseSideParameters.RIGHT);
+            return createFollower(simulator, odometry, interpreter);
+        }, DrivetrainSimulator.DriveType.TANK);
+        System.out.println();
+    }
+
+    /**
+     * Test the allocations of mecanum drive path following with three dead wheel odometry
+     */
+    public static void testMecanumPathBudget() {
+        System.out.println("=== Testing Mecanum Path Following Budget ===");
+        checkBudget("Mecanum path following", MECANUM_PATH_BUDGET, simulator -> {
+            simulator.setDeadWheelWidth(0.3);
+            ThreeDeadWheelOdometry odometry = new ThreeDeadWheelOdometry(0.3, Distance.DistanceUnit.METER,
+                    simulator.createThreeDeadWheelMeasurementProvider());
+            odometry.setClock(simulator.getClock());
+
+            MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(odometry);
+            interpreter.holdHeading(0);
+            return createFollower(simulator, odometry, interpreter);
+        }, DrivetrainSimulator.DriveType.MECANUM);
+        System.out.println();
+    }
+
+    /**
+     * Test that following a path declared in another unit than the follower allocates no more than the
+     * same path declared in the unit of the follower
+     */
+    public static void testConvertedPathBudget() {
+        System.out.println("=== Testing Unit Converted Path Following Budget ===");
+        Function<DrivetrainSimulator, Scenario> convertedFactory =
+                simulator -> createUnitScenario(simulator, Distance.DistanceUnit.CM);
+        Function<DrivetrainSimulator, Scenario> sameUnitFactory =
+                simulator -> createUnitScenario(simulator, Distance.DistanceUnit.METER);
+
+        if (checkBudget("Unit converted path following", MECANUM_PATH_BUDGET, convertedFactory,
+                DrivetrainSimulator.DriveType.MECANUM) == null) {
+            System.out.println();
+            return;
+        }
+
+        // Both paths are followed in lockstep, so the JIT optimizes them alike during the measurement.
+        long[][] allocations = measureInLockstep(convertedFactory, sameUnitFactory, DrivetrainSimulator.DriveType.MECANUM);
+        if (allocations == null) {
+            System.out.println("❌ ERROR: Unit converted path following finished the path before the measurement ended");
+            failures++;
+            System.out.println();
+            return;
+        }
+        final long[] converted = allocations[0];
+        final long[] sameUnit = allocations[1];
+
+        // The medians are compared, as the outlier ticks of either run would otherwise decide the result.
+        final long convertedMedian = median(converted);
+        final long sameUnitMedian = median(sameUnit);
+        System.out.println("  - Median allocated per tick: " + convertedMedian + " B, in the unit of the follower: "
+                + sameUnitMedian + " B");
+        if (convertedMedian > sameUnitMedian) {
+            System.out.println("❌ ERROR: Unit converted path following allocates more than the same path in the unit of the follower");
+            failures++;
+        } else {
+            System.out.println("✓ Unit converted path following allocates no more than the same path in the unit of the follower");
+        }
+        System.out.println();
+    }
+
+    /**
+     * A mecanum follower working in meters following the loop path declared in the given unit.
+     */
+    private static Scenario createUnitScenario(DrivetrainSimulator simulator, Distance.DistanceUnit pathUnit) {
+        simulator.setDeadWheelWidth(0.3);
+        ThreeDeadWheelOdometry odometry = new ThreeDeadWheelOdometry(0.3, Distance.DistanceUnit.METER,
+                simulator.createThreeDeadWheelMeasurementProvider());
+        odometry.setClock(simulator.getClock());
+
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(odometry);
+        interpreter.holdHeading(0);
+        Scenario scenario = createFollower(simulator, odometry, interpreter, pathUnit);
+        scenario.follower.setDistanceUnitOfMeasurement(Distance.DistanceUnit.METER);
+        return scenario;
+    }
+
+    private static Scenario createFollower(DrivetrainSimulator simulator, PositionProvider odometry,
+                                           VectorInterpreter interpreter) {
+        return createFollower(simulator, odometry, interpreter, Distance.DistanceUnit.METER);
+    }
+
+    private static Scenario createFollower(DrivetrainSimulator simulator, PositionProvider odometry,
+                                           VectorInterpreter interpreter, Distance.DistanceUnit pathUnit) {
+        PathFollower follower = new PathFollower(odometry, interpreter,
+                new PIDController(new PIDCoefficients(1, 0, 0), simulator.getClock()));
+        follower.purePursuitSetUp(0.3, 0.05);
+        follower.setDistanceErrorTolerance(0.05);
+        return new Scenario(simulator, follower, createLoopPath(pathUnit));
+    }
+
+    /**
+     * A path circling a two meter square many times, long enough for every measured tick to be spent on it.
+     */
+    private static Path createLoopPath(Distance.DistanceUnit unit) {
+        final int laps = 20;
+        final double side = new Distance(2, Distance.DistanceUnit.METER).convertTo(unit);
+        Point[] points = new Point[laps * 4 + 1];
+        points[0] = new Point(0, 0);
+        for (int lap = 0; lap < laps; lap++) {
+            points[lap * 4 + 1] = new Point(side, 0);
+            points[lap * 4 + 2] = new Point(side, side);
+            points[lap * 4 + 3] = new Point(0, side);
+            points[lap * 4 + 4] = new Point(0, 0);
+        }
+        Path path = new Path(points);
+        path.setDistanceUnitOfMeasurement(unit);
+        return path;
+    }
+
+    /**
+     * @return The bytes allocated by each measured tick, or null if the budget could not be checked.
+     */
+    private static long[] checkBudget(String name, long budget, Function<DrivetrainSimulator, Scenario> factory,
+                                      DrivetrainSimulator.DriveType driveType) {
+        long[] allocations = measureWarm(factory, driveType);
+
+        if (allocations == null) {
+            System.out.println("❌ ERROR: " + name + " finished the path before the measurement ended");
+            failures++;
+            return null;
+        }
+
+        long total = 0;
+        long max = 0;
+        int ticksOverBudget = 0;
+        for (long bytes : allocations) {
+            total += bytes;
+            max = Math.max(max, bytes);
+            if (bytes > budget) ticksOverBudget++;
+        }
+        final double mean = (double) total / allocations.length;
+
+        System.out.println("  - Mean allocated per tick: " + String.format("%.1f", mean) + " B");
+        System.out.println("  - Max allocated per tick: " + max + " B");
+        System.out.println("  - Ticks over budget: " + ticksOverBudget + " (" + ALLOWED_OUTLIER_TICKS + " allowed)");
+        if (mean > budget || ticksOverBudget > ALLOWED_OUTLIER_TICKS) {
+            System.out.println("❌ ERROR: " + name + " exceeded its budget of " + budget + " B per tick");
+            failures++;
+        } else {
+            System.out.println("✓ " + name + " within its budget of " + budget + " B per tick");
+        }
+        return allocations;
+    }
+
+    /**
+     * @return The bytes allocated by each measured tick after the warm up runs, or null if the path finished before the last one.
+     */
+    private static long[] measureWarm(Function<DrivetrainSimulator, Scenario> factory, DrivetrainSimulator.DriveType driveType) {
+        for (int run = 0; run < WARM_UP_RUNS; run++) {
+            measure(factory.apply(new DrivetrainSimulator(driveType, 0.4, 1.5)));
+        }
+        long[][] allocations = measure(factory.apply(new DrivetrainSimulator(driveType, 0.4, 1.5)));
+        return allocations == null ? null : allocations[0];
+    }
+
+    /**
+     * @return The bytes allocated by each measured tick of the two scenarios after the warm up runs,
+     * or null if either path finished before the last one.
+     */
+    private static long[][] measureInLockstep(Function<DrivetrainSimulator, Scenario> first,
+                                              Function<DrivetrainSimulator, Scenario> second,
+                                              DrivetrainSimulator.DriveType driveType) {
+        for (int run = 0; run <= WARM_UP_RUNS; run++) {
+            long[][] allocations = measure(
+                    first.apply(new DrivetrainSimulator(driveType, 0.4, 1.5)),
+                    second.apply(new DrivetrainSimulator(driveType, 0.4, 1.5)));
+            if (run == WARM_UP_RUNS) return allocations;
+        }
+        return null;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Runs the scenarios tick by tick, one tick of every scenario in turn.
+     * @return The bytes allocated by each measured tick of every scenario, or null if any path finished before the last one.
+     */
+    private static long[][] measure(Scenario... scenarios) {
+        final AllocationMeter meter = new AllocationMeter();
+        final long[][] allocations = new long[scenarios.length][MEASURED_TICKS];
+
+        for (int tick = 0; tick < SKIPPED_TICKS + MEASURED_TICKS; tick++) {
+            for (int i = 0; i < scenarios.length; i++) {
+                final Scenario scenario = scenarios[i];
+                final DrivetrainSimulator simulator = scenario.simulator;
+
+                final long before = meter.getAllocatedBytes();
+                scenario.follower.followPath(scenario.path);
+                simulator.setMotorPowers(scenario.follower.getCalculatedPowers());
+                final long after = meter.getAllocatedBytes();
+
+                if (tick >= SKIPPED_TICKS) allocations[i][tick - SKIPPED_TICKS] = after - before;
+                if (scenario.path.isPathFinished(simulator.getPose())) return null;
+
+                final int stepsPerPeriod = Math.max(1, (int) Math.round(CONTROL_PERIOD / simulator.getTimeStep()));
+                for (int step = 0; step < stepsPerPeriod; step++) {
+                    simulator.step();
+                }
+            }
+        }
+        return allocations;
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.bouyio.cyancore.test;
+
+import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.ThreeDeadWheelOdometry;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.pathing.engine.FinalApproachController;
+import com.github.bouyio.cyancore.pathing.engine.MecanumDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.PathFollower;
+import com.github.bouyio.cyancore.simulation.DrivetrainSimulator;
+import com.github.bouyio.cyancore.util.Distance;
+import com.github.bouyio.cyancore.util.PIDCoefficients;
+import com.github.bouyio.cyancore.util.PIDController;
+
+/**
+ * Closed loop test of the heading modes of {@link MecanumDriveVectorInterpreter}.
+ * Drives a simulated mecanum drivetrain with the interpreter reading the true pose of the simulator
+ * and fails if the heading does not settle where the selected mode should keep it.
+ */
+public class HeadingControlTest {
+
+    private static final double CONTROL_PERIOD = 0.02;
+    private static final double DURATION = 5;
+    private static final double PATH_TIMEOUT = 15;
+    private static final double HEADING_TOLERANCE = Math.toRadians(2);
+
+    private static int failures = 0;
+
+    /**
+     * Main test runner - executes all heading control tests
+     */
+    public static void main(String[] args) {
+        System.out.println("🚀 Starting Cyan Core Heading Control Tests");
+        System.out.println("===========================================\n");
+
+        testHoldHeading();
+        testFacePoint();
+        testNoHeadingControl();
+        testEndHeading();
+
+        if (failures > 0) {
+            throw new AssertionError(failures + " heading control test(s) failed");
+        }
+        System.out.println("✅ All heading control tests passed!");
+    }
+
+    /**
+     * Test that holding a heading turns the robot onto it from either side
+     */
+    public static void testHoldHeading() {
+        System.out.println("=== Testing Hold Heading ===");
+        for (double target : new double[] {0.5, -1.0, 3.0}) {
+            DrivetrainSimulator simulator = createSimulator();
+            MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(simulator);
+            interpreter.holdHeading(target);
+
+            run(simulator, interpreter);
+            check("Hold heading " + target, target, simulator.getPose().getTheta());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Test that facing a point turns the robot towards it
+     */
+    public static void testFacePoint() {
+        System.out.println("=== Testing Face Point ===");
+        DrivetrainSimulator simulator = createSimulator();
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(simulator);
+        interpreter.facePoint(new Point(-1, 1));
+
+        run(simulator, interpreter);
+        check("Face point (-1, 1)", Math.atan2(1, -1), simulator.getPose().getTheta());
+        System.out.println();
+    }
+
+    /**
+     * Test that the default mode ignores the heading component of the command
+     */
+    public static void testNoHeadingControl() {
+        System.out.println("=== Testing Default Heading Mode ===");
+        DrivetrainSimulator simulator = createSimulator();
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(simulator);
+
+        for (double time = 0; time < DURATION; time += CONTROL_PERIOD) {
+            interpreter.process(new Pose2D(0, 0, 1));
+            step(simulator, interpreter);
+        }
+        check("Default mode", 0, simulator.getPose().getTheta());
+        System.out.println();
+    }
+
+    /**
+     * Test that the default mode turns the robot to the end heading of a path during the final approach,
+     * so the path settles and finishes
+     */
+    public static void testEndHeading() {
+        System.out.println("=== Testing End Heading In Default Mode ===");
+        DrivetrainSimulator simulator = createSimulator();
+        simulator.setDeadWheelWidth(0.3);
+        ThreeDeadWheelOdometry odometry = new ThreeDeadWheelOdometry(0.3, Distance.DistanceUnit.METER,
+                simulator.createThreeDeadWheelMeasurementProvider());
+        odometry.setClock(simulator.getClock());
+
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(odometry);
+        PathFollower follower = new PathFollower(odometry, interpreter,
+                new PIDController(new PIDCoefficients(1, 0, 0), simulator.getClock()));
+        follower.purePursuitSetUp(0.3, 0.05);
+        follower.setDistanceErrorTolerance(0.05);
+
+        FinalApproachController finalApproach = new FinalApproachController(
+                new PIDController(new PIDCoefficients(3, 0, 0), simulator.getClock()),
+                new PIDController(new PIDCoefficients(2, 0, 0), simulator.getClock()),
+                FinalApproachController.DriveType.HOLONOMIC, 0.4);
+        finalApproach.setClock(simulator.getClock());
+        finalApproach.setDecelerationProfile(1.5, 3);
+        follower.finalApproachSetUp(finalApproach);
+
+        final double endHeading = Math.PI / 2;
+        Path path = new Path(new Point(0, 0), new Point(1, 0), new Point(1, 1));
+        path.setEndHeading(endHeading);
+
+        double time = 0;
+        while (time < PATH_TIMEOUT && !path.isPathFinished(odometry.getPose())) {
+            follower.followPath(path);
+            simulator.setMotorPowers(follower.getCalculatedPowers());
+            step(simulator, null);
+            time += CONTROL_PERIOD;
+        }
+
+        if (time >= PATH_TIMEOUT) {
+            System.out.println("❌ ERROR: Path with an end heading did not finish, robot at " + simulator.getPose());
+            failures++;
+        } else {
+            System.out.println("  - Path with an end heading finished in " + String.format("%.2f", time) + " s");
+            check("End heading", endHeading, simulator.getPose().getTheta());
+        }
+        System.out.println();
+    }
+
+    private static DrivetrainSimulator createSimulator() {
+        return new DrivetrainSimulator(DrivetrainSimulator.DriveType.MECANUM, 0.4, 1.5);
+    }
+
+    private static void run(DrivetrainSimulator simulator, MecanumDriveVectorInterpreter interpreter) {
+        for (double time = 0; time < DURATION; time += CONTROL_PERIOD) {
+            interpreter.process(new Pose2D(0, 0, 0));
+            step(simulator, interpreter);
+        }
+    }
+
+    private static void step(DrivetrainSimulator simulator, MecanumDriveVectorInterpreter interpreter) {
+        if (interpreter != null) simulator.drive(interpreter);
+        final int stepsPerPeriod = Math.max(1, (int) Math.round(CONTROL_PERIOD / simulator.getTimeStep()));
+        for (int i = 0; i < stepsPerPeriod; i++) {
+            simulator.step();
+        }
+    }
+
+    private static void check(String name, double expected, double actual) {
+        final double error = Math.abs(Math.atan2(Math.sin(actual - expected), Math.cos(actual - expected)));
+        System.out.println("  - " + name + ": heading " + String.format("%.4f", actual) + " rad");
+        if (error > HEADING_TOLERANCE) {
+            System.out.println("❌ ERROR: " + name + " ended " + String.format("%.4f", error) + " rad from its target");
+            failures++;
+        } else {
+            System.out.println("✓ " + name + " settled within tolerance");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.bouyio.cyancore.test;
+
+import com.github.bouyio.cyancore.geomery.Point;
+import com.github.bouyio.cyancore.geomery.Pose2D;
+import com.github.bouyio.cyancore.localization.MecanumKinematics;
+import com.github.bouyio.cyancore.localization.ThreeDeadWheelOdometry;
+import com.github.bouyio.cyancore.pathing.Path;
+import com.github.bouyio.cyancore.pathing.engine.FinalApproachController;
+import com.github.bouyio.cyancore.pathing.engine.MecanumDriveVectorInterpreter;
+import com.github.bouyio.cyancore.pathing.engine.PathFollower;
+import com.github.bouyio.cyancore.simulation.DrivetrainSimulator;
+import com.github.bouyio.cyancore.util.Distance;
+import com.github.bouyio.cyancore.util.PIDCoefficients;
+import com.github.bouyio.cyancore.util.PIDController;
+
+/**
+ * Closed loop test of the translation of {@link MecanumDriveVectorInterpreter}.
+ * Drives a simulated mecanum drivetrain and fails if the robot does not move in the field direction it was
+ * commanded to, if the mecanum odometry disagrees with the simulator or if a path is not finished on its last point.
+ */
+public class MecanumTranslationTest {
+
+    private static final double CONTROL_PERIOD = 0.02;
+    private static final double DRIVE_DURATION = 1;
+    private static final double PATH_TIMEOUT = 15;
+
+    private static final double DIRECTION_TOLERANCE = Math.toRadians(5);
+    private static final double HEADING_TOLERANCE = Math.toRadians(2);
+    private static final double POSITION_TOLERANCE = 0.05;
+
+    private static int failures = 0;
+
+    /**
+     * Main test runner - executes all mecanum translation tests
+     */
+    public static void main(String[] args) {
+        System.out.println("🚀 Starting Cyan Core Mecanum Translation Tests");
+        System.out.println("===============================================\n");
+
+        testFieldCentricTranslation();
+        testMecanumKinematics();
+        testPathFollowing();
+
+        if (failures > 0) {
+            throw new AssertionError(failures + " mecanum translation test(s) failed");
+        }
+        System.out.println("✅ All mecanum translation tests passed!");
+    }
+
+    /**
+     * Test that a field-centric command moves the robot in its direction whatever the heading of the robot
+     */
+    public static void testFieldCentricTranslation() {
+        System.out.println("=== Testing Field-Centric Translation ===");
+        final double[][] directions = {{1, 0}, {0, 1}, {-1, -1}};
+        for (double heading : new double[] {0, Math.PI / 2, -2.0}) {
+            for (double[] direction : directions) {
+                DrivetrainSimulator simulator = createSimulator();
+                simulator.setPose(new Pose2D(0, 0, heading));
+                MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(simulator);
+                interpreter.holdHeading(heading);
+
+                for (double time = 0; time < DRIVE_DURATION; time += CONTROL_PERIOD) {
+                    interpreter.process(new Pose2D(direction[0], direction[1], 0));
+                    step(simulator, interpreter);
+                }
+
+                final String name = "Drive (" + direction[0] + ", " + direction[1] + ") at heading "
+                        + String.format("%.2f", heading);
+                final Pose2D pose = simulator.getPose();
+                checkAngle(name + " direction", Math.atan2(direction[1], direction[0]),
+                        Math.atan2(pose.getY(), pose.getX()), DIRECTION_TOLERANCE);
+                checkAngle(name + " heading", heading, pose.getTheta(), HEADING_TOLERANCE);
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Test that the mecanum wheel odometry tracks the robot while it translates at a turned heading
+     */
+    public static void testMecanumKinematics() {
+        System.out.println("=== Testing Mecanum Kinematics ===");
+        DrivetrainSimulator simulator = createSimulator();
+        MecanumKinematics odometry = new MecanumKinematics(0.4, Distance.DistanceUnit.METER,
+                simulator.createMecanumMeasurementProvider());
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(simulator);
+        interpreter.holdHeading(1);
+
+        for (double time = 0; time < 3 * DRIVE_DURATION; time += CONTROL_PERIOD) {
+            odometry.update();
+            interpreter.process(time < DRIVE_DURATION ? new Pose2D(0, 0, 0) : new Pose2D(1, 1, 0));
+            step(simulator, interpreter);
+        }
+        odometry.update();
+
+        checkPosition("Mecanum kinematics", simulator.getPose(), odometry.getPose());
+        System.out.println();
+    }
+
+    /**
+     * Test that path following finishes on the last point of the path
+     */
+    public static void testPathFollowing() {
+        System.out.println("=== Testing Path Following ===");
+        checkPath("Straight path", new Point(0, 0), new Point(1, 0), new Point(2, 0));
+        checkPath("Turning path", new Point(0, 0), new Point(1, 0), new Point(1, 1));
+        checkPath("Diagonal path", new Point(0, 0), new Point(1, 1), new Point(0, 2));
+        System.out.println();
+    }
+
+    private static void checkPath(String name, Point... points) {
+        DrivetrainSimulator simulator = createSimulator();
+        simulator.setDeadWheelWidth(0.3);
+        ThreeDeadWheelOdometry odometry = new ThreeDeadWheelOdometry(0.3, Distance.DistanceUnit.METER,
+                simulator.createThreeDeadWheelMeasurementProvider());
+        odometry.setClock(simulator.getClock());
+
+        MecanumDriveVectorInterpreter interpreter = new MecanumDriveVectorInterpreter(odometry);
+        interpreter.holdHeading(0);
+
+        PathFollower follower = new PathFollower(odometry, interpreter,
+                new PIDController(new PIDCoefficients(1, 0, 0), simulator.getClock()));
+        follower.purePursuitSetUp(0.3, 0.05);
+        follower.setDistanceErrorTolerance(0.05);
+
+        FinalApproachController finalApproach = new FinalApproachController(
+                new PIDController(new PIDCoefficients(3, 0, 0), simulator.getClock()),
+                new PIDController(new PIDCoefficients(2, 0, 0), simulator.getClock()),
+                FinalApproachController.DriveType.HOLONOMIC, 0.4);
+        finalApproach.setClock(simulator.getClock());
+        finalApproach.setDecelerationProfile(1.5, 3);
+        follower.finalApproachSetUp(finalApproach);
+
+        Path path = new Path(points);
+        double time = 0;
+        while (time < PATH_TIMEOUT && !path.isPathFinished(odometry.getPose())) {
+            follower.followPath(path);
+            simulator.setMotorPowers(follower.getCalculatedPowers());
+            step(simulator, null);
+            time += CONTROL_PERIOD;
+        }
+
+        if (time >= PATH_TIMEOUT) {
+            System.out.println("❌ ERROR: " + name + " did not finish, robot at " + simulator.getPose());
+            failures++;
+            return;
+        }
+        System.out.println("  - " + name + " finished in " + String.format("%.2f", time) + " s");
+        checkPosition(name, points[points.length - 1].getAsPose(), simulator.getPose());
+    }
+
+    private static DrivetrainSimulator createSimulator() {
+        return new DrivetrainSimulator(DrivetrainSimulator.DriveType.MECANUM, 0.4, 1.5);
+    }
+
+    private static void step(DrivetrainSimulator simulator, MecanumDriveVectorInterpreter interpreter) {
+        if (interpreter != null) simulator.drive(interpreter);
+        final int stepsPerPeriod = Math.max(1, (int) Math.round(CONTROL_PERIOD / simulator.getTimeStep()));
+        for (int i = 0; i < stepsPerPeriod; i++) {
+            simulator.step();
+        }
+    }
+
+    private static void checkAngle(String name, double expected, double actual, double tolerance) {
+        final double error = Math.abs(Math.atan2(Math.sin(actual - expected), Math.cos(actual - expected)));
+        if (error > tolerance) {
+            System.out.println("❌ ERROR: " + name + " was " + String.format("%.4f", error) + " rad off");
+            failures++;
+        } else {
+            System.out.println("✓ " + name + " within tolerance");
+        }
+    }
+
+    private static void checkPosition(String name, Pose2D expected, Pose2D actual) {
+        final double error = Math.hypot(actual.getX() - expected.getX(), actual.getY() - expected.getY());
+        if (error > POSITION_TOLERANCE) {
+            System.out.println("❌ ERROR: " + name + " ended " + String.format("%.4f", error) + " from " + expected);
+            failures++;
+        } else {
+            System.out.println("✓ " + name + " within " + POSITION_TOLERANCE + " of its expected position");
+        }
+    }
+}
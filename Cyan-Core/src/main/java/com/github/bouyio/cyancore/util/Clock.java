@@ -0,0 +1,27 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     A source of monotonic time used by every time-dependent system of the library.
+ *     The default implementation, {@link Clocks#SYSTEM}, uses {@link System#nanoTime()}.
+ *     A {@link ManualClock} can be injected instead so simulations and tests run deterministically
+ *     and faster than real time.
+ * </p>
+ * @see Clocks
+ * @see ManualClock
+ * */
+@FunctionalInterface
+public interface Clock {
+
+    /**
+     * @return The current time in nanoseconds. Only differences between two readings are meaningful.
+     * */
+    long nanoTime();
+
+    /**
+     * @return The current time in seconds. Only differences between two readings are meaningful.
+     * */
+    default double seconds() {
+        return nanoTime() * 1e-9;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>Contains the globally shared clock used by systems that have not been given a clock explicitly.<p/>
+ * @see Clock
+ * */
+public class Clocks {
+
+    /** The system monotonic clock, backed by {@link System#nanoTime()}.*/
+    public static final Clock SYSTEM = System::nanoTime;
+
+    private static Clock globalClock = SYSTEM;
+
+    /**
+     * <p>
+     *     Replaces the global clock. Only affects systems created afterwards,
+     *     so it should be called before any system is created.
+     * <p/>
+     * @param clock The new global clock.
+     * */
+    public static void setGlobalClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        globalClock = clock;
+    }
+
+    /**@return The global clock.*/
+    public static Clock getGlobalClock() {
+        return globalClock;
+    }
+}
@@ -1,7 +1,5 @@
 package com.github.bouyio.cyancore.util;
 
-import java.lang.reflect.Field;
-
 /**
  * This class represents linear distances with their respective distance unit.
  * This class contains methods to convert to any supported unit; centimeters, meters, inches, feet.
@@ -39,6 +37,11 @@ public class Distance {
         this.unitOfMeasurement = unit;
     }
 
+    private Distance(double value, DistanceUnit unit, boolean unchecked) {
+        this.value = value;
+        this.unitOfMeasurement = unit;
+    }
+
     /**
      * <p>Creates a Distance object with maximum performance (no validation).<p/>
      * <p><strong>WARNING:</strong> Use only when you're certain inputs are valid!</p>
@@ -47,21 +50,21 @@ public class Distance {
      * @return New Distance object
      */
     public static Distance createUnsafe(double value, DistanceUnit unit) {
-        // Fastest possible creation - bypasses all validation
-        Distance d = new Distance(0, DistanceUnit.METER);
-        // Direct field access for maximum speed
-        try {
-            Field valueField = Distance.class.getDeclaredField("value");
-            Field unitField = Distance.class.getDeclaredField("unitOfMeasurement");
-            valueField.setAccessible(true);
-            unitField.setAccessible(true);
-            valueField.setDouble(d, value);
-            unitField.set(d, unit);
-            return d;
-        } catch (NoSuchFieldException | IllegalAccessException | SecurityException e) {
-            // Fallback: still faster than validation
-            return new Distance(value, unit);
+        return new Distance(value, unit, true);
+    }
+
+    /**
+     * <p>Converts a raw value between two units of measurement without creating Distance objects.<p/>
+     * @param value The value in the source unit.
+     * @param from The source unit.
+     * @param to The target unit.
+     * @return The value in the target unit.
+     * */
+    public static double convert(double value, DistanceUnit from, DistanceUnit to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Units cannot be null");
         }
+        return value * from.toMeters / to.toMeters;
     }
 
     /**
@@ -144,9 +147,7 @@ public class Distance {
             throw new IllegalArgumentException("Target unit cannot be null");
         }
         
-        // Optimized: Use direct calculation instead of switch for better performance
-        double thisInMeters = value * unitOfMeasurement.toMeters;
-        return thisInMeters / unit.toMeters;
+        return convert(value, unitOfMeasurement, unit);
     }
 
     /**@return The raw value of the distance object.*/
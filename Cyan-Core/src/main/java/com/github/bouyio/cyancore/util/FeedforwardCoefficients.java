@@ -0,0 +1,35 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     Stores the coefficients of the drivetrain feedforward model
+ *     {@code kS·sgn(v) + kV·v + kA·a}.
+ * <p/>
+ * @see PIDCoefficients
+ * */
+public class FeedforwardCoefficients {
+    public FeedforwardCoefficients(double kS, double kV, double kA) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+    }
+
+    public FeedforwardCoefficients() {}
+
+    /** The power needed to overcome static friction.*/
+    public double kS = 0.0;
+    /** The power needed per unit of velocity.*/
+    public double kV = 0.0;
+    /** The power needed per unit of acceleration.*/
+    public double kA = 0.0;
+
+    /**
+     * <p>Calculates the feedforward power for the given target motion.<p/>
+     * @param velocity The target velocity.
+     * @param acceleration The target acceleration.
+     * @return The feedforward power.
+     * */
+    public double calculate(double velocity, double acceleration) {
+        return kS * Math.signum(velocity) + kV * velocity + kA * acceleration;
+    }
+}
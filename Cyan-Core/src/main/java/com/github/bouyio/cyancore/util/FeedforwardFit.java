@@ -0,0 +1,129 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     Fits the coefficients of the feedforward model {@code power = kS·sgn(v) + kV·v + kA·a}
+ *     to streamed samples with ordinary least squares.
+ *     Only the running sums of the normal equations are kept, so any amount of samples
+ *     can be added without storing them.
+ * </p>
+ * @see FeedforwardCoefficients
+ * */
+public class FeedforwardFit {
+
+    // Sums of the products of the regressors s = sgn(v), v and a and the output p.
+    private double sumSS, sumSV, sumSA, sumVV, sumVA, sumAA;
+    private double sumSP, sumVP, sumAP, sumPP;
+    private long sampleCount = 0;
+
+    /**
+     * <p>Adds a sample to the fit.</p>
+     * @param power The power that was applied.
+     * @param velocity The measured velocity.
+     * @param acceleration The measured acceleration.
+     * */
+    public void addSample(double power, double velocity, double acceleration) {
+        final double s = Math.signum(velocity);
+
+        sumSS += s * s;
+        sumSV += s * velocity;
+        sumSA += s * acceleration;
+        sumVV += velocity * velocity;
+        sumVA += velocity * acceleration;
+        sumAA += acceleration * acceleration;
+
+        sumSP += s * power;
+        sumVP += velocity * power;
+        sumAP += acceleration * power;
+        sumPP += power * power;
+
+        sampleCount++;
+    }
+
+    /**
+     * <p>Clears all the added samples.</p>
+     * */
+    public void reset() {
+        sumSS = sumSV = sumSA = sumVV = sumVA = sumAA = 0;
+        sumSP = sumVP = sumAP = sumPP = 0;
+        sampleCount = 0;
+    }
+
+    /** @return The amount of added samples.*/
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * <p>
+     *     Solves the fit. If the samples do not contain enough variation in acceleration,
+     *     e.g. only quasistatic samples were added, kA is left at zero and only kS and kV are fitted.
+     * </p>
+     * @return The fitted coefficients.
+     * @throws IllegalStateException If the samples are not enough to determine kS and kV.
+     * */
+    public FeedforwardCoefficients solve() {
+        double[] full = solve3(
+                sumSS, sumSV, sumSA,
+                sumSV, sumVV, sumVA,
+                sumSA, sumVA, sumAA,
+                sumSP, sumVP, sumAP
+        );
+        if (full != null) {
+            return new FeedforwardCoefficients(full[0], full[1], full[2]);
+        }
+
+        final double determinant = sumSS * sumVV - sumSV * sumSV;
+        if (Math.abs(determinant) <= 1e-12 * Math.max(1, sumSS * sumVV)) {
+            throw new IllegalStateException("Not enough samples to fit the feedforward coefficients");
+        }
+        final double kS = (sumSP * sumVV - sumSV * sumVP) / determinant;
+        final double kV = (sumSS * sumVP - sumSV * sumSP) / determinant;
+        return new FeedforwardCoefficients(kS, kV, 0);
+    }
+
+    /**
+     * <p>Calculates the fraction of the variance of the power explained by the given coefficients.</p>
+     * @param coefficients The coefficients, usually the result of {@link #solve()}.
+     * @return The coefficient of determination; 1 for a perfect fit.
+     * */
+    public double getRSquared(FeedforwardCoefficients coefficients) {
+        if (sampleCount == 0) return 0;
+
+        final double kS = coefficients.kS;
+        final double kV = coefficients.kV;
+        final double kA = coefficients.kA;
+
+        final double sumPredictedP = kS * sumSP + kV * sumVP + kA * sumAP;
+        final double sumPredictedSquared =
+                kS * kS * sumSS + kV * kV * sumVV + kA * kA * sumAA +
+                2 * (kS * kV * sumSV + kS * kA * sumSA + kV * kA * sumVA);
+
+        final double residual = sumPP - 2 * sumPredictedP + sumPredictedSquared;
+        return sumPP == 0 ? 0 : 1 - residual / sumPP;
+    }
+
+    /**
+     * <p>Solves a 3x3 linear system with Cramer's rule.</p>
+     * @return The solution or null if the system is close to singular.
+     * */
+    private static double[] solve3(
+            double a00, double a01, double a02,
+            double a10, double a11, double a12,
+            double a20, double a21, double a22,
+            double b0, double b1, double b2
+    ) {
+        final double c00 = a11 * a22 - a12 * a21;
+        final double c01 = a12 * a20 - a10 * a22;
+        final double c02 = a10 * a21 - a11 * a20;
+        final double determinant = a00 * c00 + a01 * c01 + a02 * c02;
+
+        if (Math.abs(determinant) <= 1e-12 * Math.max(1, Math.abs(a00 * a11 * a22))) return null;
+
+        final double x0 = (b0 * c00 + a01 * (a12 * b2 - b1 * a22) + a02 * (b1 * a21 - a11 * b2)) / determinant;
+        final double x1 = (a00 * (b1 * a22 - a12 * b2) + b0 * c01 + a02 * (a10 * b2 - b1 * a20)) / determinant;
+        final double x2 = (a00 * (a11 * b2 - b1 * a21) + a01 * (b1 * a20 - a10 * b2) + b0 * c02) / determinant;
+
+        return new double[] {x0, x1, x2};
+    }
+}
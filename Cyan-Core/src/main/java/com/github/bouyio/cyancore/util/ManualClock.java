@@ -0,0 +1,58 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     A clock whose time only changes when it is advanced.
+ *     Meant to be used for simulations and tests that need to run deterministically or faster than real time.
+ * <p/>
+ * @see Clock
+ * */
+public class ManualClock implements Clock {
+
+    private long time;
+
+    /** Creates a clock starting at time zero.*/
+    public ManualClock() {
+        this(0);
+    }
+
+    /**
+     * <p>Creates a clock starting at the given time.<p/>
+     * @param startTime The starting time in nanoseconds.
+     * */
+    public ManualClock(long startTime) {
+        time = startTime;
+    }
+
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+
+    /**
+     * <p>Moves the time forward.<p/>
+     * @param nanos The amount of nanoseconds to move forward by.
+     * */
+    public void advance(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Time cannot move backwards");
+        }
+        time += nanos;
+    }
+
+    /**
+     * <p>Moves the time forward.<p/>
+     * @param seconds The amount of seconds to move forward by.
+     * */
+    public void advanceSeconds(double seconds) {
+        advance(Math.round(seconds * 1e9));
+    }
+
+    /**
+     * <p>Moves the time forward to the given time. Earlier times are ignored.<p/>
+     * @param nanoTime The time in nanoseconds.
+     * */
+    public void advanceTo(long nanoTime) {
+        if (nanoTime > time) time = nanoTime;
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     A trapezoidal motion profile over a distance, precomputed into lookup tables of
+ *     position, velocity and acceleration sampled at a fixed period.
+ *     Sampling the profile is a linear interpolation between two table entries, so it never
+ *     evaluates the profile equations or allocates while a profile is followed.
+ * </p>
+ * <p>
+ *     The profile starts and ends at rest. If the distance is too short to reach the maximum velocity
+ *     the profile becomes triangular. A negative distance produces a profile moving backwards.
+ *     Past its duration the profile stays at rest on its final position.
+ * </p>
+ * */
+public class MotionProfile {
+
+    private final double distance;
+    private final double duration;
+
+    private final double samplePeriod;
+    private final double sampleRate;
+
+    private final double[] positions;
+    private final double[] velocities;
+    private final double[] accelerations;
+
+    // The analytic description used only for filling the tables.
+    private final double accelerationTime;
+    private final double cruiseTime;
+    private final double peakVelocity;
+    private final double maxAcceleration;
+
+    /**
+     * <p>Creates and samples a profile.</p>
+     * @param distance The distance to be travelled.
+     * @param maxVelocity The maximum velocity in distance units per second.
+     * @param maxAcceleration The maximum acceleration in distance units per second squared.
+     * @param samplePeriod The time between two samples of the lookup tables in seconds.
+     * */
+    public MotionProfile(double distance, double maxVelocity, double maxAcceleration, double samplePeriod) {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0)) {
+            throw new IllegalArgumentException("Maximum velocity and acceleration must be positive");
+        }
+        if (!(samplePeriod > 0)) {
+            throw new IllegalArgumentException("Sample period must be positive");
+        }
+        if (Double.isNaN(distance) || Double.isInfinite(distance)) {
+            throw new IllegalArgumentException("Profile distance must be finite");
+        }
+
+        this.distance = distance;
+        this.samplePeriod = samplePeriod;
+        this.sampleRate = 1 / samplePeriod;
+        this.maxAcceleration = maxAcceleration;
+
+        final double absDistance = Math.abs(distance);
+        double accelerationTime = maxVelocity / maxAcceleration;
+
+        if (maxAcceleration * accelerationTime * accelerationTime > absDistance) {
+            // Triangular; the robot starts braking before it reaches the maximum velocity.
+            accelerationTime = Math.sqrt(absDistance / maxAcceleration);
+            peakVelocity = maxAcceleration * accelerationTime;
+            cruiseTime = 0;
+        } else {
+            peakVelocity = maxVelocity;
+            cruiseTime = (absDistance - maxAcceleration * accelerationTime * accelerationTime) / maxVelocity;
+        }
+
+        this.accelerationTime = accelerationTime;
+        duration = 2 * accelerationTime + cruiseTime;
+
+        final int sampleAmount = (int) Math.ceil(duration * sampleRate) + 1;
+        positions = new double[sampleAmount];
+        velocities = new double[sampleAmount];
+        accelerations = new double[sampleAmount];
+
+        final double sign = Math.signum(distance);
+        for (int i = 0; i < sampleAmount; i++) {
+            fillSample(i, i * samplePeriod, sign);
+        }
+    }
+
+    /**
+     * <p>Evaluates the profile equations at the given time and stores them in the tables.</p>
+     * */
+    private void fillSample(int index, double time, double sign) {
+        final double decelerationStart = accelerationTime + cruiseTime;
+        final double cruiseDistance = peakVelocity * cruiseTime;
+        final double accelerationDistance = 0.5 * maxAcceleration * accelerationTime * accelerationTime;
+
+        double position;
+        double velocity;
+        double acceleration;
+
+        if (time >= duration) {
+            position = accelerationDistance * 2 + cruiseDistance;
+            velocity = 0;
+            acceleration = 0;
+        } else if (time < accelerationTime) {
+            position = 0.5 * maxAcceleration * time * time;
+            velocity = maxAcceleration * time;
+            acceleration = maxAcceleration;
+        } else if (time < decelerationStart) {
+            position = accelerationDistance + peakVelocity * (time - accelerationTime);
+            velocity = peakVelocity;
+            acceleration = 0;
+        } else {
+            final double elapsed = time - decelerationStart;
+            position = accelerationDistance + cruiseDistance +
+                    peakVelocity * elapsed - 0.5 * maxAcceleration * elapsed * elapsed;
+            velocity = peakVelocity - maxAcceleration * elapsed;
+            acceleration = -maxAcceleration;
+        }
+
+        positions[index] = sign * position;
+        velocities[index] = sign * velocity;
+        accelerations[index] = sign * acceleration;
+    }
+
+    // ----SAMPLING----
+
+    /**
+     * <p>Interpolates a lookup table at the given time.</p>
+     * @param table A table with an entry for every sample of this profile.
+     * @param time The time since the start of the profile in seconds.
+     * @return The interpolated value.
+     * */
+    public double sample(double[] table, double time) {
+        final int lastIndex = positions.length - 1;
+        final double index = time * sampleRate;
+
+        if (!(index > 0)) return table[0];
+        if (index >= lastIndex) return table[lastIndex];
+
+        final int lower = (int) index;
+        final double fraction = index - lower;
+        return table[lower] + (table[lower + 1] - table[lower]) * fraction;
+    }
+
+    /**
+     * @param time The time since the start of the profile in seconds.
+     * @return The target position at the given time.
+     * */
+    public double getPosition(double time) {
+        return sample(positions, time);
+    }
+
+    /**
+     * @param time The time since the start of the profile in seconds.
+     * @return The target velocity at the given time.
+     * */
+    public double getVelocity(double time) {
+        return sample(velocities, time);
+    }
+
+    /**
+     * @param time The time since the start of the profile in seconds.
+     * @return The target acceleration at the given time.
+     * */
+    public double getAcceleration(double time) {
+        return sample(accelerations, time);
+    }
+
+    // ----TABLE ACCESS----
+
+    /** @return The amount of samples in every lookup table.*/
+    public int getSampleAmount() {
+        return positions.length;
+    }
+
+    /** @return The target velocity of the sample with the given index.*/
+    public double getVelocitySample(int index) {
+        return velocities[index];
+    }
+
+    /** @return The target acceleration of the sample with the given index.*/
+    public double getAccelerationSample(int index) {
+        return accelerations[index];
+    }
+
+    /** @return The target position of the sample with the given index.*/
+    public double getPositionSample(int index) {
+        return positions[index];
+    }
+
+    // ----PROFILE INFO----
+
+    /** @return The distance travelled by the profile.*/
+    public double getDistance() {
+        return distance;
+    }
+
+    /** @return The time needed to complete the profile in seconds.*/
+    public double getDuration() {
+        return duration;
+    }
+
+    /** @return The time between two samples of the lookup tables in seconds.*/
+    public double getSamplePeriod() {
+        return samplePeriod;
+    }
+}
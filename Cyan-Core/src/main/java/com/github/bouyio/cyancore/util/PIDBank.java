@@ -0,0 +1,239 @@
+package com.github.bouyio.cyancore.util;
+
+/**
+ * <p>
+ *     A fixed amount of PID controllers updated together in a single pass.
+ *     The coefficients and the state of every channel are stored in primitive arrays and all the
+ *     channels share one timestamp per update, so they run in a consistent time base with a single clock read.
+ * </p>
+ * <p>
+ *     Every channel behaves like a {@link PIDController}, including the anti-windup protection.
+ *     A channel is addressed by its index, from zero to {@link #getChannelAmount()} excluded.
+ * </p>
+ * @see PIDController
+ * */
+public class PIDBank {
+
+    private final int channelAmount;
+    private Clock clock;
+
+    private final double[] kP;
+    private final double[] kI;
+    private final double[] kD;
+    private final double[] maxIntegralSums;
+
+    private final double[] integralSums;
+    private final double[] previousErrors;
+    private final double[] lastDerivatives;
+    private final double[] outputs;
+
+    // Channels reset since the last update; they only record their error on the next update.
+    private final boolean[] isReset;
+
+    private long previousTime = 0;
+    private boolean firstUpdate = true;
+
+    /**
+     * <p>Creates a bank of controllers with zero coefficients, timed by the given clock.</p>
+     * @param channelAmount The amount of controllers.
+     * @param clock The clock.
+     * */
+    public PIDBank(int channelAmount, Clock clock) {
+        if (channelAmount <= 0) {
+            throw new IllegalArgumentException("Channel amount must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.channelAmount = channelAmount;
+        this.clock = clock;
+
+        kP = new double[channelAmount];
+        kI = new double[channelAmount];
+        kD = new double[channelAmount];
+        maxIntegralSums = new double[channelAmount];
+
+        integralSums = new double[channelAmount];
+        previousErrors = new double[channelAmount];
+        lastDerivatives = new double[channelAmount];
+        outputs = new double[channelAmount];
+        isReset = new boolean[channelAmount];
+
+        for (int i = 0; i < channelAmount; i++) {
+            maxIntegralSums[i] = Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * <p>Creates a bank of controllers with zero coefficients, timed by the global clock.</p>
+     * @param channelAmount The amount of controllers.
+     * @see Clocks#getGlobalClock()
+     * */
+    public PIDBank(int channelAmount) {
+        this(channelAmount, Clocks.getGlobalClock());
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Sets the coefficients of a channel.</p>
+     * @param channel The index of the channel.
+     * @param coefficients The coefficients.
+     * */
+    public void setCoefficients(int channel, PIDCoefficients coefficients) {
+        if (coefficients == null) {
+            throw new IllegalArgumentException("PID coefficients cannot be null");
+        }
+        kP[channel] = coefficients.kP;
+        kI[channel] = coefficients.kI;
+        kD[channel] = coefficients.kD;
+    }
+
+    /**
+     * <p>Sets the maximum integral sum of a channel to prevent windup.<p/>
+     * @param channel The index of the channel.
+     * @param maxIntegralSum Maximum allowed integral sum.
+     * */
+    public void setMaxIntegralSum(int channel, double maxIntegralSum) {
+        maxIntegralSums[channel] = Math.abs(maxIntegralSum);
+    }
+
+    /**
+     * <p>Sets the clock used for measuring the time between updates.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        firstUpdate = true;
+    }
+
+    // ----UPDATE----
+
+    /**
+     * <p>Updates every channel with the given errors, reading the clock once.<p/>
+     * @param errors The error of every channel.
+     * @param results The array the result of every channel is written to. May be the errors array.
+     * */
+    public void update(double[] errors, double[] results) {
+        if (errors.length < channelAmount || results.length < channelAmount) {
+            throw new IllegalArgumentException("Expected " + channelAmount + " channels");
+        }
+
+        final long currentTime = clock.nanoTime();
+
+        if (firstUpdate) {
+            firstUpdate = false;
+            previousTime = currentTime;
+            for (int i = 0; i < channelAmount; i++) {
+                final double error = errors[i];
+                previousErrors[i] = error;
+                lastDerivatives[i] = 0;
+                isReset[i] = false;
+                outputs[i] = error * kP[i] + integralSums[i] * kI[i];
+                results[i] = outputs[i];
+            }
+            return;
+        }
+
+        final long deltaNanos = currentTime - previousTime;
+
+        if (deltaNanos <= 0) {
+            for (int i = 0; i < channelAmount; i++) {
+                outputs[i] = errors[i] * kP[i] + integralSums[i] * kI[i] + lastDerivatives[i] * kD[i];
+                results[i] = outputs[i];
+            }
+            return;
+        }
+
+        final double deltaTime = deltaNanos * 1e-9;
+        final double inverseDeltaTime = 1 / deltaTime;
+
+        for (int i = 0; i < channelAmount; i++) {
+            final double error = errors[i];
+
+            if (isReset[i]) {
+                isReset[i] = false;
+                previousErrors[i] = error;
+                lastDerivatives[i] = 0;
+                outputs[i] = error * kP[i] + integralSums[i] * kI[i];
+                results[i] = outputs[i];
+                continue;
+            }
+
+            final double maxIntegralSum = maxIntegralSums[i];
+            double integralSum = integralSums[i] + error * deltaTime;
+            integralSum = Math.max(-maxIntegralSum, Math.min(maxIntegralSum, integralSum));
+            integralSums[i] = integralSum;
+
+            final double derivative = (error - previousErrors[i]) * inverseDeltaTime;
+            lastDerivatives[i] = derivative;
+            previousErrors[i] = error;
+
+            outputs[i] = error * kP[i] + integralSum * kI[i] + derivative * kD[i];
+            results[i] = outputs[i];
+        }
+
+        previousTime = currentTime;
+    }
+
+    /**
+     * <p>Resets the integral sum of a channel.<p/>
+     * @param channel The index of the channel.
+     * */
+    public void resetIntegralSum(int channel) {
+        integralSums[channel] = 0;
+        isReset[channel] = true;
+    }
+
+    /**
+     * <p>Resets the integral sum of every channel.<p/>
+     * */
+    public void resetIntegralSums() {
+        for (int i = 0; i < channelAmount; i++) {
+            integralSums[i] = 0;
+        }
+        firstUpdate = true;
+    }
+
+    // ----GETTERS----
+
+    /** @return The amount of controllers.*/
+    public int getChannelAmount() {
+        return channelAmount;
+    }
+
+    /**
+     * @param channel The index of the channel.
+     * @return The result of the channel on the last update.
+     * */
+    public double getOutput(int channel) {
+        return outputs[channel];
+    }
+
+    /**
+     * @param channel The index of the channel.
+     * @return The current integral sum of the channel.
+     * */
+    public double getIntegralSum(int channel) {
+        return integralSums[channel];
+    }
+
+    /**
+     * @param channel The index of the channel.
+     * @return The derivative term of the channel on the last update.
+     * */
+    public double getLastDerivative(int channel) {
+        return lastDerivatives[channel] * kD[channel];
+    }
+
+    /**
+     * @param channel The index of the channel.
+     * @return A copy of the coefficients of the channel.
+     * */
+    public PIDCoefficients getCoefficients(int channel) {
+        return new PIDCoefficients(kP[channel], kI[channel], kD[channel]);
+    }
+}
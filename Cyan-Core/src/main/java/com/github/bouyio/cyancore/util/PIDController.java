@@ -3,6 +3,7 @@ package com.github.bouyio.cyancore.util;
 /**
  * A proportional, integral and derivative controller with improved performance and safety.
  * Features anti-windup protection and optimized calculations for FTC robotics.
+ * Timed by a nanosecond {@link Clock}, which can be injected for deterministic simulations.
  *
  * @author Bouyio (https://github.com/bouyio)
  * @author Gvol (https://github.com/Gvolexe)
@@ -10,24 +11,38 @@ package com.github.bouyio.cyancore.util;
 public class PIDController {
 
     private final PIDCoefficients coefficients;
+    private Clock clock;
 
     private double integralSum = 0;
-    private double previousTime;
+    private long previousTime;
     private double previousError = 0;
+    private double lastDerivative = 0;
     
     // Optimized: Added anti-windup protection
     private double maxIntegralSum = Double.MAX_VALUE;
     private boolean firstUpdate = true;
 
     /**
-     * <p>Creates a controller with the given coefficients.</p>
+     * <p>Creates a controller with the given coefficients, timed by the given clock.</p>
      * */
-    public PIDController(PIDCoefficients coefficients) {
+    public PIDController(PIDCoefficients coefficients, Clock clock) {
         if (coefficients == null) {
             throw new IllegalArgumentException("PID coefficients cannot be null");
         }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
         this.coefficients = coefficients;
-        previousTime = System.currentTimeMillis() * 0.001; // Optimized: avoid division
+        this.clock = clock;
+        previousTime = clock.nanoTime();
+    }
+
+    /**
+     * <p>Creates a controller with the given coefficients, timed by the global clock.</p>
+     * @see Clocks#getGlobalClock()
+     * */
+    public PIDController(PIDCoefficients coefficients) {
+        this(coefficients, Clocks.getGlobalClock());
     }
 
     /**
@@ -40,32 +55,57 @@ public class PIDController {
         this(new PIDCoefficients(proportionalCoefficient, derivativeCoefficient, integralCoefficient));
     }
 
+    /**
+     * <p>Sets the clock used for measuring the time between updates.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        firstUpdate = true;
+    }
+
     /**
      * <p>Updates the controller and the result based on current error.<p/>
+     * <p>
+     *     If no time has passed since the previous update, the integral and derivative terms of the
+     *     previous update are reused instead of dividing by zero.
+     * <p/>
      * @param error The error.
      * @return The result.
      * */
     public double update(double error) {
-        final double currentTime = System.currentTimeMillis() * 0.001; // Optimized: avoid division
-        final double deltaTime = currentTime - previousTime;
-        
-        // Optimized: Handle first update and prevent division by zero
-        if (firstUpdate || deltaTime <= 1e-6) { // Use epsilon instead of 0 for better precision
+        final long currentTime = clock.nanoTime();
+
+        if (firstUpdate) {
             firstUpdate = false;
             previousTime = currentTime;
             previousError = error;
-            return error * coefficients.kP;  // Return proportional term only
+            lastDerivative = 0;
+            return error * coefficients.kP + integralSum * coefficients.kI;
         }
 
+        final long deltaNanos = currentTime - previousTime;
+
+        if (deltaNanos <= 0) {
+            return error * coefficients.kP +
+                    integralSum * coefficients.kI +
+                    lastDerivative * coefficients.kD;
+        }
+
+        final double deltaTime = deltaNanos * 1e-9;
+
         // Optimized: Integral with anti-windup protection (faster than if statements)
         integralSum += error * deltaTime;
         integralSum = Math.max(-maxIntegralSum, Math.min(maxIntegralSum, integralSum));
 
-        final double derivative = (error - previousError) / deltaTime;
+        lastDerivative = (error - previousError) / deltaTime;
 
         final double result = error * coefficients.kP +
                              integralSum * coefficients.kI +
-                             derivative * coefficients.kD;
+                             lastDerivative * coefficients.kD;
 
         previousTime = currentTime;
         previousError = error;
@@ -101,7 +141,7 @@ public class PIDController {
      * @return Current derivative value.
      * */
     public double getLastDerivative() {
-        return (previousError * coefficients.kD); // Last calculated derivative component
+        return lastDerivative * coefficients.kD;
     }
 
     /**
@@ -0,0 +1,237 @@
+package com.github.bouyio.cyanftc.debugger;
+
+import com.github.bouyio.cyancore.debugger.Logger;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Forwards selected {@link Logger} channels to the Driver Station {@link Telemetry}.
+ *     Every channel is shown through a single retained {@link Telemetry.Item} created once,
+ *     whose value is only updated when the channel has changed. The telemetry is transmitted at most
+ *     at the configured rate and only if something has changed, regardless of how fast the loop runs.
+ * <p/>
+ * <p>
+ *     The bridge is a {@link Logger.Sink}; it consumes the entries of the logger it drains, so it should be
+ *     the only consumer of that logger. Entries of channels that have not been added are ignored.
+ * <p/>
+ * @see Logger#drain(Logger.Sink)
+ * */
+public class TelemetryBridge implements Logger.Sink {
+
+    private static final int TYPE_NONE = 0;
+    private static final int TYPE_DOUBLE = 1;
+    private static final int TYPE_LONG = 2;
+    private static final int TYPE_OBJECT = 3;
+
+    /**
+     * <p>The latest value of a forwarded channel.<p/>
+     * */
+    private static class Channel {
+        final Telemetry.Item item;
+
+        int type = TYPE_NONE;
+        double doubleValue = 0;
+        long longValue = 0;
+        Object objectValue = null;
+        boolean isDirty = false;
+
+        Channel(Telemetry.Item item) {
+            this.item = item;
+        }
+    }
+
+    private final Telemetry telemetry;
+
+    private final Map<String, Channel> channels = new HashMap<>();
+    private final List<Channel> channelList = new ArrayList<>();
+
+    private Clock clock = Clocks.getGlobalClock();
+    private long transmitPeriodNanos = 100_000_000L;
+    private String numberFormat = "%.3f";
+
+    private long lastTransmitTime = 0;
+    private boolean hasTransmitted = false;
+    private boolean isAnyDirty = false;
+
+    private long transmissions = 0;
+
+    /**
+     * <p>
+     *     Creates a bridge to the given telemetry. The items of the bridge are retained, so they survive the auto clear
+     *     of the telemetry while the items added by the OpMode are cleared as usual.
+     * <p/>
+     * @param telemetry The telemetry of the OpMode.
+     * */
+    public TelemetryBridge(Telemetry telemetry) {
+        if (telemetry == null) {
+            throw new IllegalArgumentException("Telemetry cannot be null");
+        }
+        this.telemetry = telemetry;
+    }
+
+    // ----SET UP METHODS----
+
+    /**
+     * <p>Forwards a channel, shown with its name as caption.<p/>
+     * @param channelName The name of the channel.
+     * */
+    public void addChannel(String channelName) {
+        addChannel(channelName, channelName);
+    }
+
+    /**
+     * <p>Forwards a channel.<p/>
+     * @param channelName The name of the channel.
+     * @param caption The caption shown on the Driver Station.
+     * */
+    public void addChannel(String channelName, String caption) {
+        if (channelName == null || caption == null) {
+            throw new IllegalArgumentException("Channel name and caption cannot be null");
+        }
+        if (channels.containsKey(channelName)) return;
+
+        Telemetry.Item item = telemetry.addData(caption, "");
+        item.setRetained(true);
+
+        Channel channel = new Channel(item);
+        channels.put(channelName, channel);
+        channelList.add(channel);
+    }
+
+    /**
+     * <p>Sets the maximum rate the telemetry is transmitted at.<p/>
+     * @param frequency The rate in Hertz, e.g. 10.
+     * */
+    public void setTransmitRate(double frequency) {
+        if (!(frequency > 0)) {
+            throw new IllegalArgumentException("Transmit rate must be positive");
+        }
+        transmitPeriodNanos = Math.round(1e9 / frequency);
+    }
+
+    /**
+     * <p>Sets the format used for decimal values.<p/>
+     * @param format The format, e.g. {@code "%.3f"}.
+     * */
+    public void setNumberFormat(String format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Number format cannot be null");
+        }
+        numberFormat = format;
+    }
+
+    /**
+     * <p>Sets the clock used for limiting the transmit rate.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    // ----SINK----
+
+    @Override
+    public void acceptDouble(String header, double value, long timestamp) {
+        Channel channel = channels.get(header);
+        if (channel == null) return;
+
+        if (channel.type != TYPE_DOUBLE || Double.compare(channel.doubleValue, value) != 0) {
+            channel.type = TYPE_DOUBLE;
+            channel.doubleValue = value;
+            markDirty(channel);
+        }
+    }
+
+    @Override
+    public void acceptLong(String header, long value, long timestamp) {
+        Channel channel = channels.get(header);
+        if (channel == null) return;
+
+        if (channel.type != TYPE_LONG || channel.longValue != value) {
+            channel.type = TYPE_LONG;
+            channel.longValue = value;
+            markDirty(channel);
+        }
+    }
+
+    @Override
+    public void acceptObject(String header, Object value, long timestamp) {
+        Channel channel = channels.get(header);
+        if (channel == null) return;
+
+        boolean isSame = channel.type == TYPE_OBJECT &&
+                (value == null ? channel.objectValue == null : value.equals(channel.objectValue));
+        if (!isSame) {
+            channel.type = TYPE_OBJECT;
+            channel.objectValue = value;
+            markDirty(channel);
+        }
+    }
+
+    private void markDirty(Channel channel) {
+        channel.isDirty = true;
+        isAnyDirty = true;
+    }
+
+    // ----TRANSMISSION----
+
+    /**
+     * <p>Drains the logger and transmits the changed channels if the transmit period has passed.<p/>
+     * @param logger The logger holding the channels.
+     * @return Whether the telemetry was transmitted.
+     * */
+    public boolean update(Logger logger) {
+        logger.drain(this);
+        return update();
+    }
+
+    /**
+     * <p>Transmits the changed channels if the transmit period has passed.<p/>
+     * @return Whether the telemetry was transmitted.
+     * */
+    public boolean update() {
+        if (!isAnyDirty) return false;
+
+        final long currentTime = clock.nanoTime();
+        if (hasTransmitted && currentTime - lastTransmitTime < transmitPeriodNanos) return false;
+
+        for (Channel channel : channelList) {
+            if (!channel.isDirty) continue;
+
+            switch (channel.type) {
+                case TYPE_DOUBLE:
+                    channel.item.setValue(numberFormat, channel.doubleValue);
+                    break;
+                case TYPE_LONG:
+                    channel.item.setValue(channel.longValue);
+                    break;
+                default:
+                    channel.item.setValue(channel.objectValue);
+            }
+            channel.isDirty = false;
+        }
+
+        telemetry.update();
+        isAnyDirty = false;
+        hasTransmitted = true;
+        lastTransmitTime = currentTime;
+        transmissions++;
+        return true;
+    }
+
+    /** @return The amount of times the telemetry has been transmitted.*/
+    public long getTransmissions() {
+        return transmissions;
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.bouyio.cyanftc.hardware;
+
+import com.github.bouyio.cyancore.pathing.engine.VectorInterpreter;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+/**
+ * <p>
+ *     Output stage between a {@link VectorInterpreter} and the drivetrain motors.
+ *     Every {@code setPower} call is a bus transaction on the hub, so a power is only written when it
+ *     has changed by more than a configurable epsilon since it was last written, or when the refresh
+ *     deadline of the motor has passed. Commands to stop a motor are always written exactly.
+ * </p>
+ * <p>
+ *     The motors must be given in the index order of the motor inputs of the interpreter.
+ * </p>
+ * @see VectorInterpreter#getMotorInputs()
+ * */
+public class CoalescingMotorWriter {
+
+    private final DcMotorSimple[] motors;
+    private final double[] lastWrittenPowers;
+    private final long[] lastWriteTimes;
+
+    private Clock clock = Clocks.getGlobalClock();
+
+    private double epsilon = 0.005;
+    private long refreshPeriodNanos = 250_000_000L;
+
+    private long performedWrites = 0;
+    private long skippedWrites = 0;
+
+    /**
+     * <p>Creates an output stage for the given motors.</p>
+     * @param motors The motors in the index order of the motor inputs of the interpreter.
+     * */
+    public CoalescingMotorWriter(DcMotorSimple... motors) {
+        if (motors == null || motors.length == 0) {
+            throw new IllegalArgumentException("At least one motor is required");
+        }
+        for (DcMotorSimple motor : motors) {
+            if (motor == null) {
+                throw new IllegalArgumentException("Motors cannot be null");
+            }
+        }
+        this.motors = motors.clone();
+        lastWrittenPowers = new double[motors.length];
+        lastWriteTimes = new long[motors.length];
+        invalidate();
+    }
+
+    /**
+     * <p>Sets the minimum change of power that causes a write.</p>
+     * @param epsilon The power change threshold.
+     * */
+    public void setEpsilon(double epsilon) {
+        this.epsilon = Math.abs(epsilon);
+    }
+
+    /**
+     * <p>
+     *     Sets the maximum time a motor may go without a write, even if its power has not changed.
+     *     Zero disables the periodic refresh.
+     * </p>
+     * @param refreshPeriodMillis The refresh period in milliseconds.
+     * */
+    public void setRefreshPeriod(long refreshPeriodMillis) {
+        refreshPeriodNanos = Math.max(0, refreshPeriodMillis) * 1_000_000L;
+    }
+
+    /**
+     * <p>Sets the clock used for the refresh deadlines.</p>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * <p>Writes the current motor inputs of the given interpreter to the motors.</p>
+     * @param vectorInterpreter The interpreter whose outputs are written.
+     * */
+    public void write(VectorInterpreter vectorInterpreter) {
+        write(vectorInterpreter.getMotorInputs());
+    }
+
+    /**
+     * <p>Writes the given powers to the motors, skipping the ones that do not need a write.</p>
+     * @param powers The powers in the index order of the motors.
+     * */
+    public void write(double[] powers) {
+        if (powers == null || powers.length != motors.length) {
+            throw new IllegalArgumentException("Expected " + motors.length + " motor powers");
+        }
+
+        final long currentTime = clock.nanoTime();
+
+        for (int i = 0; i < motors.length; i++) {
+            final double power = powers[i];
+            final double lastPower = lastWrittenPowers[i];
+
+            boolean hasChanged = Double.isNaN(lastPower) ||
+                    Math.abs(power - lastPower) > epsilon ||
+                    (power == 0 && lastPower != 0);
+
+            boolean isRefreshDue = refreshPeriodNanos > 0 &&
+                    currentTime - lastWriteTimes[i] >= refreshPeriodNanos;
+
+            if (!hasChanged && !isRefreshDue) {
+                skippedWrites++;
+                continue;
+            }
+
+            motors[i].setPower(power);
+            lastWrittenPowers[i] = power;
+            lastWriteTimes[i] = currentTime;
+            performedWrites++;
+        }
+    }
+
+    /**
+     * <p>Sets the power of every motor to zero.</p>
+     * */
+    public void stop() {
+        for (int i = 0; i < motors.length; i++) {
+            if (lastWrittenPowers[i] == 0) {
+                skippedWrites++;
+                continue;
+            }
+            motors[i].setPower(0);
+            lastWrittenPowers[i] = 0;
+            lastWriteTimes[i] = clock.nanoTime();
+            performedWrites++;
+        }
+    }
+
+    /**
+     * <p>
+     *     Forgets the last written powers so the next write reaches every motor.
+     *     Should be used when the motors may have been commanded by something else.
+     * </p>
+     * */
+    public void invalidate() {
+        for (int i = 0; i < motors.length; i++) {
+            lastWrittenPowers[i] = Double.NaN;
+        }
+    }
+
+    /** @return The number of powers written to the motors.*/
+    public long getPerformedWrites() {
+        return performedWrites;
+    }
+
+    /** @return The number of powers that did not need to be written to the motors.*/
+    public long getSkippedWrites() {
+        return skippedWrites;
+    }
+
+    /**
+     * <p>Resets the write counters.</p>
+     * */
+    public void resetCounters() {
+        performedWrites = 0;
+        skippedWrites = 0;
+    }
+}
@@ -3,6 +3,9 @@ package com.github.bouyio.cyanftc.localization;
 import com.github.bouyio.cyancore.geomery.Pose2D;
 import com.github.bouyio.cyancore.geomery.SmartPoint;
 import com.github.bouyio.cyancore.localization.PositionProvider;
+import com.github.bouyio.cyancore.localization.VelocityEstimator;
+import com.github.bouyio.cyancore.util.Clock;
+import com.github.bouyio.cyancore.util.Clocks;
 import com.github.bouyio.cyancore.util.Distance;
 import com.github.bouyio.cyancore.util.MathUtil;
 import com.github.bouyio.cyanftc.util.RcToCyanDistanceUnit;
@@ -28,6 +31,8 @@ public class PinPointLocalizer implements PositionProvider {
 
     private final GoBildaPinpointDriver pinpointDriver;
 
+    private final VelocityEstimator velocityEstimator = new VelocityEstimator(Clocks.getGlobalClock());
+
     /**
      * <p>Creates a position tracker at a specified position.<p/>
      * @param initialPosition The initial position of the robot.
@@ -117,6 +122,23 @@ public class PinPointLocalizer implements PositionProvider {
         return pose;
     }
 
+    /**
+     * <p>Formats the velocity of the robot estimated from consecutive pose updates as {@link Pose2D}.<p/>
+     * @return The x and y velocity in distance units per second and the angular velocity in Radians per second.
+     * */
+    @Override
+    public Pose2D getVelocity() {
+        return velocityEstimator.getVelocity();
+    }
+
+    /**
+     * <p>Sets the clock used for timing the pose updates of the velocity estimation.<p/>
+     * @param clock The clock.
+     * */
+    public void setClock(Clock clock) {
+        velocityEstimator.setClock(clock);
+    }
+
     /**
      * <p>Updates the position estimate.<p/>
      * */
@@ -132,5 +154,6 @@ public class PinPointLocalizer implements PositionProvider {
 
         pinpointDriver.setPosition(RcToCyanPose.toRc(translatedPose, unitOfMeasurement));
         pose = RcToCyanPose.toCyan(pinpointDriver.getPosition(), unitOfMeasurement);
+        velocityEstimator.update(pose.getX(), pose.getY(), pose.getTheta());
     }
 }